@@ -0,0 +1,63 @@
+#!/usr/bin/env python3
+"""Closed-loop HTTP load generator: CONCURRENCY keep-alive clients issue GET requests
+for DURATION seconds and the script prints throughput and latency percentiles.
+
+usage: load-generator.py URL [concurrency] [duration_seconds] [user:password]
+"""
+import base64
+import http.client
+import sys
+import threading
+import time
+from urllib.parse import urlparse
+
+
+def worker(url, auth, deadline, latencies, errors):
+    conn = http.client.HTTPConnection(url.hostname, url.port, timeout=30)
+    headers = {"Authorization": "Basic " + auth} if auth else {}
+    path = url.path + ("?" + url.query if url.query else "")
+    while time.monotonic() < deadline:
+        start = time.perf_counter()
+        try:
+            conn.request("GET", path, headers=headers)
+            response = conn.getresponse()
+            response.read()
+            if response.status >= 400:
+                errors.append(response.status)
+        except (OSError, http.client.HTTPException):
+            errors.append(0)
+            conn.close()
+            conn = http.client.HTTPConnection(url.hostname, url.port, timeout=30)
+            continue
+        latencies.append(time.perf_counter() - start)
+
+
+def main():
+    url = urlparse(sys.argv[1])
+    concurrency = int(sys.argv[2]) if len(sys.argv) > 2 else 32
+    duration = float(sys.argv[3]) if len(sys.argv) > 3 else 20
+    auth = base64.b64encode(sys.argv[4].encode()).decode() if len(sys.argv) > 4 else None
+
+    latencies, errors = [], []
+    deadline = time.monotonic() + duration
+    threads = [threading.Thread(target=worker, args=(url, auth, deadline, latencies, errors))
+               for _ in range(concurrency)]
+    for thread in threads:
+        thread.start()
+    for thread in threads:
+        thread.join()
+
+    latencies.sort()
+    if not latencies:
+        print("no successful requests, errors: %d" % len(errors))
+        return
+
+    def pct(p):
+        return latencies[min(len(latencies) - 1, int(len(latencies) * p))] * 1000
+
+    print("%8.1f req/s   p50 %7.1f ms   p99 %7.1f ms   max %7.1f ms   errors %d" % (
+        len(latencies) / duration, pct(0.50), pct(0.99), latencies[-1] * 1000, len(errors)))
+
+
+if __name__ == "__main__":
+    main()
@@ -0,0 +1,52 @@
+#!/usr/bin/env bash
+#
+# Throughput/latency comparison of the server runtimes under identical load:
+#   servlet          Tomcat, reactive handlers via async dispatch (default)
+#   netty            WebFlux end-to-end on Reactor Netty (profile "netty")
+#
+# Upstream calls go to a local stub (scripts/spotify-stub.py) with STUB_DELAY_MS latency.
+#
+#   mvn -DskipTests package
+#   scripts/runtime-benchmark.sh [concurrency] [duration_seconds]
+#
+set -euo pipefail
+
+CONCURRENCY="${1:-64}"
+DURATION="${2:-20}"
+PORT="${PORT:-18080}"
+STUB_PORT="${STUB_PORT:-18090}"
+cd "$(dirname "$0")/.."
+
+JAR="target/music-player-0.0.1-SNAPSHOT.jar"
+URL="http://localhost:${PORT}/api/spotify/track/bench"
+
+python3 scripts/spotify-stub.py "$STUB_PORT" &
+STUB_PID=$!
+trap 'kill $STUB_PID 2>/dev/null || true' EXIT
+
+run_mode() {
+  local mode="$1" profile="$2"
+  java -jar "$JAR" \
+    --server.port="$PORT" \
+    --spring.profiles.active="$profile" \
+    --spring.security.user.password=bench \
+    --spotify.base-url="http://localhost:${STUB_PORT}" \
+    --spotify.auth-url="http://localhost:${STUB_PORT}/api/token" \
+    --logging.level.com.example.music_player=WARN \
+    --logging.level.org.springframework.web.reactive.function.client=WARN \
+    > "target/runtime-${mode}.log" 2>&1 &
+  local pid=$!
+  until curl -s -o /dev/null "http://localhost:${PORT}/greet"; do
+    kill -0 "$pid" 2>/dev/null || { echo "${mode}: failed to start, see target/runtime-${mode}.log" >&2; return 1; }
+    sleep 0.2
+  done
+  # warm-up, then the measured run
+  python3 scripts/load-generator.py "$URL" "$CONCURRENCY" 5 user:bench > /dev/null
+  printf '%-16s' "$mode"
+  python3 scripts/load-generator.py "$URL" "$CONCURRENCY" "$DURATION" user:bench
+  kill "$pid" && wait "$pid" 2>/dev/null || true
+}
+
+echo "GET ${URL}  concurrency ${CONCURRENCY}  duration ${DURATION}s"
+run_mode servlet default
+run_mode netty netty
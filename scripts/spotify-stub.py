@@ -0,0 +1,107 @@
+#!/usr/bin/env python3
+"""Minimal Spotify Web API stand-in for local benchmarks.
+
+POST to any path returns a client-credentials token, GET /tracks/{id} returns a track,
+GET /search returns one item per requested type, PUT to any path (playback commands) returns 204.
+One device is listed under /me/player/devices. It starts inactive, so a play without device_id
+fails with NO_ACTIVE_DEVICE until a play with device_id or a transfer activates it. GET /me/player
+reports the last played track with progress_ms advancing in real time.
+Every response is delayed by STUB_DELAY_MS (default 50) to model upstream latency.
+"""
+import json
+import os
+import sys
+import time
+from http.server import BaseHTTPRequestHandler, ThreadingHTTPServer
+from urllib.parse import parse_qs, urlparse
+
+DELAY = int(os.environ.get("STUB_DELAY_MS", "50")) / 1000.0
+DEVICE_ID = "stub-device"
+state = {"active": None, "track": None, "started": 0.0}
+
+
+def device():
+    return {"id": DEVICE_ID, "name": "Stub Speaker", "type": "Computer", "is_active": state["active"] == DEVICE_ID,
+            "is_restricted": False, "volume_percent": 50}
+
+
+class Handler(BaseHTTPRequestHandler):
+    protocol_version = "HTTP/1.1"
+
+    def log_message(self, *args):
+        pass
+
+    def _send(self, body, status=200):
+        time.sleep(DELAY)
+        payload = json.dumps(body).encode()
+        self.send_response(status)
+        self.send_header("Content-Type", "application/json")
+        self.send_header("Content-Length", str(len(payload)))
+        self.end_headers()
+        self.wfile.write(payload)
+
+    def do_POST(self):
+        self.rfile.read(int(self.headers.get("Content-Length", 0)))
+        self._send({"access_token": "stub-token", "token_type": "Bearer", "expires_in": 3600})
+
+    def do_PUT(self):
+        body = self.rfile.read(int(self.headers.get("Content-Length", 0)))
+        url = urlparse(self.path)
+        if url.path.endswith("/me/player"):
+            state["active"] = json.loads(body or b"{}").get("device_ids", [None])[0]
+        elif url.path.endswith("/me/player/play"):
+            device_id = parse_qs(url.query).get("device_id", [None])[0]
+            if device_id is None and state["active"] is None:
+                self._send({"error": {"status": 404, "message": "Player command failed: No active device found",
+                                      "reason": "NO_ACTIVE_DEVICE"}}, 404)
+                return
+            state["active"] = device_id or state["active"]
+            request = json.loads(body or b"{}")
+            if "uris" in request:
+                state["track"] = request["uris"][0]
+                state["started"] = time.time() - request.get("position_ms", 0) / 1000.0
+        time.sleep(DELAY)
+        self.send_response(204)
+        self.end_headers()
+
+    def do_GET(self):
+        url = urlparse(self.path)
+        if url.path.endswith("/me"):
+            self._send({"id": "stub-user", "display_name": "Stub User"})
+            return
+        if url.path.endswith("/me/player/devices"):
+            self._send({"devices": [device()]})
+            return
+        if url.path.endswith("/me/player"):
+            playback = {"device": device(), "is_playing": state["active"] is not None}
+            if state["track"] is not None:
+                track_id = state["track"].rsplit(":", 1)[-1]
+                playback["item"] = {"id": track_id, "name": "Stub Track " + track_id, "uri": state["track"],
+                                    "duration_ms": 180000}
+                playback["progress_ms"] = int((time.time() - state["started"]) * 1000) % 180000
+            self._send(playback)
+            return
+        if url.path.endswith("/search"):
+            params = parse_qs(url.query)
+            query = params.get("q", [""])[0]
+            body = {}
+            for kind in params.get("type", ["track"])[0].split(","):
+                item = {"id": kind + "1", "name": "Stub " + kind + " " + query, "uri": "spotify:" + kind + ":" + kind + "1"}
+                body[kind + "s"] = {"items": [item], "total": 1, "limit": 10, "offset": 0}
+            self._send(body)
+            return
+        track_id = self.path.rsplit("/", 1)[-1].split("?")[0]
+        self._send({
+            "id": track_id,
+            "name": "Stub Track " + track_id,
+            "uri": "spotify:track:" + track_id,
+            "duration_ms": 180000,
+            "artists": [{"id": "artist1", "name": "Stub Artist", "uri": "spotify:artist:artist1"}],
+            "album": {"id": "album1", "name": "Stub Album", "uri": "spotify:album:album1", "images": []},
+        })
+
+
+if __name__ == "__main__":
+    port = int(sys.argv[1]) if len(sys.argv) > 1 else 18090
+    ThreadingHTTPServer.daemon_threads = True
+    ThreadingHTTPServer(("127.0.0.1", port), Handler).serve_forever()
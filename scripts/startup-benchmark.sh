@@ -0,0 +1,58 @@
+#!/usr/bin/env bash
+#
+# Startup benchmark: time from process launch until the first HTTP response, plus the
+# latency of the first and second requests, for each available build flavour.
+#
+#   mvn -DskipTests package                 # plain jar
+#   mvn -DskipTests -Pfast-start package    # AOT jar + AppCDS archive (target/fast-start)
+#   mvn -DskipTests -Pnative native:compile # optional GraalVM native image (target/music-player)
+#   scripts/startup-benchmark.sh [runs]
+#
+set -euo pipefail
+
+RUNS="${1:-5}"
+PORT="${PORT:-18080}"
+URL="http://localhost:${PORT}/greet"
+cd "$(dirname "$0")/.."
+
+JAR="target/music-player-0.0.1-SNAPSHOT.jar"
+FAST_START_DIR="target/fast-start"
+NATIVE="target/music-player"
+
+now_ms() { date +%s%3N; }
+
+measure() {
+  local name="$1"; shift
+  local total_ready=0 total_first=0 total_second=0
+  for run in $(seq 1 "$RUNS"); do
+    local start ready first second pid
+    start=$(now_ms)
+    "$@" --server.port="$PORT" > "target/startup-${name}.log" 2>&1 &
+    pid=$!
+    # the first attempt that connects is the first request, so its time_total is the
+    # first-request latency; failed attempts (connection refused) leave "first" unset
+    until first=$(curl -s -o /dev/null -w '%{time_total}' "$URL"); do
+      if ! kill -0 "$pid" 2>/dev/null; then
+        echo "${name}: process exited, see target/startup-${name}.log" >&2
+        return 1
+      fi
+      sleep 0.01
+    done
+    ready=$(( $(now_ms) - start ))
+    second=$(curl -s -o /dev/null -w '%{time_total}' "$URL")
+    kill "$pid" && wait "$pid" 2>/dev/null || true
+    total_ready=$(( total_ready + ready ))
+    total_first=$(awk -v a="$total_first" -v b="$first" 'BEGIN { print a + b }')
+    total_second=$(awk -v a="$total_second" -v b="$second" 'BEGIN { print a + b }')
+  done
+  awk -v name="$name" -v ready="$total_ready" -v first="$total_first" -v second="$total_second" -v runs="$RUNS" \
+    'BEGIN { printf "%-12s ready %6d ms   first request %6.1f ms   second request %6.1f ms\n", name, ready / runs, first * 1000 / runs, second * 1000 / runs }'
+}
+
+echo "Averages over ${RUNS} runs against ${URL}"
+[[ -f "$JAR" ]] && measure jar java -jar "$JAR"
+[[ -f "${FAST_START_DIR}/application.jsa" ]] && measure fast-start \
+  java -XX:SharedArchiveFile="${FAST_START_DIR}/application.jsa" -Dspring.aot.enabled=true \
+       -jar "${FAST_START_DIR}/music-player-0.0.1-SNAPSHOT.jar"
+[[ -x "$NATIVE" ]] && measure native "$NATIVE"
+exit 0
@@ -0,0 +1,45 @@
+// Writes .br and .gz next to every compressible file of the Vite build, so the Spring app
+// can serve precompressed variants without compressing on each request.
+import { readdir, readFile, stat, writeFile } from 'node:fs/promises'
+import { join } from 'node:path'
+import { brotliCompressSync, constants, gzipSync } from 'node:zlib'
+
+const root = process.argv[2] ?? 'dist'
+const compressible = /\.(html|js|mjs|css|svg|json|txt|map|webmanifest)$/
+const minBytes = 256
+
+async function* files(dir) {
+  for (const entry of await readdir(dir, { withFileTypes: true })) {
+    const path = join(dir, entry.name)
+    if (entry.isDirectory()) {
+      yield* files(path)
+    } else {
+      yield path
+    }
+  }
+}
+
+let written = 0
+for await (const path of files(root)) {
+  if (!compressible.test(path) || (await stat(path)).size < minBytes) {
+    continue
+  }
+  const content = await readFile(path)
+  const brotli = brotliCompressSync(content, {
+    params: {
+      [constants.BROTLI_PARAM_QUALITY]: constants.BROTLI_MAX_QUALITY,
+      [constants.BROTLI_PARAM_SIZE_HINT]: content.length,
+    },
+  })
+  const gzip = gzipSync(content, { level: 9 })
+  // a variant that isn't smaller would only cost bytes on the wire
+  if (brotli.length < content.length) {
+    await writeFile(`${path}.br`, brotli)
+    written++
+  }
+  if (gzip.length < content.length) {
+    await writeFile(`${path}.gz`, gzip)
+    written++
+  }
+}
+console.log(`compress: wrote ${written} precompressed files under ${root}`)
@@ -4,4 +4,11 @@ import react from '@vitejs/plugin-react'
 // https://vite.dev/config/
 export default defineConfig({
   plugins: [react()],
+  // served by the Spring app under /app/ (see FrontendConfig); hashed files land in /app/assets/
+  base: '/app/',
+  server: {
+    proxy: {
+      '/api': 'http://localhost:8080',
+    },
+  },
 })
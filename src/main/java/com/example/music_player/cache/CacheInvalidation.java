@@ -0,0 +1,7 @@
+package com.example.music_player.cache;
+
+/**
+ * Invalidation message broadcast through the shared tier. A null key invalidates the whole region.
+ */
+public record CacheInvalidation(String originNodeId, String region, String key) {
+}
@@ -0,0 +1,131 @@
+package com.example.music_player.cache;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Approximate top-K frequent keys in bounded memory: a count-min sketch estimates every key's
+ * frequency, and only keys whose estimate beats the current K-th entry are tracked by name.
+ * Counting is lock-free; the lock is only taken when a key enters the top-K.
+ */
+public class HeavyHitters {
+
+    private final int depth;
+    private final int width;
+    private final int capacity;
+    private final AtomicLongArray counts;
+    private final ConcurrentHashMap<String, Long> top = new ConcurrentHashMap<>();
+    private volatile long threshold;
+
+    public HeavyHitters(int capacity, int width, int depth) {
+        this.capacity = capacity;
+        this.width = width;
+        this.depth = depth;
+        this.counts = new AtomicLongArray(width * depth);
+    }
+
+    /**
+     * Count one occurrence of a key, returning its estimated frequency
+     */
+    public long record(String key) {
+        return add(key, 1);
+    }
+
+    /**
+     * Count several occurrences at once, e.g. when restoring a snapshot
+     */
+    public long add(String key, long occurrences) {
+        long hash = hash(key);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counts.addAndGet(row * width + bucket(hash, row), occurrences));
+        }
+        if (top.replace(key, estimate) == null && (top.size() < capacity || estimate > threshold)) {
+            admit(key, estimate);
+        }
+        return estimate;
+    }
+
+    /**
+     * Estimated frequency of a key without counting it
+     */
+    public long estimate(String key) {
+        long hash = hash(key);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counts.get(row * width + bucket(hash, row)));
+        }
+        return estimate;
+    }
+
+    /**
+     * Current top keys with their estimated frequencies, most frequent first
+     */
+    public List<Map.Entry<String, Long>> top() {
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(top.size());
+        for (Map.Entry<String, Long> entry : top.entrySet()) {
+            entries.add(Map.entry(entry.getKey(), entry.getValue()));
+        }
+        entries.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        return entries;
+    }
+
+    /**
+     * Halve every count so that old popularity fades and recent traffic dominates
+     */
+    public synchronized void decay() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, counts.get(i) >> 1);
+        }
+        top.replaceAll((key, count) -> count >> 1);
+        top.values().removeIf(count -> count == 0);
+        threshold = top.size() < capacity ? 0 : minTop();
+    }
+
+    private synchronized void admit(String key, long estimate) {
+        top.put(key, estimate);
+        while (top.size() > capacity) {
+            top.entrySet().stream()
+                    .min(Comparator.comparingLong(Map.Entry::getValue))
+                    .ifPresent(min -> top.remove(min.getKey(), min.getValue()));
+        }
+        threshold = top.size() < capacity ? 0 : minTop();
+    }
+
+    private long minTop() {
+        long min = Long.MAX_VALUE;
+        for (long count : top.values()) {
+            min = Math.min(min, count);
+        }
+        return min;
+    }
+
+    /**
+     * 64-bit hash of the key's characters (FNV-1a, then a finalizing mix). Unlike
+     * String.hashCode, keys that collide in one row are unlikely to collide in the others.
+     */
+    private static long hash(String key) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash = (hash ^ key.charAt(i)) * 0x100000001B3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    /**
+     * Row bucket from two independent halves of the hash: h1 + row * h2 (Kirsch-Mitzenmacher)
+     */
+    private int bucket(long hash, int row) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        return Math.floorMod(h1 + row * h2, width);
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.music_player.cache;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * In-process stand-in for the shared tier. Several {@link TwoLevelCache} instances with
+ * different node ids can share one instance to behave like nodes of a cluster. Holds at most
+ * maxEntries entries, like the near tier: a full tier drops expired entries, then arbitrary
+ * ones, and expired entries that are never read again are swept periodically.
+ */
+public class InMemorySharedCacheTier implements SharedCacheTier {
+
+    private final ConcurrentHashMap<String, SharedCacheEntry> entries = new ConcurrentHashMap<>();
+    private final List<Consumer<CacheInvalidation>> listeners = new CopyOnWriteArrayList<>();
+    private final int maxEntries;
+
+    public InMemorySharedCacheTier(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    @Override
+    public Mono<SharedCacheEntry> get(String region, String key) {
+        return Mono.fromSupplier(() -> {
+            String entryKey = entryKey(region, key);
+            SharedCacheEntry entry = entries.get(entryKey);
+            if (entry != null && entry.remainingMillis() <= 0) {
+                entries.remove(entryKey, entry);
+                return null;
+            }
+            return entry;
+        });
+    }
+
+    @Override
+    public Mono<Void> put(String region, String key, Object value, Duration ttl) {
+        return Mono.fromRunnable(() -> {
+            if (entries.size() >= maxEntries) {
+                evictEntries();
+            }
+            entries.put(entryKey(region, key), new SharedCacheEntry(value, System.currentTimeMillis() + ttl.toMillis()));
+        });
+    }
+
+    @Override
+    public Mono<Void> evict(String region, String key) {
+        return Mono.fromRunnable(() -> {
+            if (key == null) {
+                String prefix = region + '\u0000';
+                entries.keySet().removeIf(entryKey -> entryKey.startsWith(prefix));
+            } else {
+                entries.remove(entryKey(region, key));
+            }
+        });
+    }
+
+    @Override
+    public void publish(CacheInvalidation invalidation) {
+        for (Consumer<CacheInvalidation> listener : listeners) {
+            listener.accept(invalidation);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<CacheInvalidation> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Drop expired entries that nobody read since they expired
+     */
+    @Scheduled(fixedDelayString = "${spotify.cache.shared-sweep-interval:1m}")
+    public void sweepExpired() {
+        sweepExpired(System.currentTimeMillis());
+    }
+
+    void sweepExpired(long nowMillis) {
+        entries.values().removeIf(entry -> entry.expiresAtMillis() <= nowMillis);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void evictEntries() {
+        sweepExpired(System.currentTimeMillis());
+        Iterator<String> iterator = entries.keySet().iterator();
+        while (entries.size() >= maxEntries && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private static String entryKey(String region, String key) {
+        return region + '\u0000' + key;
+    }
+}
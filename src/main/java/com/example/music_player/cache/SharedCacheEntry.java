@@ -0,0 +1,12 @@
+package com.example.music_player.cache;
+
+/**
+ * Value held by the shared tier together with its absolute expiry (epoch millis, so it is
+ * meaningful on every node).
+ */
+public record SharedCacheEntry(Object value, long expiresAtMillis) {
+
+    public long remainingMillis() {
+        return expiresAtMillis - System.currentTimeMillis();
+    }
+}
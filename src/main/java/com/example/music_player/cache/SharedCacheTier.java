@@ -0,0 +1,38 @@
+package com.example.music_player.cache;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * Cluster-wide cache tier shared by all nodes (e.g. Redis or Hazelcast). Implementations
+ * backed by a network store must serialize values; every cached type is a Jackson bean.
+ */
+public interface SharedCacheTier {
+
+    /**
+     * Look up a value, completing empty on a miss or an expired entry
+     */
+    Mono<SharedCacheEntry> get(String region, String key);
+
+    /**
+     * Store a value for the given time to live
+     */
+    Mono<Void> put(String region, String key, Object value, Duration ttl);
+
+    /**
+     * Remove a single key, or the whole region when key is null
+     */
+    Mono<Void> evict(String region, String key);
+
+    /**
+     * Broadcast an invalidation to every node, including the sender
+     */
+    void publish(CacheInvalidation invalidation);
+
+    /**
+     * Receive invalidations broadcast by any node
+     */
+    void subscribe(Consumer<CacheInvalidation> listener);
+}
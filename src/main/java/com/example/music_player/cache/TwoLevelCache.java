@@ -0,0 +1,236 @@
+package com.example.music_player.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Near cache per node in front of a {@link SharedCacheTier}. Lookups go near cache,
+ * then shared tier, then the loader; concurrent misses for the same key share one load.
+ * Invalidations are broadcast so other nodes drop their near copies. A load overtaken by an
+ * invalidation or put of its key still answers its waiters but is not cached.
+ */
+public class TwoLevelCache<V> {
+
+    private static final Logger logger = LoggerFactory.getLogger(TwoLevelCache.class);
+
+    private final String region;
+    private final String nodeId;
+    private final SharedCacheTier sharedTier;
+    private final Duration defaultTtl;
+    private final int maxNearEntries;
+    private final ConcurrentHashMap<String, NearEntry<V>> near = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Load<V>> inFlight = new ConcurrentHashMap<>();
+
+    public TwoLevelCache(String region, String nodeId, SharedCacheTier sharedTier,
+                         Duration defaultTtl, int maxNearEntries) {
+        this.region = region;
+        this.nodeId = nodeId;
+        this.sharedTier = sharedTier;
+        this.defaultTtl = defaultTtl;
+        this.maxNearEntries = maxNearEntries;
+        sharedTier.subscribe(this::onInvalidation);
+    }
+
+    /**
+     * Get a value, loading it with the region's default time to live on a miss
+     */
+    public Mono<V> get(String key, Supplier<Mono<V>> loader) {
+        return get(key, loader, value -> defaultTtl);
+    }
+
+    /**
+     * Get a value, loading it on a miss; the time to live is derived from the loaded value
+     */
+    public Mono<V> get(String key, Supplier<Mono<V>> loader, Function<V, Duration> ttl) {
+        return Mono.defer(() -> {
+            V cached = peek(key);
+            if (cached != null) {
+                return Mono.just(cached);
+            }
+            return inFlight.computeIfAbsent(key, k -> load(k, loader, ttl)).result;
+        });
+    }
+
+    /**
+     * Near-cache value if present and not expired; never touches the shared tier
+     */
+    public V peek(String key) {
+        NearEntry<V> entry = near.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isExpired(System.nanoTime())) {
+            near.remove(key, entry);
+            return null;
+        }
+        return entry.value;
+    }
+
+    /**
+     * Remaining time to live of the near copy, or Duration.ZERO when absent
+     */
+    public Duration remainingTtl(String key) {
+        NearEntry<V> entry = near.get(key);
+        if (entry == null) {
+            return Duration.ZERO;
+        }
+        long remaining = entry.expiresAtNanos - System.nanoTime();
+        return remaining > 0 ? Duration.ofNanos(remaining) : Duration.ZERO;
+    }
+
+    /**
+     * Store a value in both tiers with the region's default time to live
+     */
+    public Mono<Void> put(String key, V value) {
+        return put(key, value, defaultTtl);
+    }
+
+    /**
+     * Store a value in both tiers. Other nodes drop their stale near copies.
+     */
+    public Mono<Void> put(String key, V value, Duration ttl) {
+        supersedeLoad(key);
+        putNear(key, value, ttl);
+        return sharedTier.put(region, key, value, ttl)
+                .doOnSuccess(v -> sharedTier.publish(new CacheInvalidation(nodeId, region, key)));
+    }
+
+    /**
+     * Remove a key from both tiers on every node
+     */
+    public Mono<Void> invalidate(String key) {
+        supersedeLoad(key);
+        near.remove(key);
+        return sharedTier.evict(region, key)
+                .doOnSuccess(v -> sharedTier.publish(new CacheInvalidation(nodeId, region, key)));
+    }
+
+    /**
+     * Remove every key of this region from both tiers on every node
+     */
+    public Mono<Void> invalidateAll() {
+        supersedeLoads();
+        near.clear();
+        return sharedTier.evict(region, null)
+                .doOnSuccess(v -> sharedTier.publish(new CacheInvalidation(nodeId, region, null)));
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public int nearSize() {
+        return near.size();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Load<V> load(String key, Supplier<Mono<V>> loader, Function<V, Duration> ttl) {
+        Load<V> load = new Load<>();
+        Mono<V> fromShared = sharedTier.get(region, key)
+                .map(entry -> {
+                    V value = (V) entry.value();
+                    putNearUnlessSuperseded(load, key, value, Duration.ofMillis(entry.remainingMillis()));
+                    return value;
+                })
+                .onErrorResume(error -> {
+                    logger.warn("Shared cache tier unavailable for {}/{}: {}", region, key, error.toString());
+                    return Mono.empty();
+                });
+        Mono<V> fromLoader = Mono.defer(loader)
+                .flatMap(value -> {
+                    Duration valueTtl = ttl.apply(value);
+                    if (!putNearUnlessSuperseded(load, key, value, valueTtl)) {
+                        return Mono.just(value);
+                    }
+                    return sharedTier.put(region, key, value, valueTtl)
+                            .onErrorResume(error -> Mono.empty())
+                            .thenReturn(value);
+                });
+        // share() rather than cache(): when every waiting caller cancels, the upstream load is cancelled too
+        load.result = fromShared.switchIfEmpty(fromLoader)
+                .doFinally(signal -> inFlight.remove(key, load))
+                .flux()
+                .share()
+                .singleOrEmpty();
+        return load;
+    }
+
+    /**
+     * Cache a loaded value in the near tier unless an invalidation or put of the key
+     * overtook the load; the check is repeated after the write to close the race with it
+     */
+    private boolean putNearUnlessSuperseded(Load<V> load, String key, V value, Duration ttl) {
+        if (load.superseded) {
+            return false;
+        }
+        putNear(key, value, ttl);
+        if (load.superseded) {
+            near.remove(key);
+            return false;
+        }
+        return true;
+    }
+
+    private void supersedeLoad(String key) {
+        Load<V> load = inFlight.remove(key);
+        if (load != null) {
+            load.superseded = true;
+        }
+    }
+
+    private void supersedeLoads() {
+        for (String key : inFlight.keySet()) {
+            supersedeLoad(key);
+        }
+    }
+
+    private void putNear(String key, V value, Duration ttl) {
+        if (near.size() >= maxNearEntries) {
+            evictNear();
+        }
+        near.put(key, new NearEntry<>(value, System.nanoTime() + ttl.toNanos()));
+    }
+
+    private void evictNear() {
+        long now = System.nanoTime();
+        near.values().removeIf(entry -> entry.isExpired(now));
+        Iterator<Map.Entry<String, NearEntry<V>>> iterator = near.entrySet().iterator();
+        while (near.size() >= maxNearEntries && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private void onInvalidation(CacheInvalidation invalidation) {
+        if (!region.equals(invalidation.region()) || nodeId.equals(invalidation.originNodeId())) {
+            return;
+        }
+        if (invalidation.key() == null) {
+            supersedeLoads();
+            near.clear();
+        } else {
+            supersedeLoad(invalidation.key());
+            near.remove(invalidation.key());
+        }
+    }
+
+    private static final class Load<V> {
+        private volatile boolean superseded;
+        private Mono<V> result;
+    }
+
+    private record NearEntry<V>(V value, long expiresAtNanos) {
+
+        boolean isExpired(long now) {
+            return now - expiresAtNanos >= 0;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.music_player.cache;
+
+import com.example.music_player.config.SpotifyConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Creates and holds the named {@link TwoLevelCache} regions of this node
+ */
+@Component
+public class TwoLevelCacheManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(TwoLevelCacheManager.class);
+
+    private final SharedCacheTier sharedTier;
+    private final String nodeId;
+    private final int maxNearEntries;
+    private final ConcurrentHashMap<String, TwoLevelCache<?>> caches = new ConcurrentHashMap<>();
+
+    public TwoLevelCacheManager(SharedCacheTier sharedTier, SpotifyConfig spotifyConfig) {
+        this.sharedTier = sharedTier;
+        this.nodeId = spotifyConfig.getCache().getNodeId();
+        this.maxNearEntries = spotifyConfig.getCache().getNearMaxEntries();
+        logger.info("Two-level cache on node {} with shared tier {}", nodeId, sharedTier.getClass().getSimpleName());
+    }
+
+    /**
+     * Get or create the cache region with the given default time to live
+     */
+    @SuppressWarnings("unchecked")
+    public <V> TwoLevelCache<V> getCache(String region, Duration defaultTtl) {
+        return (TwoLevelCache<V>) caches.computeIfAbsent(region,
+                r -> new TwoLevelCache<>(r, nodeId, sharedTier, defaultTtl, maxNearEntries));
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+}
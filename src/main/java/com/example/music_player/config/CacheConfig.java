@@ -0,0 +1,21 @@
+package com.example.music_player.config;
+
+import com.example.music_player.cache.InMemorySharedCacheTier;
+import com.example.music_player.cache.SharedCacheTier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class CacheConfig {
+
+    /**
+     * Default shared tier: in-process only. A clustered deployment sets
+     * spotify.cache.shared-tier to another value and provides its own SharedCacheTier bean.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "spotify.cache", name = "shared-tier", havingValue = "in-memory", matchIfMissing = true)
+    public SharedCacheTier inMemorySharedCacheTier(SpotifyConfig spotifyConfig) {
+        return new InMemorySharedCacheTier(spotifyConfig.getCache().getSharedMaxEntries());
+    }
+}
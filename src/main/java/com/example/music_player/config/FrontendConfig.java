@@ -0,0 +1,85 @@
+package com.example.music_player.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves the bundled player (built with -Pfrontend into classpath:/static/app/) under /app/.
+ * Hashed files in /app/assets/ never change, so they are cached for a year as immutable;
+ * everything else, index.html in particular, must be revalidated. Precompressed .br/.gz
+ * variants are served when the client accepts them. Unknown paths fall back to index.html.
+ */
+@Configuration
+public class FrontendConfig {
+
+    private static final String LOCATION = "classpath:/static/app/";
+    private static final String ASSETS_LOCATION = "classpath:/static/app/assets/";
+    private static final String INDEX = "index.html";
+
+    private static CacheControl immutable() {
+        return CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable();
+    }
+
+    @Configuration
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    static class Servlet implements WebMvcConfigurer {
+
+        @Override
+        public void addResourceHandlers(ResourceHandlerRegistry registry) {
+            registry.addResourceHandler("/app/assets/**")
+                    .addResourceLocations(ASSETS_LOCATION)
+                    .setCacheControl(immutable())
+                    .resourceChain(true)
+                    .addResolver(new org.springframework.web.servlet.resource.EncodedResourceResolver())
+                    .addResolver(new org.springframework.web.servlet.resource.PathResourceResolver());
+            registry.addResourceHandler("/app", "/app/", "/app/**")
+                    .addResourceLocations(LOCATION)
+                    .setCacheControl(CacheControl.noCache())
+                    .resourceChain(true)
+                    .addResolver(new org.springframework.web.servlet.resource.EncodedResourceResolver())
+                    .addResolver(new org.springframework.web.servlet.resource.PathResourceResolver() {
+                        @Override
+                        protected Resource getResource(String resourcePath, Resource location) throws IOException {
+                            Resource resource = super.getResource(resourcePath, location);
+                            return resource != null ? resource : super.getResource(INDEX, location);
+                        }
+                    });
+        }
+    }
+
+    @Configuration
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    static class Reactive implements WebFluxConfigurer {
+
+        @Override
+        public void addResourceHandlers(org.springframework.web.reactive.config.ResourceHandlerRegistry registry) {
+            registry.addResourceHandler("/app/assets/**")
+                    .addResourceLocations(ASSETS_LOCATION)
+                    .setCacheControl(immutable())
+                    .resourceChain(true)
+                    .addResolver(new org.springframework.web.reactive.resource.EncodedResourceResolver())
+                    .addResolver(new org.springframework.web.reactive.resource.PathResourceResolver());
+            registry.addResourceHandler("/app", "/app/", "/app/**")
+                    .addResourceLocations(LOCATION)
+                    .setCacheControl(CacheControl.noCache())
+                    .resourceChain(true)
+                    .addResolver(new org.springframework.web.reactive.resource.EncodedResourceResolver())
+                    .addResolver(new org.springframework.web.reactive.resource.PathResourceResolver() {
+                        @Override
+                        protected Mono<Resource> getResource(String resourcePath, Resource location) {
+                            return super.getResource(resourcePath, location)
+                                    .switchIfEmpty(Mono.defer(() -> super.getResource(INDEX, location)));
+                        }
+                    });
+        }
+    }
+}
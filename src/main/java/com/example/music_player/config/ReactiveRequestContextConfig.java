@@ -0,0 +1,52 @@
+package com.example.music_player.config;
+
+import com.example.music_player.service.FairUpstreamScheduler;
+import com.example.music_player.service.RequestDeadlines;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.server.WebFilter;
+
+import java.net.InetSocketAddress;
+import java.util.Optional;
+
+/**
+ * Under WebFlux there is no request-bound thread to read request details from, so what
+ * {@link RequestDeadlines} and {@link FairUpstreamScheduler} need is put into the Reactor
+ * Context here. The servlet runtime needs no filter.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveRequestContextConfig {
+
+    @Bean
+    public WebFilter requestTimeoutWebFilter() {
+        return (exchange, chain) -> {
+            String requested = exchange.getRequest().getHeaders().getFirst(RequestDeadlines.HEADER);
+            if (requested == null) {
+                return chain.filter(exchange);
+            }
+            return chain.filter(exchange).contextWrite(context -> context.put(RequestDeadlines.HEADER, requested));
+        };
+    }
+
+    /**
+     * Runs after Spring Security's filters, so the exchange already carries the authenticated
+     * principal, if any
+     */
+    @Bean
+    public WebFilter callerWebFilter(FairUpstreamScheduler fairScheduler) {
+        return (exchange, chain) -> exchange.getPrincipal()
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(principal -> {
+                    InetSocketAddress remoteAddress = exchange.getRequest().getRemoteAddress();
+                    String caller = fairScheduler.callerKey(
+                            exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION),
+                            remoteAddress != null ? remoteAddress.getAddress().getHostAddress() : null);
+                    return chain.filter(exchange).contextWrite(context ->
+                            FairUpstreamScheduler.withCaller(context, caller, principal.orElse(null)));
+                });
+    }
+}
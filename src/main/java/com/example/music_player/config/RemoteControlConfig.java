@@ -0,0 +1,228 @@
+package com.example.music_player.config;
+
+import com.example.music_player.service.RemoteCommandProcessor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import org.springframework.web.reactive.handler.SimpleUrlHandlerMapping;
+import org.springframework.web.reactive.socket.WebSocketHandler;
+import org.springframework.web.reactive.socket.server.WebSocketService;
+import org.springframework.web.reactive.socket.server.support.HandshakeWebSocketService;
+import org.springframework.web.reactive.socket.server.upgrade.ReactorNettyRequestUpgradeStrategy;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.socket.server.support.OriginHandshakeInterceptor;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Exposes {@link RemoteCommandProcessor} as a WebSocket at /api/spotify/remote on whichever
+ * runtime is active. The adapters only move text frames between the socket and the processor.
+ * Handshakes from another origin are refused unless listed in spotify.remote.allowed-origins;
+ * handshakes without an access token or a valid ticket are refused with 401. The origin is
+ * checked first, so a cross-origin attempt cannot use up a ticket.
+ */
+@Configuration
+public class RemoteControlConfig {
+
+    private static final String PATH = "/api/spotify/remote";
+    private static final String ACCESS_TOKEN = "remote.accessToken";
+
+    @Configuration
+    @EnableWebSocket
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    static class Servlet implements WebSocketConfigurer {
+
+        private final RemoteCommandProcessor processor;
+        private final SpotifyConfig.Remote settings;
+
+        Servlet(RemoteCommandProcessor processor, SpotifyConfig spotifyConfig) {
+            this.processor = processor;
+            this.settings = spotifyConfig.getRemote();
+        }
+
+        @Override
+        public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+            // added explicitly: without allowed origins the registry would not check origins at all
+            registry.addHandler(new ServletRemoteHandler(processor, settings.getMaxQueuedFrames()), PATH)
+                    .addInterceptors(new OriginHandshakeInterceptor(settings.getAllowedOrigins()),
+                            new AccessTokenInterceptor(processor));
+        }
+    }
+
+    /**
+     * Resolves the handshake's access token into the session attributes, or refuses it with 401
+     */
+    static class AccessTokenInterceptor implements HandshakeInterceptor {
+
+        private final RemoteCommandProcessor processor;
+
+        AccessTokenInterceptor(RemoteCommandProcessor processor) {
+            this.processor = processor;
+        }
+
+        @Override
+        public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                       org.springframework.web.socket.WebSocketHandler wsHandler,
+                                       Map<String, Object> attributes) {
+            String accessToken = processor.accessToken(request.getHeaders(), request.getURI());
+            if (accessToken == null) {
+                response.setStatusCode(HttpStatus.UNAUTHORIZED);
+                return false;
+            }
+            attributes.put(ACCESS_TOKEN, accessToken);
+            return true;
+        }
+
+        @Override
+        public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   org.springframework.web.socket.WebSocketHandler wsHandler, Exception exception) {
+        }
+    }
+
+    @Configuration
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    static class Reactive implements WebFluxConfigurer {
+
+        private final RemoteCommandProcessor processor;
+
+        Reactive(RemoteCommandProcessor processor) {
+            this.processor = processor;
+        }
+
+        /**
+         * Tomcat's WebSocket classes are on the classpath for the servlet runtime, which would
+         * make WebFlux pick Tomcat's upgrade strategy; the reactive runtime always runs on Netty.
+         * The access token is resolved before the upgrade and handed to the handler in its
+         * Reactor context, or the handshake is refused with 401.
+         */
+        @Override
+        public WebSocketService getWebSocketService() {
+            return new HandshakeWebSocketService(new ReactorNettyRequestUpgradeStrategy()) {
+                @Override
+                public Mono<Void> handleRequest(ServerWebExchange exchange, WebSocketHandler handler) {
+                    String accessToken = processor.accessToken(exchange.getRequest().getHeaders(),
+                            exchange.getRequest().getURI());
+                    if (accessToken == null) {
+                        exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
+                        return exchange.getResponse().setComplete();
+                    }
+                    return super.handleRequest(exchange, session -> handler.handle(session)
+                            .contextWrite(context -> context.put(ACCESS_TOKEN, accessToken)));
+                }
+            };
+        }
+
+        /**
+         * Netty stops reading from the socket while the processor has no demand, so frames
+         * are never buffered beyond the commands in flight
+         */
+        @Bean
+        public HandlerMapping remoteControlHandlerMapping(SpotifyConfig spotifyConfig) {
+            WebSocketHandler handler = session -> Mono.deferContextual(context -> session.send(
+                    processor.process(context.get(ACCESS_TOKEN),
+                                    session.receive().map(message -> message.getPayloadAsText()))
+                            .map(session::textMessage)));
+            CorsConfiguration origins = new CorsConfiguration();
+            origins.setAllowedOrigins(spotifyConfig.getRemote().getAllowedOrigins());
+            SimpleUrlHandlerMapping mapping = new SimpleUrlHandlerMapping(Map.of(PATH, handler), -1);
+            mapping.setCorsConfigurations(Map.of(PATH, origins));
+            return mapping;
+        }
+    }
+
+    /**
+     * Servlet containers push frames to a callback, so each connection feeds a sink that the
+     * processor consumes; replies go through a decorator because sends must not overlap. The
+     * container cannot be told to stop reading, so a client that sends more than maxQueuedFrames
+     * commands beyond those in flight is disconnected with 1008 (policy violation).
+     */
+    static class ServletRemoteHandler extends TextWebSocketHandler {
+
+        private static final Logger logger = LoggerFactory.getLogger(ServletRemoteHandler.class);
+
+        private static final String FRAMES = "remote.frames";
+        private static final String REPLIES = "remote.replies";
+
+        private final RemoteCommandProcessor processor;
+        private final int maxQueuedFrames;
+
+        ServletRemoteHandler(RemoteCommandProcessor processor, int maxQueuedFrames) {
+            this.processor = processor;
+            this.maxQueuedFrames = maxQueuedFrames;
+        }
+
+        @Override
+        public void afterConnectionEstablished(WebSocketSession session) {
+            WebSocketSession sender = new ConcurrentWebSocketSessionDecorator(session, 10_000, 512 * 1024);
+            Sinks.Many<String> frames = Sinks.many().unicast()
+                    .onBackpressureBuffer(Queues.<String>get(Math.max(1, maxQueuedFrames)).get());
+            session.getAttributes().put(FRAMES, frames);
+            Disposable replies = processor.process((String) session.getAttributes().get(ACCESS_TOKEN), frames.asFlux())
+                    .subscribe(reply -> send(sender, reply), error -> close(session, CloseStatus.SERVER_ERROR),
+                            () -> close(session, CloseStatus.NORMAL));
+            session.getAttributes().put(REPLIES, replies);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+            // the container delivers one message of a session at a time, so emission never races
+            Sinks.EmitResult result = ((Sinks.Many<String>) session.getAttributes().get(FRAMES))
+                    .tryEmitNext(message.getPayload());
+            if (result == Sinks.EmitResult.FAIL_OVERFLOW) {
+                close(session, CloseStatus.POLICY_VIOLATION.withReason("Too many pending commands"));
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+            Object frames = session.getAttributes().get(FRAMES);
+            if (frames != null) {
+                ((Sinks.Many<String>) frames).tryEmitComplete();
+            }
+            Object replies = session.getAttributes().get(REPLIES);
+            if (replies != null) {
+                ((Disposable) replies).dispose();
+            }
+        }
+
+        private static void send(WebSocketSession session, String reply) {
+            try {
+                session.sendMessage(new TextMessage(reply));
+            } catch (IOException | RuntimeException e) {
+                logger.debug("Could not send remote-control reply: {}", e.toString());
+            }
+        }
+
+        private static void close(WebSocketSession session, CloseStatus status) {
+            try {
+                session.close(status);
+            } catch (IOException e) {
+                logger.debug("Could not close remote-control session: {}", e.toString());
+            }
+        }
+    }
+}
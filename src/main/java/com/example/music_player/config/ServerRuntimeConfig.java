@@ -0,0 +1,27 @@
+package com.example.music_player.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ReactorResourceFactory;
+
+/**
+ * Server runtime selection. Both the servlet and the reactive stack are on the classpath,
+ * and Spring Boot would host a reactive application on Tomcat because Tomcat is present.
+ * With spring.main.web-application-type=reactive (the "netty" profile) the application
+ * runs end-to-end on Reactor Netty instead, sharing event loops with the WebClient.
+ */
+@Configuration
+public class ServerRuntimeConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "spring.main.web-application-type", havingValue = "reactive")
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory(
+            ObjectProvider<ReactorResourceFactory> resourceFactory) {
+        NettyReactiveWebServerFactory factory = new NettyReactiveWebServerFactory();
+        resourceFactory.ifAvailable(factory::setResourceFactory);
+        return factory;
+    }
+}
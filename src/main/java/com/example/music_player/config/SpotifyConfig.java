@@ -3,6 +3,12 @@ package com.example.music_player.config;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
 @Configuration
 @ConfigurationProperties(prefix = "spotify")
 public class SpotifyConfig {
@@ -13,6 +19,19 @@ public class SpotifyConfig {
     private String baseUrl;
     private String authUrl;
     private String authorizeUrl;
+    private final Suggest suggest = new Suggest();
+    private final Cache cache = new Cache();
+    private final Queue queue = new Queue();
+    private final Library library = new Library();
+    private final Preview preview = new Preview();
+    private final Limits limits = new Limits();
+    private final Lanes lanes = new Lanes();
+    private final Popularity popularity = new Popularity();
+    private final History history = new History();
+    private final Remote remote = new Remote();
+    private final Deadlines deadlines = new Deadlines();
+    private final Fairness fairness = new Fairness();
+    private final Clock clock = new Clock();
 
     // Getters and Setters
     public String getClientId() {
@@ -62,4 +81,763 @@ public class SpotifyConfig {
     public void setAuthorizeUrl(String authorizeUrl) {
         this.authorizeUrl = authorizeUrl;
     }
-}
\ No newline at end of file
+
+    public Suggest getSuggest() {
+        return suggest;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public Queue getQueue() {
+        return queue;
+    }
+
+    public Library getLibrary() {
+        return library;
+    }
+
+    public Preview getPreview() {
+        return preview;
+    }
+
+    public Limits getLimits() {
+        return limits;
+    }
+
+    public Lanes getLanes() {
+        return lanes;
+    }
+
+    public Popularity getPopularity() {
+        return popularity;
+    }
+
+    public History getHistory() {
+        return history;
+    }
+
+    public Remote getRemote() {
+        return remote;
+    }
+
+    public Deadlines getDeadlines() {
+        return deadlines;
+    }
+
+    public Fairness getFairness() {
+        return fairness;
+    }
+
+    public Clock getClock() {
+        return clock;
+    }
+
+    /**
+     * Local typeahead index settings
+     */
+    public static class Suggest {
+        private int maxEntries = 50_000;
+        private int defaultLimit = 10;
+        private int maxCandidates = 10_000;
+
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        public int getDefaultLimit() {
+            return defaultLimit;
+        }
+
+        public void setDefaultLimit(int defaultLimit) {
+            this.defaultLimit = defaultLimit;
+        }
+
+        public int getMaxCandidates() {
+            return maxCandidates;
+        }
+
+        public void setMaxCandidates(int maxCandidates) {
+            this.maxCandidates = maxCandidates;
+        }
+    }
+
+    /**
+     * Two-level (near + shared) cache settings
+     */
+    public static class Cache {
+        private String nodeId = UUID.randomUUID().toString();
+        private String sharedTier = "in-memory";
+        private int nearMaxEntries = 10_000;
+        private int sharedMaxEntries = 100_000;
+        private Duration trackTtl = Duration.ofHours(1);
+        private Duration searchTtl = Duration.ofMinutes(10);
+        private Duration tokenExpiryMargin = Duration.ofMinutes(1);
+        private Duration sessionTtl = Duration.ofDays(30);
+
+        public String getNodeId() {
+            return nodeId;
+        }
+
+        public void setNodeId(String nodeId) {
+            this.nodeId = nodeId;
+        }
+
+        public String getSharedTier() {
+            return sharedTier;
+        }
+
+        public void setSharedTier(String sharedTier) {
+            this.sharedTier = sharedTier;
+        }
+
+        public int getNearMaxEntries() {
+            return nearMaxEntries;
+        }
+
+        public void setNearMaxEntries(int nearMaxEntries) {
+            this.nearMaxEntries = nearMaxEntries;
+        }
+
+        public int getSharedMaxEntries() {
+            return sharedMaxEntries;
+        }
+
+        public void setSharedMaxEntries(int sharedMaxEntries) {
+            this.sharedMaxEntries = sharedMaxEntries;
+        }
+
+        public Duration getTrackTtl() {
+            return trackTtl;
+        }
+
+        public void setTrackTtl(Duration trackTtl) {
+            this.trackTtl = trackTtl;
+        }
+
+        public Duration getSearchTtl() {
+            return searchTtl;
+        }
+
+        public void setSearchTtl(Duration searchTtl) {
+            this.searchTtl = searchTtl;
+        }
+
+        public Duration getTokenExpiryMargin() {
+            return tokenExpiryMargin;
+        }
+
+        public void setTokenExpiryMargin(Duration tokenExpiryMargin) {
+            this.tokenExpiryMargin = tokenExpiryMargin;
+        }
+
+        public Duration getSessionTtl() {
+            return sessionTtl;
+        }
+
+        public void setSessionTtl(Duration sessionTtl) {
+            this.sessionTtl = sessionTtl;
+        }
+    }
+
+    /**
+     * Server-side play queue settings
+     */
+    public static class Queue {
+        private int prefetchDepth = 3;
+        private Duration deviceRefreshInterval = Duration.ofMinutes(1);
+        private int maxLength = 500;
+        private Duration idleTimeout = Duration.ofHours(2);
+
+        public int getPrefetchDepth() {
+            return prefetchDepth;
+        }
+
+        public void setPrefetchDepth(int prefetchDepth) {
+            this.prefetchDepth = prefetchDepth;
+        }
+
+        public Duration getDeviceRefreshInterval() {
+            return deviceRefreshInterval;
+        }
+
+        public void setDeviceRefreshInterval(Duration deviceRefreshInterval) {
+            this.deviceRefreshInterval = deviceRefreshInterval;
+        }
+
+        public int getMaxLength() {
+            return maxLength;
+        }
+
+        public void setMaxLength(int maxLength) {
+            this.maxLength = maxLength;
+        }
+
+        public Duration getIdleTimeout() {
+            return idleTimeout;
+        }
+
+        public void setIdleTimeout(Duration idleTimeout) {
+            this.idleTimeout = idleTimeout;
+        }
+    }
+
+    /**
+     * Library sync engine settings
+     */
+    public static class Library {
+        private int playlistConcurrency = 2;
+        private int syncThreads = 2;
+
+        public int getPlaylistConcurrency() {
+            return playlistConcurrency;
+        }
+
+        public void setPlaylistConcurrency(int playlistConcurrency) {
+            this.playlistConcurrency = playlistConcurrency;
+        }
+
+        public int getSyncThreads() {
+            return syncThreads;
+        }
+
+        public void setSyncThreads(int syncThreads) {
+            this.syncThreads = syncThreads;
+        }
+    }
+
+    /**
+     * Preview audio proxy settings
+     */
+    public static class Preview {
+        private String cacheDir = System.getProperty("java.io.tmpdir") + "/music-player/previews";
+        private long maxCacheBytes = 512L * 1024 * 1024;
+        private List<String> allowedHosts = List.of("p.scdn.co");
+
+        public String getCacheDir() {
+            return cacheDir;
+        }
+
+        public void setCacheDir(String cacheDir) {
+            this.cacheDir = cacheDir;
+        }
+
+        public long getMaxCacheBytes() {
+            return maxCacheBytes;
+        }
+
+        public void setMaxCacheBytes(long maxCacheBytes) {
+            this.maxCacheBytes = maxCacheBytes;
+        }
+
+        public List<String> getAllowedHosts() {
+            return allowedHosts;
+        }
+
+        public void setAllowedHosts(List<String> allowedHosts) {
+            this.allowedHosts = allowedHosts;
+        }
+    }
+
+    /**
+     * Per-endpoint concurrency limits. Endpoints without an entry use the defaults.
+     */
+    public static class Limits {
+        private Limit defaults = new Limit();
+        private Map<String, Limit> endpoints = new HashMap<>();
+
+        public Limit getDefaults() {
+            return defaults;
+        }
+
+        public void setDefaults(Limit defaults) {
+            this.defaults = defaults;
+        }
+
+        public Map<String, Limit> getEndpoints() {
+            return endpoints;
+        }
+
+        public void setEndpoints(Map<String, Limit> endpoints) {
+            this.endpoints = endpoints;
+        }
+
+        public Limit forEndpoint(String endpoint) {
+            return endpoints.getOrDefault(endpoint, defaults);
+        }
+    }
+
+    public static class Limit {
+        private int maxConcurrent = 64;
+        private int maxQueue = 32;
+        private Duration maxQueueWait = Duration.ofMillis(500);
+        private Duration retryAfter = Duration.ofSeconds(1);
+
+        public int getMaxConcurrent() {
+            return maxConcurrent;
+        }
+
+        public void setMaxConcurrent(int maxConcurrent) {
+            this.maxConcurrent = maxConcurrent;
+        }
+
+        public int getMaxQueue() {
+            return maxQueue;
+        }
+
+        public void setMaxQueue(int maxQueue) {
+            this.maxQueue = maxQueue;
+        }
+
+        public Duration getMaxQueueWait() {
+            return maxQueueWait;
+        }
+
+        public void setMaxQueueWait(Duration maxQueueWait) {
+            this.maxQueueWait = maxQueueWait;
+        }
+
+        public Duration getRetryAfter() {
+            return retryAfter;
+        }
+
+        public void setRetryAfter(Duration retryAfter) {
+            this.retryAfter = retryAfter;
+        }
+    }
+
+    /**
+     * Outbound Spotify API lanes: playback commands and metadata/search traffic get separate
+     * connection pools and event loops, so a search spike cannot starve the pause button.
+     */
+    public static class Lanes {
+        private final Lane playback = new Lane(16, 64, Duration.ofSeconds(1), Duration.ofSeconds(5), 1);
+        private final Lane metadata = new Lane(32, 256, Duration.ofSeconds(5), Duration.ofSeconds(10), 0);
+
+        public Lane getPlayback() {
+            return playback;
+        }
+
+        public Lane getMetadata() {
+            return metadata;
+        }
+    }
+
+    public static class Lane {
+        private int maxConnections;
+        private int maxPendingAcquires;
+        private Duration pendingAcquireTimeout;
+        private Duration responseTimeout;
+        private int eventLoopThreads;
+
+        public Lane() {
+        }
+
+        Lane(int maxConnections, int maxPendingAcquires, Duration pendingAcquireTimeout,
+             Duration responseTimeout, int eventLoopThreads) {
+            this.maxConnections = maxConnections;
+            this.maxPendingAcquires = maxPendingAcquires;
+            this.pendingAcquireTimeout = pendingAcquireTimeout;
+            this.responseTimeout = responseTimeout;
+            this.eventLoopThreads = eventLoopThreads;
+        }
+
+        public int getMaxConnections() {
+            return maxConnections;
+        }
+
+        public void setMaxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+
+        public int getMaxPendingAcquires() {
+            return maxPendingAcquires;
+        }
+
+        public void setMaxPendingAcquires(int maxPendingAcquires) {
+            this.maxPendingAcquires = maxPendingAcquires;
+        }
+
+        public Duration getPendingAcquireTimeout() {
+            return pendingAcquireTimeout;
+        }
+
+        public void setPendingAcquireTimeout(Duration pendingAcquireTimeout) {
+            this.pendingAcquireTimeout = pendingAcquireTimeout;
+        }
+
+        public Duration getResponseTimeout() {
+            return responseTimeout;
+        }
+
+        public void setResponseTimeout(Duration responseTimeout) {
+            this.responseTimeout = responseTimeout;
+        }
+
+        /**
+         * Dedicated event loop threads for the lane; 0 shares the global Reactor Netty loops
+         */
+        public int getEventLoopThreads() {
+            return eventLoopThreads;
+        }
+
+        public void setEventLoopThreads(int eventLoopThreads) {
+            this.eventLoopThreads = eventLoopThreads;
+        }
+    }
+
+    /**
+     * Hot query tracking and refresh-ahead of the hottest search and track cache entries
+     */
+    public static class Popularity {
+        private int topK = 100;
+        private int sketchWidth = 4096;
+        private int sketchDepth = 4;
+        private Duration refreshAhead = Duration.ofMinutes(2);
+        private int refreshConcurrency = 4;
+        private String snapshotFile;
+
+        public int getTopK() {
+            return topK;
+        }
+
+        public void setTopK(int topK) {
+            this.topK = topK;
+        }
+
+        public int getSketchWidth() {
+            return sketchWidth;
+        }
+
+        public void setSketchWidth(int sketchWidth) {
+            this.sketchWidth = sketchWidth;
+        }
+
+        public int getSketchDepth() {
+            return sketchDepth;
+        }
+
+        public void setSketchDepth(int sketchDepth) {
+            this.sketchDepth = sketchDepth;
+        }
+
+        public Duration getRefreshAhead() {
+            return refreshAhead;
+        }
+
+        public void setRefreshAhead(Duration refreshAhead) {
+            this.refreshAhead = refreshAhead;
+        }
+
+        public int getRefreshConcurrency() {
+            return refreshConcurrency;
+        }
+
+        public void setRefreshConcurrency(int refreshConcurrency) {
+            this.refreshConcurrency = refreshConcurrency;
+        }
+
+        public String getSnapshotFile() {
+            return snapshotFile;
+        }
+
+        public void setSnapshotFile(String snapshotFile) {
+            this.snapshotFile = snapshotFile;
+        }
+    }
+
+    /**
+     * Listening history event log
+     */
+    public static class History {
+        private String dir;
+        private int segmentBytes = 16 * 1024 * 1024;
+        private int retainedSegments = 64;
+        private int forceEvery = 64;
+        private int defaultLimit = 10;
+
+        public String getDir() {
+            return dir;
+        }
+
+        public void setDir(String dir) {
+            this.dir = dir;
+        }
+
+        public int getSegmentBytes() {
+            return segmentBytes;
+        }
+
+        public void setSegmentBytes(int segmentBytes) {
+            this.segmentBytes = segmentBytes;
+        }
+
+        public int getRetainedSegments() {
+            return retainedSegments;
+        }
+
+        public void setRetainedSegments(int retainedSegments) {
+            this.retainedSegments = retainedSegments;
+        }
+
+        public int getForceEvery() {
+            return forceEvery;
+        }
+
+        public void setForceEvery(int forceEvery) {
+            this.forceEvery = forceEvery;
+        }
+
+        public int getDefaultLimit() {
+            return defaultLimit;
+        }
+
+        public void setDefaultLimit(int defaultLimit) {
+            this.defaultLimit = defaultLimit;
+        }
+    }
+
+    /**
+     * WebSocket remote-control channel
+     */
+    public static class Remote {
+        private int maxInFlight = 16;
+        private int maxQueuedFrames = 64;
+        private Duration idleTimeout = Duration.ofMinutes(10);
+        private Duration ticketTtl = Duration.ofSeconds(30);
+        private List<String> allowedOrigins = List.of();
+
+        public int getMaxInFlight() {
+            return maxInFlight;
+        }
+
+        public void setMaxInFlight(int maxInFlight) {
+            this.maxInFlight = maxInFlight;
+        }
+
+        public Duration getIdleTimeout() {
+            return idleTimeout;
+        }
+
+        public void setIdleTimeout(Duration idleTimeout) {
+            this.idleTimeout = idleTimeout;
+        }
+
+        public int getMaxQueuedFrames() {
+            return maxQueuedFrames;
+        }
+
+        public void setMaxQueuedFrames(int maxQueuedFrames) {
+            this.maxQueuedFrames = maxQueuedFrames;
+        }
+
+        public Duration getTicketTtl() {
+            return ticketTtl;
+        }
+
+        public void setTicketTtl(Duration ticketTtl) {
+            this.ticketTtl = ticketTtl;
+        }
+
+        public List<String> getAllowedOrigins() {
+            return allowedOrigins;
+        }
+
+        public void setAllowedOrigins(List<String> allowedOrigins) {
+            this.allowedOrigins = allowedOrigins;
+        }
+    }
+
+    /**
+     * Per-request time budgets and the retries they allow
+     */
+    public static class Deadlines {
+        private Duration defaults = Duration.ofSeconds(10);
+        private Map<String, Duration> endpoints = new HashMap<>();
+        private Duration max = Duration.ofSeconds(30);
+        private int maxRetries = 1;
+        private Duration minRetryBudget = Duration.ofMillis(500);
+        private Duration backgroundRetryWait = Duration.ofSeconds(2);
+
+        public Duration forEndpoint(String endpoint) {
+            return endpoints.getOrDefault(endpoint, defaults);
+        }
+
+        public Duration getDefaults() {
+            return defaults;
+        }
+
+        public void setDefaults(Duration defaults) {
+            this.defaults = defaults;
+        }
+
+        public Map<String, Duration> getEndpoints() {
+            return endpoints;
+        }
+
+        public void setEndpoints(Map<String, Duration> endpoints) {
+            this.endpoints = endpoints;
+        }
+
+        public Duration getMax() {
+            return max;
+        }
+
+        public void setMax(Duration max) {
+            this.max = max;
+        }
+
+        public int getMaxRetries() {
+            return maxRetries;
+        }
+
+        public void setMaxRetries(int maxRetries) {
+            this.maxRetries = maxRetries;
+        }
+
+        public Duration getMinRetryBudget() {
+            return minRetryBudget;
+        }
+
+        public void setMinRetryBudget(Duration minRetryBudget) {
+            this.minRetryBudget = minRetryBudget;
+        }
+
+        public Duration getBackgroundRetryWait() {
+            return backgroundRetryWait;
+        }
+
+        public void setBackgroundRetryWait(Duration backgroundRetryWait) {
+            this.backgroundRetryWait = backgroundRetryWait;
+        }
+    }
+
+    /**
+     * Per-caller fair queuing of metadata-lane calls
+     */
+    public static class Fairness {
+        private int maxConcurrent = 32;
+        private int maxQueuePerCaller = 16;
+        private Duration maxQueueWait = Duration.ofSeconds(5);
+        private Duration retryAfter = Duration.ofSeconds(1);
+        private int defaultWeight = 1;
+        private int backgroundWeight = 1;
+        private Map<String, Integer> clientWeights = new HashMap<>();
+
+        public int weightOfClient(String clientId) {
+            return Math.max(1, clientWeights.getOrDefault(clientId, defaultWeight));
+        }
+
+        public int getMaxConcurrent() {
+            return maxConcurrent;
+        }
+
+        public void setMaxConcurrent(int maxConcurrent) {
+            this.maxConcurrent = maxConcurrent;
+        }
+
+        public int getMaxQueuePerCaller() {
+            return maxQueuePerCaller;
+        }
+
+        public void setMaxQueuePerCaller(int maxQueuePerCaller) {
+            this.maxQueuePerCaller = maxQueuePerCaller;
+        }
+
+        public Duration getMaxQueueWait() {
+            return maxQueueWait;
+        }
+
+        public void setMaxQueueWait(Duration maxQueueWait) {
+            this.maxQueueWait = maxQueueWait;
+        }
+
+        public Duration getRetryAfter() {
+            return retryAfter;
+        }
+
+        public void setRetryAfter(Duration retryAfter) {
+            this.retryAfter = retryAfter;
+        }
+
+        public int getDefaultWeight() {
+            return defaultWeight;
+        }
+
+        public void setDefaultWeight(int defaultWeight) {
+            this.defaultWeight = defaultWeight;
+        }
+
+        public int getBackgroundWeight() {
+            return backgroundWeight;
+        }
+
+        public void setBackgroundWeight(int backgroundWeight) {
+            this.backgroundWeight = backgroundWeight;
+        }
+
+        public Map<String, Integer> getClientWeights() {
+            return clientWeights;
+        }
+
+        public void setClientWeights(Map<String, Integer> clientWeights) {
+            this.clientWeights = clientWeights;
+        }
+    }
+
+    /**
+     * Local playback clock: how long an extrapolated progress is trusted before resyncing
+     */
+    public static class Clock {
+        private Duration maxAge = Duration.ofSeconds(30);
+        private Duration minAge = Duration.ofSeconds(5);
+        private Duration driftThreshold = Duration.ofSeconds(2);
+        private Duration minInterval = Duration.ofSeconds(1);
+        private Duration idleTimeout = Duration.ofMinutes(30);
+
+        public Duration getMaxAge() {
+            return maxAge;
+        }
+
+        public void setMaxAge(Duration maxAge) {
+            this.maxAge = maxAge;
+        }
+
+        public Duration getMinAge() {
+            return minAge;
+        }
+
+        public void setMinAge(Duration minAge) {
+            this.minAge = minAge;
+        }
+
+        public Duration getDriftThreshold() {
+            return driftThreshold;
+        }
+
+        public void setDriftThreshold(Duration driftThreshold) {
+            this.driftThreshold = driftThreshold;
+        }
+
+        public Duration getMinInterval() {
+            return minInterval;
+        }
+
+        public void setMinInterval(Duration minInterval) {
+            this.minInterval = minInterval;
+        }
+
+        public Duration getIdleTimeout() {
+            return idleTimeout;
+        }
+
+        public void setIdleTimeout(Duration idleTimeout) {
+            this.idleTimeout = idleTimeout;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.music_player.config;
+
+import com.example.music_player.exception.ErrorLogAggregator;
+import com.example.music_player.exception.SpotifyApiException;
+import com.example.music_player.service.FairUpstreamScheduler;
+import com.example.music_player.service.RequestDeadlines;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outbound Spotify API clients, one per lane. Interactive playback commands and bulk
+ * metadata/search traffic never compete for connections: each lane has its own pool and
+ * pending-acquire queue, and the playback lane can run on its own event loop so decoding
+ * large search responses cannot delay it. Metadata calls are shared fairly between callers by
+ * {@link FairUpstreamScheduler}. Every lane records upstream latency as
+ * spotify.upstream.latency tagged with lane and outcome, honours the caller's
+ * {@link RequestDeadlines} deadline, and surfaces failures as classified, stackless
+ * {@link SpotifyApiException}s. The token and preview clients share that classification, and
+ * each failure is recorded in {@link ErrorLogAggregator} exactly once, where it is classified.
+ */
+@Configuration
+public class SpotifyWebClientConfig {
+
+    private final List<Disposable> laneResources = new CopyOnWriteArrayList<>();
+
+    @Bean
+    public WebClient playbackWebClient(WebClient.Builder builder, SpotifyConfig spotifyConfig,
+                                       MeterRegistry meterRegistry, RequestDeadlines deadlines,
+                                       ErrorLogAggregator errorLog) {
+        return laneClient("playback", spotifyConfig.getLanes().getPlayback(), builder, spotifyConfig, meterRegistry,
+                deadlines, errorLog);
+    }
+
+    @Bean
+    public WebClient metadataWebClient(WebClient.Builder builder, SpotifyConfig spotifyConfig,
+                                       MeterRegistry meterRegistry, RequestDeadlines deadlines,
+                                       FairUpstreamScheduler fairScheduler, ErrorLogAggregator errorLog) {
+        // outermost filter: queueing for the caller's turn is not counted as upstream latency
+        return laneClient("metadata", spotifyConfig.getLanes().getMetadata(),
+                builder.clone().filter(fairScheduler.outbound()), spotifyConfig, meterRegistry, deadlines, errorLog);
+    }
+
+    /**
+     * Token endpoint calls (absolute URLs), bounded by the caller's deadline
+     */
+    @Bean
+    public WebClient authWebClient(WebClient.Builder builder, RequestDeadlines deadlines,
+                                   ErrorLogAggregator errorLog) {
+        return classified("auth", builder.clone(), errorLog)
+                .filter(deadlines.outbound())
+                .build();
+    }
+
+    /**
+     * Preview audio downloads. No deadline: a download is shared by every listener waiting for it.
+     */
+    @Bean
+    public WebClient previewWebClient(WebClient.Builder builder, ErrorLogAggregator errorLog) {
+        return classified("preview", builder.clone(), errorLog).build();
+    }
+
+    @PreDestroy
+    public void disposeLanes() {
+        laneResources.forEach(Disposable::dispose);
+    }
+
+    private WebClient laneClient(String lane, SpotifyConfig.Lane settings, WebClient.Builder builder,
+                                 SpotifyConfig spotifyConfig, MeterRegistry meterRegistry,
+                                 RequestDeadlines deadlines, ErrorLogAggregator errorLog) {
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("spotify-" + lane)
+                .maxConnections(settings.getMaxConnections())
+                .pendingAcquireMaxCount(settings.getMaxPendingAcquires())
+                .pendingAcquireTimeout(settings.getPendingAcquireTimeout())
+                .metrics(true)
+                .build();
+        laneResources.add(connectionProvider);
+
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .responseTimeout(settings.getResponseTimeout());
+        if (settings.getEventLoopThreads() > 0) {
+            LoopResources loops = LoopResources.create("spotify-" + lane, settings.getEventLoopThreads(), true);
+            laneResources.add(loops);
+            httpClient = httpClient.runOn(loops);
+        }
+
+        WebClient.Builder client = builder.clone()
+                .baseUrl(spotifyConfig.getBaseUrl())
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .filter(latencyTimer(lane, meterRegistry));
+        return classified(lane, client, errorLog)
+                .filter(deadlines.outbound())
+                .build();
+    }
+
+    /**
+     * Failures of the filters added after this one, and error statuses, become classified
+     * {@link SpotifyApiException}s and are recorded here, so nothing upstream of the client
+     * records them again
+     */
+    private static WebClient.Builder classified(String client, WebClient.Builder builder,
+                                                ErrorLogAggregator errorLog) {
+        return builder
+                .filter((request, next) -> next.exchange(request)
+                        .onErrorMap(error -> {
+                            SpotifyApiException classified = SpotifyApiException.from(error);
+                            errorLog.record(client + " " + request.method() + " " + request.url().getPath(),
+                                    classified);
+                            return classified;
+                        }))
+                .defaultStatusHandler(HttpStatusCode::isError, response -> response.bodyToMono(String.class)
+                        .defaultIfEmpty("")
+                        .map(body -> {
+                            SpotifyApiException classified = SpotifyApiException.fromResponse(
+                                    response.statusCode().value(), body,
+                                    response.headers().asHttpHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+                            errorLog.record(client + " " + response.request().getMethod() + " "
+                                    + response.request().getURI().getPath(), classified);
+                            return classified;
+                        }));
+    }
+
+    /**
+     * Time from sending the request to receiving the response status, per lane and outcome
+     */
+    private ExchangeFilterFunction latencyTimer(String lane, MeterRegistry meterRegistry) {
+        Timer success = laneTimer(lane, "success", meterRegistry);
+        Timer clientError = laneTimer(lane, "client_error", meterRegistry);
+        Timer serverError = laneTimer(lane, "server_error", meterRegistry);
+        Timer error = laneTimer(lane, "error", meterRegistry);
+        return (request, next) -> {
+            long started = System.nanoTime();
+            return next.exchange(request)
+                    .doOnSuccess(response -> {
+                        Timer timer = response.statusCode().is5xxServerError() ? serverError
+                                : response.statusCode().isError() ? clientError : success;
+                        timer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                    })
+                    .doOnError(failure -> error.record(System.nanoTime() - started, TimeUnit.NANOSECONDS));
+        };
+    }
+
+    private static Timer laneTimer(String lane, String outcome, MeterRegistry meterRegistry) {
+        return Timer.builder("spotify.upstream.latency")
+                .description("Spotify API latency per outbound lane")
+                .tag("lane", lane)
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+}
@@ -1,19 +1,49 @@
 package com.example.music_player.controller;
 
+import com.example.music_player.dto.LibrarySyncResult;
+import com.example.music_player.dto.ListeningStatsView;
+import com.example.music_player.dto.LocalPlaylist;
+import com.example.music_player.dto.PlayQueueView;
+import com.example.music_player.dto.PlaybackCommand;
+import com.example.music_player.dto.PlaybackCommandResult;
+import com.example.music_player.dto.PlaybackProgress;
+import com.example.music_player.dto.SpotifySearchSection;
+import com.example.music_player.dto.SpotifySuggestion;
 import com.example.music_player.dto.SpotifyTrack;
+import com.example.music_player.exception.ServiceOverloadedException;
+import com.example.music_player.exception.SpotifyApiException;
 import com.example.music_player.service.SpotifyApiService;
+import com.example.music_player.service.EndpointConcurrencyLimiter;
+import com.example.music_player.service.FairUpstreamScheduler;
+import com.example.music_player.service.LibrarySyncService;
+import com.example.music_player.service.ListeningHistoryService;
+import com.example.music_player.service.PlayQueueService;
+import com.example.music_player.service.PlaybackCommandService;
+import com.example.music_player.service.PreviewCacheService;
+import com.example.music_player.service.RemoteTicketRegistry;
+import com.example.music_player.service.RequestDeadlines;
+import com.example.music_player.service.SearchSessionRegistry;
 import com.example.music_player.service.SpotifyAuthService;
+import com.example.music_player.service.TrackSuggestionIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 @RestController
 @RequestMapping("/api/spotify")
@@ -24,25 +54,96 @@ public class SpotifyController {
     
     private final SpotifyApiService spotifyApiService;
     private final SpotifyAuthService spotifyAuthService;
+    private final TrackSuggestionIndex suggestionIndex;
+    private final SearchSessionRegistry searchSessions;
+    private final PlayQueueService playQueueService;
+    private final PlaybackCommandService playbackCommandService;
+    private final LibrarySyncService librarySyncService;
+    private final PreviewCacheService previewCacheService;
+    private final EndpointConcurrencyLimiter concurrencyLimiter;
+    private final ListeningHistoryService listeningHistory;
+    private final RequestDeadlines deadlines;
+    private final FairUpstreamScheduler fairScheduler;
+    private final RemoteTicketRegistry remoteTickets;
     
-    public SpotifyController(SpotifyApiService spotifyApiService, SpotifyAuthService spotifyAuthService) {
+    public SpotifyController(SpotifyApiService spotifyApiService, SpotifyAuthService spotifyAuthService,
+                             TrackSuggestionIndex suggestionIndex, SearchSessionRegistry searchSessions,
+                             PlayQueueService playQueueService, LibrarySyncService librarySyncService,
+                             PreviewCacheService previewCacheService, EndpointConcurrencyLimiter concurrencyLimiter,
+                             ListeningHistoryService listeningHistory, RequestDeadlines deadlines,
+                             FairUpstreamScheduler fairScheduler, PlaybackCommandService playbackCommandService,
+                             RemoteTicketRegistry remoteTickets) {
         this.spotifyApiService = spotifyApiService;
         this.spotifyAuthService = spotifyAuthService;
+        this.suggestionIndex = suggestionIndex;
+        this.searchSessions = searchSessions;
+        this.playQueueService = playQueueService;
+        this.playbackCommandService = playbackCommandService;
+        this.librarySyncService = librarySyncService;
+        this.previewCacheService = previewCacheService;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.listeningHistory = listeningHistory;
+        this.deadlines = deadlines;
+        this.fairScheduler = fairScheduler;
+        this.remoteTickets = remoteTickets;
     }
     
     /**
-     * Search for tracks
+     * Search for tracks. Requests carrying the same X-Search-Session header form a
+     * switch-latest channel: a new query cancels the previous one still in flight,
+     * which then completes with 204 No Content.
      */
     @GetMapping("/search")
     public Mono<ResponseEntity<List<SpotifyTrack>>> searchTracks(
             @RequestParam String query,
-            @RequestParam(defaultValue = "20") int limit) {
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestHeader(value = "X-Search-Session", required = false) String searchSession,
+            @RequestHeader(value = "Authorization", required = false) String authHeader) {
         
         logger.info("Searching for tracks with query: {} and limit: {}", query, limit);
         
-        return spotifyApiService.searchTracks(query, limit)
+        return searchSessions.switchLatest(extractTokenFromHeader(authHeader), searchSession,
+                        spotifyApiService.searchTracks(query, limit))
                 .map(tracks -> ResponseEntity.ok(tracks))
-                .onErrorReturn(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build());
+                .defaultIfEmpty(ResponseEntity.noContent().build())
+                .onErrorResume(ServiceOverloadedException.class, Mono::error)
+                .onErrorReturn(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build())
+                .transform(limitedTo("search"));
+    }
+    
+    /**
+     * Search tracks, artists, albums and playlists in one request. Each type is streamed as a
+     * separate section (newline-delimited JSON or server-sent events) as soon as it is available.
+     */
+    @GetMapping(value = "/search/all", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public ResponseEntity<Flux<SpotifySearchSection<?>>> searchAll(
+            @RequestParam String query,
+            @RequestParam(defaultValue = "track,artist,album,playlist") List<String> types,
+            @RequestParam(defaultValue = "10") int limit) {
+        
+        logger.info("Searching {} with query: {} and limit: {}", types, query, limit);
+        
+        if (!types.stream().allMatch(SpotifyApiService::isSearchType)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(deadlines.enforceMany(concurrencyLimiter.limitMany("search",
+                        spotifyApiService.searchSections(query, types, limit)))
+                .contextWrite(deadlines.forEndpoint("search"))
+                .contextWrite(fairScheduler.forRequest()));
+    }
+    
+    /**
+     * Typeahead suggestions from locally seen tracks, artists, albums and playlists (no upstream call)
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SpotifySuggestion>> suggest(
+            @RequestParam String prefix,
+            @RequestParam(required = false) Integer limit) {
+        
+        List<SpotifySuggestion> suggestions = limit == null
+                ? suggestionIndex.suggest(prefix)
+                : suggestionIndex.suggest(prefix, Math.min(limit, 50));
+        return ResponseEntity.ok(suggestions);
     }
     
     /**
@@ -54,7 +155,29 @@ public class SpotifyController {
         
         return spotifyApiService.getTrack(trackId)
                 .map(track -> ResponseEntity.ok(track))
-                .onErrorReturn(ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+                .onErrorResume(ServiceOverloadedException.class, Mono::error)
+                .onErrorReturn(ResponseEntity.status(HttpStatus.NOT_FOUND).build())
+                .transform(limitedTo("track"));
+    }
+    
+    /**
+     * Stream a track's 30-second preview from the local disk cache. Range requests are
+     * answered with 206 Partial Content.
+     */
+    @GetMapping("/preview/{trackId}")
+    public Mono<ResponseEntity<Resource>> getPreview(@PathVariable String trackId) {
+        logger.debug("Serving preview for track: {}", trackId);
+        
+        return previewCacheService.getPreview(trackId)
+                .map(path -> ResponseEntity.ok()
+                        .contentType(MediaType.parseMediaType("audio/mpeg"))
+                        .cacheControl(CacheControl.maxAge(7, TimeUnit.DAYS).cachePublic())
+                        .<Resource>body(new FileSystemResource(path)))
+                .defaultIfEmpty(ResponseEntity.notFound().build())
+                .onErrorResume(IllegalArgumentException.class,
+                        error -> Mono.just(ResponseEntity.badRequest().build()))
+                .onErrorReturn(ResponseEntity.status(HttpStatus.BAD_GATEWAY).build())
+                .transform(limitedTo("preview"));
     }
     
     /**
@@ -93,7 +216,37 @@ public class SpotifyController {
                     return ResponseEntity.ok(response);
                 })
                 .onErrorReturn(ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                        .body(Map.of("error", "Failed to exchange code for token")));
+                        .body(Map.of("error", "Failed to exchange code for token")))
+                .transform(limitedTo("callback"));
+    }
+    
+    /**
+     * Exchange the current access token for a fresh one. Works on any node: the session
+     * stored at the callback lives in the shared cache tier.
+     */
+    @PostMapping("/auth/refresh")
+    public Mono<ResponseEntity<Map<String, String>>> refreshSession(
+            @RequestHeader("Authorization") String authHeader) {
+        
+        String accessToken = extractTokenFromHeader(authHeader);
+        if (accessToken == null) {
+            return Mono.just(ResponseEntity.badRequest().body(Map.of("error", "Missing authorization token")));
+        }
+        
+        return spotifyAuthService.refreshSession(accessToken)
+                .map(tokenResponse -> {
+                    Map<String, String> response = new HashMap<>();
+                    response.put("access_token", tokenResponse.getAccessToken());
+                    response.put("token_type", tokenResponse.getTokenType());
+                    response.put("scope", tokenResponse.getScope());
+                    response.put("expires_in", String.valueOf(tokenResponse.getExpiresIn()));
+                    return ResponseEntity.ok(response);
+                })
+                .defaultIfEmpty(ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                        .body(Map.of("error", "Unknown or expired session")))
+                .onErrorReturn(ResponseEntity.status(HttpStatus.BAD_GATEWAY)
+                        .body(Map.of("error", "Failed to refresh token")))
+                .transform(limitedTo("refresh"));
     }
     
     /**
@@ -115,9 +268,37 @@ public class SpotifyController {
         logger.info("Playing track: {}", trackUri);
         
         return spotifyApiService.playTrack(trackUri, accessToken)
+                .doOnSuccess(v -> listeningHistory.recordPlay(trackUri, accessToken))
                 .then(Mono.just(ResponseEntity.ok(Map.of("message", "Track playing"))))
                 .onErrorReturn(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                        .body(Map.of("error", "Failed to play track")));
+                        .body(Map.of("error", "Failed to play track")))
+                .transform(limitedTo("play"));
+    }
+    
+    /**
+     * Apply a whole playback intent in one request: any of deviceId, trackUri, positionMs and
+     * volume. Spotify errors of the playback step keep their status.
+     */
+    @PostMapping("/playback")
+    public Mono<ResponseEntity<PlaybackCommandResult>> applyPlaybackCommand(
+            @RequestBody PlaybackCommand command,
+            @RequestHeader("Authorization") String authHeader) {
+        
+        String accessToken = extractTokenFromHeader(authHeader);
+        
+        if (accessToken == null) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        
+        logger.info("Applying playback command for track: {}", command.getTrackUri());
+        
+        return playbackCommandService.execute(command, accessToken)
+                .map(result -> ResponseEntity.ok(result))
+                .onErrorResume(IllegalArgumentException.class,
+                        error -> Mono.just(ResponseEntity.badRequest().build()))
+                .onErrorResume(SpotifyApiException.class, Mono::error)
+                .onErrorReturn(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build())
+                .transform(limitedTo("play"));
     }
     
     /**
@@ -137,9 +318,11 @@ public class SpotifyController {
         logger.info("Pausing playback");
         
         return spotifyApiService.pausePlayback(accessToken)
+                .doOnSuccess(v -> listeningHistory.recordPause(accessToken))
                 .then(Mono.just(ResponseEntity.ok(Map.of("message", "Playback paused"))))
                 .onErrorReturn(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                        .body(Map.of("error", "Failed to pause playback")));
+                        .body(Map.of("error", "Failed to pause playback")))
+                .transform(limitedTo("pause"));
     }
     
     /**
@@ -159,13 +342,15 @@ public class SpotifyController {
         logger.info("Resuming playback");
         
         return spotifyApiService.resumePlayback(accessToken)
+                .doOnSuccess(v -> listeningHistory.recordResume(accessToken))
                 .then(Mono.just(ResponseEntity.ok(Map.of("message", "Playback resumed"))))
                 .onErrorReturn(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                        .body(Map.of("error", "Failed to resume playback")));
+                        .body(Map.of("error", "Failed to resume playback")))
+                .transform(limitedTo("resume"));
     }
     
     /**
-     * Get current playback state
+     * Get current playback state (204 when nothing is playing)
      */
     @GetMapping("/player")
     public Mono<ResponseEntity<String>> getCurrentPlayback(
@@ -179,10 +364,34 @@ public class SpotifyController {
         
         logger.info("Getting current playback state");
         
-        return spotifyApiService.getCurrentPlayback(accessToken)
-                .map(state -> ResponseEntity.ok(state))
+        // Spotify's body is passed through unchanged; the typed state is for internal use
+        return spotifyApiService.getCurrentPlaybackJson(accessToken)
+                .map(state -> ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(state))
+                .defaultIfEmpty(ResponseEntity.noContent().build())
                 .onErrorReturn(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                        .body("Failed to get playback state"));
+                        .body("Failed to get playback state"))
+                .transform(limitedTo("player"));
+    }
+    
+    /**
+     * Playback progress for progress bars, answered from the local playback clock. Cheap
+     * enough to poll: Spotify is only asked again after commands, at track end or when the
+     * clock is due for a resync.
+     */
+    @GetMapping("/player/progress")
+    public Mono<ResponseEntity<PlaybackProgress>> getPlaybackProgress(
+            @RequestHeader("Authorization") String authHeader) {
+        
+        String accessToken = extractTokenFromHeader(authHeader);
+        
+        if (accessToken == null) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        
+        return spotifyApiService.getPlaybackProgress(accessToken)
+                .map(progress -> ResponseEntity.ok(progress))
+                .onErrorReturn(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build())
+                .transform(limitedTo("player"));
     }
     
     /**
@@ -203,7 +412,8 @@ public class SpotifyController {
         return spotifyApiService.getAvailableDevices(accessToken)
                 .map(devices -> ResponseEntity.ok(devices))
                 .onErrorReturn(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                        .body("Failed to get available devices"));
+                        .body("Failed to get available devices"))
+                .transform(limitedTo("devices"));
     }
     
     /**
@@ -227,7 +437,8 @@ public class SpotifyController {
         return spotifyApiService.setVolume(volume, accessToken)
                 .then(Mono.just(ResponseEntity.ok(Map.of("message", "Volume set to " + volume + "%"))))
                 .onErrorReturn(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                        .body(Map.of("error", "Failed to set volume")));
+                        .body(Map.of("error", "Failed to set volume")))
+                .transform(limitedTo("volume"));
     }
     
     /**
@@ -251,7 +462,207 @@ public class SpotifyController {
         return spotifyApiService.transferPlayback(deviceId, accessToken)
                 .then(Mono.just(ResponseEntity.ok(Map.of("message", "Playback transferred"))))
                 .onErrorReturn(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                        .body(Map.of("error", "Failed to transfer playback")));
+                        .body(Map.of("error", "Failed to transfer playback")))
+                .transform(limitedTo("transfer"));
+    }
+    
+    /**
+     * Get the user's server-side play queue
+     */
+    @GetMapping("/queue")
+    public Mono<ResponseEntity<PlayQueueView>> getQueue(
+            @RequestHeader("Authorization") String authHeader) {
+        
+        String accessToken = extractTokenFromHeader(authHeader);
+        
+        if (accessToken == null) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        
+        return playQueueService.getQueue(accessToken)
+                .map(queue -> ResponseEntity.ok(queue))
+                .onErrorReturn(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build())
+                .transform(limitedTo("queue"));
+    }
+    
+    /**
+     * Append tracks to the user's play queue
+     */
+    @PostMapping("/queue")
+    public Mono<ResponseEntity<PlayQueueView>> enqueueTracks(
+            @RequestBody Map<String, List<String>> request,
+            @RequestHeader("Authorization") String authHeader) {
+        
+        List<String> trackUris = request.get("trackUris");
+        String accessToken = extractTokenFromHeader(authHeader);
+        
+        if (trackUris == null || trackUris.isEmpty() || accessToken == null) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        
+        logger.info("Queueing {} tracks", trackUris.size());
+        
+        return playQueueService.enqueue(trackUris, accessToken)
+                .map(queue -> ResponseEntity.ok(queue))
+                .onErrorResume(IllegalArgumentException.class,
+                        error -> Mono.just(ResponseEntity.badRequest().build()))
+                .onErrorReturn(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build())
+                .transform(limitedTo("queue"));
+    }
+    
+    /**
+     * Advance the play queue and play the next track
+     */
+    @PostMapping("/queue/next")
+    public Mono<ResponseEntity<PlayQueueView>> playNext(
+            @RequestHeader("Authorization") String authHeader) {
+        
+        String accessToken = extractTokenFromHeader(authHeader);
+        
+        if (accessToken == null) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        
+        logger.info("Advancing play queue");
+        
+        return playQueueService.next(accessToken)
+                .map(queue -> ResponseEntity.ok(queue))
+                .onErrorResume(IllegalArgumentException.class,
+                        error -> Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).build()))
+                .onErrorReturn(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build())
+                .transform(limitedTo("queue"));
+    }
+    
+    /**
+     * Clear the user's play queue
+     */
+    @DeleteMapping("/queue")
+    public Mono<ResponseEntity<Map<String, String>>> clearQueue(
+            @RequestHeader("Authorization") String authHeader) {
+        
+        String accessToken = extractTokenFromHeader(authHeader);
+        
+        if (accessToken == null) {
+            return Mono.just(ResponseEntity.badRequest()
+                    .body(Map.of("error", "Missing authorization token")));
+        }
+        
+        return playQueueService.clear(accessToken)
+                .then(Mono.just(ResponseEntity.ok(Map.of("message", "Queue cleared"))))
+                .onErrorReturn(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body(Map.of("error", "Failed to clear queue")))
+                .transform(limitedTo("queue"));
+    }
+    
+    /**
+     * Sync the user's playlists and saved tracks into the local library
+     */
+    @PostMapping("/library/sync")
+    public Mono<ResponseEntity<LibrarySyncResult>> syncLibrary(
+            @RequestHeader("Authorization") String authHeader) {
+        
+        String accessToken = extractTokenFromHeader(authHeader);
+        
+        if (accessToken == null) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        
+        logger.info("Syncing library");
+        
+        return librarySyncService.sync(accessToken)
+                .map(result -> ResponseEntity.ok(result))
+                .onErrorReturn(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build())
+                .transform(limitedTo("library"));
+    }
+    
+    /**
+     * Get the user's locally synced playlists
+     */
+    @GetMapping("/library/playlists")
+    public Mono<ResponseEntity<List<LocalPlaylist>>> getLibraryPlaylists(
+            @RequestHeader("Authorization") String authHeader) {
+        
+        String accessToken = extractTokenFromHeader(authHeader);
+        
+        if (accessToken == null) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        
+        return librarySyncService.getPlaylists(accessToken)
+                .map(playlists -> ResponseEntity.ok(playlists))
+                .onErrorReturn(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build())
+                .transform(limitedTo("library"));
+    }
+    
+    /**
+     * Get the user's locally synced saved tracks (URIs, most recently saved first)
+     */
+    @GetMapping("/library/saved")
+    public Mono<ResponseEntity<List<String>>> getLibrarySavedTracks(
+            @RequestHeader("Authorization") String authHeader) {
+        
+        String accessToken = extractTokenFromHeader(authHeader);
+        
+        if (accessToken == null) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        
+        return librarySyncService.getSavedTrackUris(accessToken)
+                .map(trackUris -> ResponseEntity.ok(trackUris))
+                .onErrorReturn(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build())
+                .transform(limitedTo("library"));
+    }
+    
+    /**
+     * Get the user's listening statistics: totals plus most played tracks and artists
+     */
+    @GetMapping("/history/stats")
+    public Mono<ResponseEntity<ListeningStatsView>> getListeningStats(
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader("Authorization") String authHeader) {
+        
+        String accessToken = extractTokenFromHeader(authHeader);
+        
+        if (accessToken == null) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        
+        return listeningHistory.getStats(accessToken, limit)
+                .map(stats -> ResponseEntity.ok(stats))
+                .onErrorReturn(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build())
+                .transform(limitedTo("history"));
+    }
+    
+    /**
+     * Issue a single-use ticket for opening the remote-control WebSocket from a browser
+     * (answered locally, no Spotify call)
+     */
+    @PostMapping("/remote/ticket")
+    public ResponseEntity<Map<String, Object>> issueRemoteTicket(
+            @RequestHeader("Authorization") String authHeader) {
+        
+        String accessToken = extractTokenFromHeader(authHeader);
+        
+        if (accessToken == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Missing authorization token"));
+        }
+        
+        return ResponseEntity.ok(Map.of(
+                "ticket", remoteTickets.issue(accessToken),
+                "expiresIn", remoteTickets.getTtl().toSeconds()));
+    }
+    
+    /**
+     * Run a response pipeline under the endpoint's concurrency limit and time budget, on behalf
+     * of the calling user. Applied after the endpoint's own error mapping, so rejections reach
+     * the exception handler as 503s and exhausted budgets as 504s.
+     */
+    private <T> Function<Mono<T>, Mono<T>> limitedTo(String endpoint) {
+        Function<Context, Context> deadline = deadlines.forEndpoint(endpoint);
+        Function<Context, Context> caller = fairScheduler.forRequest();
+        return response -> deadlines.enforce(concurrencyLimiter.limit(endpoint, response))
+                .contextWrite(deadline)
+                .contextWrite(caller);
     }
     
     /**
@@ -0,0 +1,87 @@
+package com.example.music_player.dto;
+
+public class LibrarySyncResult {
+    
+    private int playlistsSeen;
+    private int playlistsUnchanged;
+    private int playlistsUpdated;
+    private int playlistsRemoved;
+    private int tracksAdded;
+    private int tracksRemoved;
+    private int savedTracksAdded;
+    private int savedTracksRemoved;
+    private long durationMs;
+
+    // Getters and Setters
+    public int getPlaylistsSeen() {
+        return playlistsSeen;
+    }
+
+    public void setPlaylistsSeen(int playlistsSeen) {
+        this.playlistsSeen = playlistsSeen;
+    }
+
+    public int getPlaylistsUnchanged() {
+        return playlistsUnchanged;
+    }
+
+    public void setPlaylistsUnchanged(int playlistsUnchanged) {
+        this.playlistsUnchanged = playlistsUnchanged;
+    }
+
+    public int getPlaylistsUpdated() {
+        return playlistsUpdated;
+    }
+
+    public void setPlaylistsUpdated(int playlistsUpdated) {
+        this.playlistsUpdated = playlistsUpdated;
+    }
+
+    public int getPlaylistsRemoved() {
+        return playlistsRemoved;
+    }
+
+    public void setPlaylistsRemoved(int playlistsRemoved) {
+        this.playlistsRemoved = playlistsRemoved;
+    }
+
+    public int getTracksAdded() {
+        return tracksAdded;
+    }
+
+    public void setTracksAdded(int tracksAdded) {
+        this.tracksAdded = tracksAdded;
+    }
+
+    public int getTracksRemoved() {
+        return tracksRemoved;
+    }
+
+    public void setTracksRemoved(int tracksRemoved) {
+        this.tracksRemoved = tracksRemoved;
+    }
+
+    public int getSavedTracksAdded() {
+        return savedTracksAdded;
+    }
+
+    public void setSavedTracksAdded(int savedTracksAdded) {
+        this.savedTracksAdded = savedTracksAdded;
+    }
+
+    public int getSavedTracksRemoved() {
+        return savedTracksRemoved;
+    }
+
+    public void setSavedTracksRemoved(int savedTracksRemoved) {
+        this.savedTracksRemoved = savedTracksRemoved;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public void setDurationMs(long durationMs) {
+        this.durationMs = durationMs;
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.music_player.dto;
+
+import java.util.List;
+
+public class ListeningStatsView {
+
+    private String userId;
+    private long plays;
+    private long skips;
+    private long listeningTimeMs;
+    private List<Entry> topTracks;
+    private List<Entry> topArtists;
+
+    // Constructors
+    public ListeningStatsView() {}
+
+    // Getters and Setters
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public long getPlays() {
+        return plays;
+    }
+
+    public void setPlays(long plays) {
+        this.plays = plays;
+    }
+
+    public long getSkips() {
+        return skips;
+    }
+
+    public void setSkips(long skips) {
+        this.skips = skips;
+    }
+
+    public long getListeningTimeMs() {
+        return listeningTimeMs;
+    }
+
+    public void setListeningTimeMs(long listeningTimeMs) {
+        this.listeningTimeMs = listeningTimeMs;
+    }
+
+    public List<Entry> getTopTracks() {
+        return topTracks;
+    }
+
+    public void setTopTracks(List<Entry> topTracks) {
+        this.topTracks = topTracks;
+    }
+
+    public List<Entry> getTopArtists() {
+        return topArtists;
+    }
+
+    public void setTopArtists(List<Entry> topArtists) {
+        this.topArtists = topArtists;
+    }
+
+    /**
+     * A track (keyed by URI) or an artist (keyed by name) with its play count and listening time
+     */
+    public static class Entry {
+        private String key;
+        private String name;
+        private long plays;
+        private long listeningTimeMs;
+
+        // Constructors
+        public Entry() {}
+
+        public Entry(String key, String name, long plays, long listeningTimeMs) {
+            this.key = key;
+            this.name = name;
+            this.plays = plays;
+            this.listeningTimeMs = listeningTimeMs;
+        }
+
+        // Getters and Setters
+        public String getKey() {
+            return key;
+        }
+
+        public void setKey(String key) {
+            this.key = key;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public long getPlays() {
+            return plays;
+        }
+
+        public void setPlays(long plays) {
+            this.plays = plays;
+        }
+
+        public long getListeningTimeMs() {
+            return listeningTimeMs;
+        }
+
+        public void setListeningTimeMs(long listeningTimeMs) {
+            this.listeningTimeMs = listeningTimeMs;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.music_player.dto;
+
+import java.util.List;
+
+/**
+ * Locally synced copy of a playlist
+ */
+public class LocalPlaylist {
+    
+    private String id;
+    private String name;
+    private String snapshotId;
+    private List<String> trackUris;
+
+    // Constructors
+    public LocalPlaylist() {}
+
+    public LocalPlaylist(String id, String name, String snapshotId, List<String> trackUris) {
+        this.id = id;
+        this.name = name;
+        this.snapshotId = snapshotId;
+        this.trackUris = trackUris;
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getSnapshotId() {
+        return snapshotId;
+    }
+
+    public void setSnapshotId(String snapshotId) {
+        this.snapshotId = snapshotId;
+    }
+
+    public List<String> getTrackUris() {
+        return trackUris;
+    }
+
+    public void setTrackUris(List<String> trackUris) {
+        this.trackUris = trackUris;
+    }
+}
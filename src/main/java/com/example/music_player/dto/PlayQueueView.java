@@ -0,0 +1,56 @@
+package com.example.music_player.dto;
+
+import java.util.List;
+
+public class PlayQueueView {
+    
+    private SpotifyTrack current;
+    private String currentUri;
+    private List<String> upcomingUris;
+    private List<SpotifyTrack> upcoming;
+    private String deviceId;
+
+    // Constructors
+    public PlayQueueView() {}
+
+    // Getters and Setters
+    public SpotifyTrack getCurrent() {
+        return current;
+    }
+
+    public void setCurrent(SpotifyTrack current) {
+        this.current = current;
+    }
+
+    public String getCurrentUri() {
+        return currentUri;
+    }
+
+    public void setCurrentUri(String currentUri) {
+        this.currentUri = currentUri;
+    }
+
+    public List<String> getUpcomingUris() {
+        return upcomingUris;
+    }
+
+    public void setUpcomingUris(List<String> upcomingUris) {
+        this.upcomingUris = upcomingUris;
+    }
+
+    public List<SpotifyTrack> getUpcoming() {
+        return upcoming;
+    }
+
+    public void setUpcoming(List<SpotifyTrack> upcoming) {
+        this.upcoming = upcoming;
+    }
+
+    public String getDeviceId() {
+        return deviceId;
+    }
+
+    public void setDeviceId(String deviceId) {
+        this.deviceId = deviceId;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.music_player.dto;
+
+public class PlaybackCommand {
+    
+    private String deviceId;
+    private String trackUri;
+    private Integer positionMs;
+    private Integer volume;
+
+    // Constructors
+    public PlaybackCommand() {}
+
+    // Getters and Setters
+    public String getDeviceId() {
+        return deviceId;
+    }
+
+    public void setDeviceId(String deviceId) {
+        this.deviceId = deviceId;
+    }
+
+    public String getTrackUri() {
+        return trackUri;
+    }
+
+    public void setTrackUri(String trackUri) {
+        this.trackUri = trackUri;
+    }
+
+    public Integer getPositionMs() {
+        return positionMs;
+    }
+
+    public void setPositionMs(Integer positionMs) {
+        this.positionMs = positionMs;
+    }
+
+    public Integer getVolume() {
+        return volume;
+    }
+
+    public void setVolume(Integer volume) {
+        this.volume = volume;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.music_player.dto;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class PlaybackCommandResult {
+    
+    private String deviceId;
+    private String trackUri;
+    private Integer positionMs;
+    private Integer volume;
+    private Map<String, String> failed = new LinkedHashMap<>();
+    private long durationMs;
+
+    // Constructors
+    public PlaybackCommandResult() {}
+
+    // Getters and Setters
+    public String getDeviceId() {
+        return deviceId;
+    }
+
+    public void setDeviceId(String deviceId) {
+        this.deviceId = deviceId;
+    }
+
+    public String getTrackUri() {
+        return trackUri;
+    }
+
+    public void setTrackUri(String trackUri) {
+        this.trackUri = trackUri;
+    }
+
+    public Integer getPositionMs() {
+        return positionMs;
+    }
+
+    public void setPositionMs(Integer positionMs) {
+        this.positionMs = positionMs;
+    }
+
+    public Integer getVolume() {
+        return volume;
+    }
+
+    public void setVolume(Integer volume) {
+        this.volume = volume;
+    }
+
+    public Map<String, String> getFailed() {
+        return failed;
+    }
+
+    public void setFailed(Map<String, String> failed) {
+        this.failed = failed;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public void setDurationMs(long durationMs) {
+        this.durationMs = durationMs;
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.music_player.dto;
+
+public class PlaybackProgress {
+    
+    private String trackUri;
+    private String trackName;
+    private String deviceId;
+    private boolean playing;
+    private long progressMs;
+    private long durationMs;
+    private long syncedAgoMs;
+
+    // Constructors
+    public PlaybackProgress() {}
+
+    // Getters and Setters
+    public String getTrackUri() {
+        return trackUri;
+    }
+
+    public void setTrackUri(String trackUri) {
+        this.trackUri = trackUri;
+    }
+
+    public String getTrackName() {
+        return trackName;
+    }
+
+    public void setTrackName(String trackName) {
+        this.trackName = trackName;
+    }
+
+    public String getDeviceId() {
+        return deviceId;
+    }
+
+    public void setDeviceId(String deviceId) {
+        this.deviceId = deviceId;
+    }
+
+    public boolean isPlaying() {
+        return playing;
+    }
+
+    public void setPlaying(boolean playing) {
+        this.playing = playing;
+    }
+
+    public long getProgressMs() {
+        return progressMs;
+    }
+
+    public void setProgressMs(long progressMs) {
+        this.progressMs = progressMs;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public void setDurationMs(long durationMs) {
+        this.durationMs = durationMs;
+    }
+
+    public long getSyncedAgoMs() {
+        return syncedAgoMs;
+    }
+
+    public void setSyncedAgoMs(long syncedAgoMs) {
+        this.syncedAgoMs = syncedAgoMs;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.music_player.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class SpotifyDevice {
+    
+    private String id;
+    private String name;
+    private String type;
+    
+    @JsonProperty("is_active")
+    private boolean active;
+    
+    @JsonProperty("is_restricted")
+    private boolean restricted;
+    
+    @JsonProperty("volume_percent")
+    private Integer volumePercent;
+
+    // Constructors
+    public SpotifyDevice() {}
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public void setActive(boolean active) {
+        this.active = active;
+    }
+
+    public boolean isRestricted() {
+        return restricted;
+    }
+
+    public void setRestricted(boolean restricted) {
+        this.restricted = restricted;
+    }
+
+    public Integer getVolumePercent() {
+        return volumePercent;
+    }
+
+    public void setVolumePercent(Integer volumePercent) {
+        this.volumePercent = volumePercent;
+    }
+}
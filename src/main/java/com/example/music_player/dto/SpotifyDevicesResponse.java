@@ -0,0 +1,16 @@
+package com.example.music_player.dto;
+
+import java.util.List;
+
+public class SpotifyDevicesResponse {
+    
+    private List<SpotifyDevice> devices;
+
+    public List<SpotifyDevice> getDevices() {
+        return devices;
+    }
+
+    public void setDevices(List<SpotifyDevice> devices) {
+        this.devices = devices;
+    }
+}
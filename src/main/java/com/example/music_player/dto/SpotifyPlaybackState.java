@@ -0,0 +1,93 @@
+package com.example.music_player.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class SpotifyPlaybackState {
+    
+    private SpotifyDevice device;
+    private SpotifyTrack item;
+    private Long timestamp;
+    
+    @JsonProperty("progress_ms")
+    private Integer progressMs;
+    
+    @JsonProperty("is_playing")
+    private boolean playing;
+    
+    @JsonProperty("shuffle_state")
+    private boolean shuffleState;
+    
+    @JsonProperty("repeat_state")
+    private String repeatState;
+    
+    @JsonProperty("currently_playing_type")
+    private String currentlyPlayingType;
+
+    // Constructors
+    public SpotifyPlaybackState() {}
+
+    // Getters and Setters
+    public SpotifyDevice getDevice() {
+        return device;
+    }
+
+    public void setDevice(SpotifyDevice device) {
+        this.device = device;
+    }
+
+    public SpotifyTrack getItem() {
+        return item;
+    }
+
+    public void setItem(SpotifyTrack item) {
+        this.item = item;
+    }
+
+    public Long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(Long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public Integer getProgressMs() {
+        return progressMs;
+    }
+
+    public void setProgressMs(Integer progressMs) {
+        this.progressMs = progressMs;
+    }
+
+    public boolean isPlaying() {
+        return playing;
+    }
+
+    public void setPlaying(boolean playing) {
+        this.playing = playing;
+    }
+
+    public boolean isShuffleState() {
+        return shuffleState;
+    }
+
+    public void setShuffleState(boolean shuffleState) {
+        this.shuffleState = shuffleState;
+    }
+
+    public String getRepeatState() {
+        return repeatState;
+    }
+
+    public void setRepeatState(String repeatState) {
+        this.repeatState = repeatState;
+    }
+
+    public String getCurrentlyPlayingType() {
+        return currentlyPlayingType;
+    }
+
+    public void setCurrentlyPlayingType(String currentlyPlayingType) {
+        this.currentlyPlayingType = currentlyPlayingType;
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.music_player.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class SpotifyPlaylist {
+    
+    private String id;
+    private String name;
+    private String uri;
+    
+    @JsonProperty("snapshot_id")
+    private String snapshotId;
+    
+    private TracksRef tracks;
+
+    // Constructors
+    public SpotifyPlaylist() {}
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getUri() {
+        return uri;
+    }
+
+    public void setUri(String uri) {
+        this.uri = uri;
+    }
+
+    public String getSnapshotId() {
+        return snapshotId;
+    }
+
+    public void setSnapshotId(String snapshotId) {
+        this.snapshotId = snapshotId;
+    }
+
+    public TracksRef getTracks() {
+        return tracks;
+    }
+
+    public void setTracks(TracksRef tracks) {
+        this.tracks = tracks;
+    }
+
+    // Nested classes
+    public static class TracksRef {
+        private String href;
+        private int total;
+
+        public String getHref() {
+            return href;
+        }
+
+        public void setHref(String href) {
+            this.href = href;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public void setTotal(int total) {
+            this.total = total;
+        }
+    }
+}
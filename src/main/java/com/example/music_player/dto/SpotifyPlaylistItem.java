@@ -0,0 +1,34 @@
+package com.example.music_player.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Entry of a playlist's items page or of the user's saved tracks page
+ */
+public class SpotifyPlaylistItem {
+    
+    @JsonProperty("added_at")
+    private String addedAt;
+    
+    private SpotifyTrack track;
+
+    // Constructors
+    public SpotifyPlaylistItem() {}
+
+    // Getters and Setters
+    public String getAddedAt() {
+        return addedAt;
+    }
+
+    public void setAddedAt(String addedAt) {
+        this.addedAt = addedAt;
+    }
+
+    public SpotifyTrack getTrack() {
+        return track;
+    }
+
+    public void setTrack(SpotifyTrack track) {
+        this.track = track;
+    }
+}
@@ -5,6 +5,9 @@ import java.util.List;
 public class SpotifySearchResponse {
     
     private TrackSearchResult tracks;
+    private SpotifyPaging<SpotifyTrack.SpotifyArtist> artists;
+    private SpotifyPaging<SpotifyTrack.SpotifyAlbum> albums;
+    private SpotifyPaging<SpotifyPlaylist> playlists;
 
     public TrackSearchResult getTracks() {
         return tracks;
@@ -14,6 +17,30 @@ public class SpotifySearchResponse {
         this.tracks = tracks;
     }
 
+    public SpotifyPaging<SpotifyTrack.SpotifyArtist> getArtists() {
+        return artists;
+    }
+
+    public void setArtists(SpotifyPaging<SpotifyTrack.SpotifyArtist> artists) {
+        this.artists = artists;
+    }
+
+    public SpotifyPaging<SpotifyTrack.SpotifyAlbum> getAlbums() {
+        return albums;
+    }
+
+    public void setAlbums(SpotifyPaging<SpotifyTrack.SpotifyAlbum> albums) {
+        this.albums = albums;
+    }
+
+    public SpotifyPaging<SpotifyPlaylist> getPlaylists() {
+        return playlists;
+    }
+
+    public void setPlaylists(SpotifyPaging<SpotifyPlaylist> playlists) {
+        this.playlists = playlists;
+    }
+
     public static class TrackSearchResult {
         private String href;
         private List<SpotifyTrack> items;
@@ -0,0 +1,103 @@
+package com.example.music_player.dto;
+
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+
+import java.util.List;
+
+/**
+ * One section of a multi-type search: the items of a single type (track, artist, album or
+ * playlist). Sections are streamed independently as each becomes available. Each type has its
+ * own subclass, selected by the type property, so a section survives a round trip through a
+ * serializing cache tier with its items typed.
+ */
+@JsonTypeInfo(use = JsonTypeInfo.Id.NAME, include = JsonTypeInfo.As.EXISTING_PROPERTY, property = "type",
+        visible = true)
+@JsonSubTypes({
+        @JsonSubTypes.Type(value = SpotifySearchSection.Tracks.class, name = "track"),
+        @JsonSubTypes.Type(value = SpotifySearchSection.Artists.class, name = "artist"),
+        @JsonSubTypes.Type(value = SpotifySearchSection.Albums.class, name = "album"),
+        @JsonSubTypes.Type(value = SpotifySearchSection.Playlists.class, name = "playlist")
+})
+public abstract class SpotifySearchSection<T> {
+
+    private String type;
+    private List<T> items;
+    private int total;
+
+    // Constructors
+    protected SpotifySearchSection(String type) {
+        this.type = type;
+    }
+
+    protected SpotifySearchSection(String type, List<T> items, int total) {
+        this.type = type;
+        this.items = items;
+        this.total = total;
+    }
+
+    // Getters and Setters
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public static class Tracks extends SpotifySearchSection<SpotifyTrack> {
+        public Tracks() {
+            super("track");
+        }
+
+        public Tracks(List<SpotifyTrack> items, int total) {
+            super("track", items, total);
+        }
+    }
+
+    public static class Artists extends SpotifySearchSection<SpotifyTrack.SpotifyArtist> {
+        public Artists() {
+            super("artist");
+        }
+
+        public Artists(List<SpotifyTrack.SpotifyArtist> items, int total) {
+            super("artist", items, total);
+        }
+    }
+
+    public static class Albums extends SpotifySearchSection<SpotifyTrack.SpotifyAlbum> {
+        public Albums() {
+            super("album");
+        }
+
+        public Albums(List<SpotifyTrack.SpotifyAlbum> items, int total) {
+            super("album", items, total);
+        }
+    }
+
+    public static class Playlists extends SpotifySearchSection<SpotifyPlaylist> {
+        public Playlists() {
+            super("playlist");
+        }
+
+        public Playlists(List<SpotifyPlaylist> items, int total) {
+            super("playlist", items, total);
+        }
+    }
+}
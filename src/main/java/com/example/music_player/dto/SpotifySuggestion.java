@@ -0,0 +1,62 @@
+package com.example.music_player.dto;
+
+public class SpotifySuggestion {
+    
+    private String type;
+    private String id;
+    private String name;
+    private String uri;
+    private double score;
+
+    // Constructors
+    public SpotifySuggestion() {}
+
+    public SpotifySuggestion(String type, String id, String name, String uri, double score) {
+        this.type = type;
+        this.id = id;
+        this.name = name;
+        this.uri = uri;
+        this.score = score;
+    }
+
+    // Getters and Setters
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getUri() {
+        return uri;
+    }
+
+    public void setUri(String uri) {
+        this.uri = uri;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public void setScore(double score) {
+        this.score = score;
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.music_player.dto;
+
+import java.util.List;
+
+public class SpotifyTracksResponse {
+    
+    private List<SpotifyTrack> tracks;
+
+    public List<SpotifyTrack> getTracks() {
+        return tracks;
+    }
+
+    public void setTracks(List<SpotifyTrack> tracks) {
+        this.tracks = tracks;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.music_player.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class SpotifyUser {
+    
+    private String id;
+    
+    @JsonProperty("display_name")
+    private String displayName;
+    
+    private String uri;
+
+    // Constructors
+    public SpotifyUser() {}
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public void setDisplayName(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getUri() {
+        return uri;
+    }
+
+    public void setUri(String uri) {
+        this.uri = uri;
+    }
+}
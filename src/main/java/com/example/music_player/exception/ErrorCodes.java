@@ -0,0 +1,46 @@
+package com.example.music_player.exception;
+
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+/**
+ * The error code reported for a failure, the same wherever it is reported: the "error" field of
+ * HTTP error bodies, remote-control err replies and the failed parts of a playback command
+ */
+public final class ErrorCodes {
+
+    public static final String SERVICE_OVERLOADED = "SERVICE_OVERLOADED";
+    public static final String INVALID_ARGUMENT = "INVALID_ARGUMENT";
+    public static final String INTERNAL_SERVER_ERROR = "INTERNAL_SERVER_ERROR";
+
+    private ErrorCodes() {
+    }
+
+    /**
+     * Error class of a Spotify failure, or the code of a local one
+     */
+    public static String of(Throwable error) {
+        if (error instanceof SpotifyApiException spotifyError) {
+            // constructed directly with a custom code rather than classified
+            return spotifyError.getErrorClass() == SpotifyApiException.ErrorClass.UNKNOWN
+                    && spotifyError.getUpstreamStatus() == 0
+                    ? spotifyError.getErrorCode() : spotifyError.getErrorClass().name();
+        }
+        if (error instanceof WebClientResponseException responseError) {
+            return SpotifyApiException.from(responseError).getErrorClass().name();
+        }
+        if (error instanceof ServiceOverloadedException) {
+            return SERVICE_OVERLOADED;
+        }
+        if (error instanceof IllegalArgumentException) {
+            return INVALID_ARGUMENT;
+        }
+        return INTERNAL_SERVER_ERROR;
+    }
+
+    /**
+     * Whether {@link #of} reports the failure as an unexpected local error
+     */
+    public static boolean isUnexpected(Throwable error) {
+        return INTERNAL_SERVER_ERROR.equals(of(error));
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.music_player.exception;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rate-limited error logging for upstream failures. The first failure of each error class in
+ * an interval is logged as one line (with a stack trace only for UNKNOWN failures); the rest
+ * are counted and reported as a single summary line per interval. Fed only by the outbound
+ * clients, where each failure is classified, so every failed call is recorded exactly once.
+ */
+@Component
+public class ErrorLogAggregator {
+
+    private static final Logger logger = LoggerFactory.getLogger(ErrorLogAggregator.class);
+
+    private final Map<SpotifyApiException.ErrorClass, AtomicLong> counts =
+            new EnumMap<>(SpotifyApiException.ErrorClass.class);
+    private final Map<SpotifyApiException.ErrorClass, Counter> counters =
+            new EnumMap<>(SpotifyApiException.ErrorClass.class);
+
+    public ErrorLogAggregator(MeterRegistry meterRegistry) {
+        for (SpotifyApiException.ErrorClass errorClass : SpotifyApiException.ErrorClass.values()) {
+            counts.put(errorClass, new AtomicLong());
+            counters.put(errorClass, Counter.builder("spotify.upstream.errors")
+                    .description("Failed Spotify API calls per error class")
+                    .tag("class", errorClass.name())
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Record a failed upstream operation, e.g. record("search", error)
+     */
+    public void record(String operation, Throwable error) {
+        SpotifyApiException classified = SpotifyApiException.from(error);
+        SpotifyApiException.ErrorClass errorClass = classified.getErrorClass();
+        counters.get(errorClass).increment();
+        if (counts.get(errorClass).getAndIncrement() > 0) {
+            return;
+        }
+        if (errorClass == SpotifyApiException.ErrorClass.UNKNOWN) {
+            logger.error("Spotify {} failed", operation, error);
+        } else {
+            logger.warn("Spotify {} failed: {} (further {} errors are summarised)", operation,
+                    classified.getMessage(), errorClass);
+        }
+    }
+
+    /**
+     * Log counts per error class since the last report, then start a new interval
+     */
+    @Scheduled(fixedDelayString = "${spotify.errors.log-interval:30s}")
+    public void report() {
+        StringJoiner summary = new StringJoiner(", ");
+        long total = 0;
+        for (Map.Entry<SpotifyApiException.ErrorClass, AtomicLong> entry : counts.entrySet()) {
+            long count = entry.getValue().getAndSet(0);
+            if (count > 0) {
+                summary.add(entry.getKey() + "=" + count);
+                total += count;
+            }
+        }
+        if (total > 1) {
+            logger.warn("Spotify API errors in the last interval: {} ({} total)", summary, total);
+        }
+    }
+}
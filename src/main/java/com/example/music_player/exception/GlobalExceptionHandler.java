@@ -2,89 +2,109 @@ package com.example.music_player.exception;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.ErrorResponse;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
-import reactor.core.publisher.Mono;
 
-import java.time.LocalDateTime;
-import java.util.HashMap;
+import java.util.EnumMap;
 import java.util.Map;
 
+/**
+ * Error responses. Bodies for classified upstream errors, overload and unexpected failures
+ * are built once, so an error spike costs no per-request allocation beyond the response itself.
+ * Handlers return plain ResponseEntity values, which both the servlet and the reactive stack
+ * accept from exception handlers.
+ */
 @RestControllerAdvice
 public class GlobalExceptionHandler {
-    
+
     private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
-    
+
+    private static final Map<SpotifyApiException.ErrorClass, Map<String, Object>> SPOTIFY_ERROR_BODIES =
+            new EnumMap<>(SpotifyApiException.ErrorClass.class);
+    private static final Map<String, Object> OVERLOADED_BODY = errorBody(HttpStatus.SERVICE_UNAVAILABLE.value(),
+            ErrorCodes.SERVICE_OVERLOADED, "Too many concurrent requests, please retry later");
+    private static final Map<String, Object> INTERNAL_ERROR_BODY = errorBody(HttpStatus.INTERNAL_SERVER_ERROR.value(),
+            ErrorCodes.INTERNAL_SERVER_ERROR, "An unexpected error occurred");
+
+    static {
+        for (SpotifyApiException.ErrorClass errorClass : SpotifyApiException.ErrorClass.values()) {
+            SPOTIFY_ERROR_BODIES.put(errorClass,
+                    errorBody(errorClass.getHttpStatus().value(), errorClass.name(), errorClass.getMessage()));
+        }
+    }
+
     @ExceptionHandler(SpotifyApiException.class)
-    public Mono<ResponseEntity<Map<String, Object>>> handleSpotifyApiException(SpotifyApiException ex) {
-        logger.error("Spotify API error: {}", ex.getMessage(), ex);
-        
-        Map<String, Object> errorResponse = new HashMap<>();
-        errorResponse.put("timestamp", LocalDateTime.now());
-        errorResponse.put("status", ex.getStatusCode());
-        errorResponse.put("error", ex.getErrorCode());
-        errorResponse.put("message", ex.getMessage());
-        errorResponse.put("path", "/api/spotify");
-        
-        return Mono.just(ResponseEntity.status(ex.getStatusCode()).body(errorResponse));
+    public ResponseEntity<Map<String, Object>> handleSpotifyApiException(SpotifyApiException ex) {
+        if (ex.getErrorClass() == SpotifyApiException.ErrorClass.UNKNOWN && ex.getUpstreamStatus() == 0) {
+            // constructed directly with a custom message and status
+            logger.error("Spotify API error: {}", ex.getMessage(), ex);
+            return ResponseEntity.status(ex.getStatusCode()).body(errorBody(
+                    ex.getStatusCode(), ErrorCodes.of(ex), String.valueOf(ex.getMessage())));
+        }
+        // already recorded by the client that classified it
+        return spotifyError(ex);
     }
-    
+
     @ExceptionHandler(WebClientResponseException.class)
-    public Mono<ResponseEntity<Map<String, Object>>> handleWebClientResponseException(WebClientResponseException ex) {
-        logger.error("WebClient error: {} - Status: {} - Body: {}", 
-                   ex.getMessage(), ex.getStatusCode(), ex.getResponseBodyAsString(), ex);
-        
-        Map<String, Object> errorResponse = new HashMap<>();
-        errorResponse.put("timestamp", LocalDateTime.now());
-        errorResponse.put("status", ex.getStatusCode().value());
-        errorResponse.put("error", "EXTERNAL_API_ERROR");
-        errorResponse.put("message", getSpotifyErrorMessage(ex));
-        errorResponse.put("path", "/api/spotify");
-        
-        return Mono.just(ResponseEntity.status(ex.getStatusCode()).body(errorResponse));
+    public ResponseEntity<Map<String, Object>> handleWebClientResponseException(WebClientResponseException ex) {
+        logger.warn("Unclassified upstream error: {}", ex.getMessage());
+        return spotifyError(SpotifyApiException.from(ex));
+    }
+
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<Map<String, Object>> handleServiceOverloadedException(ServiceOverloadedException ex) {
+        logger.debug("Shedding request: {}", ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(OVERLOADED_BODY);
     }
-    
+
     @ExceptionHandler(IllegalArgumentException.class)
-    public Mono<ResponseEntity<Map<String, Object>>> handleIllegalArgumentException(IllegalArgumentException ex) {
-        logger.error("Invalid argument: {}", ex.getMessage(), ex);
-        
-        Map<String, Object> errorResponse = new HashMap<>();
-        errorResponse.put("timestamp", LocalDateTime.now());
-        errorResponse.put("status", HttpStatus.BAD_REQUEST.value());
-        errorResponse.put("error", "INVALID_ARGUMENT");
-        errorResponse.put("message", ex.getMessage());
-        errorResponse.put("path", "/api/spotify");
-        
-        return Mono.just(ResponseEntity.badRequest().body(errorResponse));
+    public ResponseEntity<Map<String, Object>> handleIllegalArgumentException(IllegalArgumentException ex) {
+        logger.debug("Invalid argument: {}", ex.getMessage());
+
+        return ResponseEntity.badRequest()
+                .body(errorBody(HttpStatus.BAD_REQUEST.value(), ErrorCodes.of(ex), String.valueOf(ex.getMessage())));
     }
-    
+
     @ExceptionHandler(Exception.class)
-    public Mono<ResponseEntity<Map<String, Object>>> handleGenericException(Exception ex) {
+    public ResponseEntity<Map<String, Object>> handleGenericException(Exception ex) {
+        if (ex instanceof ErrorResponse errorResponse) {
+            // framework exceptions that already carry their status and headers, e.g. Allow on a 405
+            ProblemDetail problem = errorResponse.getBody();
+            String error = problem.getTitle() != null ? problem.getTitle() : errorResponse.getStatusCode().toString();
+            return ResponseEntity.status(errorResponse.getStatusCode())
+                    .headers(errorResponse.getHeaders())
+                    .body(errorBody(errorResponse.getStatusCode().value(), error,
+                            problem.getDetail() != null ? problem.getDetail() : error));
+        }
+        // a local failure: logged here, never counted as an upstream error
         logger.error("Unexpected error: {}", ex.getMessage(), ex);
-        
-        Map<String, Object> errorResponse = new HashMap<>();
-        errorResponse.put("timestamp", LocalDateTime.now());
-        errorResponse.put("status", HttpStatus.INTERNAL_SERVER_ERROR.value());
-        errorResponse.put("error", "INTERNAL_SERVER_ERROR");
-        errorResponse.put("message", "An unexpected error occurred");
-        errorResponse.put("path", "/api/spotify");
-        
-        return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse));
+
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(INTERNAL_ERROR_BODY);
+    }
+
+    private static ResponseEntity<Map<String, Object>> spotifyError(SpotifyApiException ex) {
+        SpotifyApiException.ErrorClass errorClass = ex.getErrorClass();
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(errorClass.getHttpStatus());
+        if (ex.getRetryAfterSeconds() > 0) {
+            response.header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()));
+        }
+        return response.body(SPOTIFY_ERROR_BODIES.get(errorClass));
     }
-    
-    private String getSpotifyErrorMessage(WebClientResponseException ex) {
-        int statusCode = ex.getStatusCode().value();
-        
-        return switch (statusCode) {
-            case 401 -> "Authentication failed. Please check your Spotify credentials.";
-            case 403 -> "Access forbidden. Please ensure you have the required Spotify permissions.";
-            case 404 -> "Requested Spotify resource not found.";
-            case 429 -> "Rate limit exceeded. Please try again later.";
-            case 400 -> "Invalid request to Spotify API: " + ex.getResponseBodyAsString();
-            default -> "Spotify API error: " + ex.getMessage();
-        };
+
+    private static Map<String, Object> errorBody(int status, String error, String message) {
+        return Map.of(
+                "status", status,
+                "error", error,
+                "message", message,
+                "path", "/api/spotify");
     }
-}
\ No newline at end of file
+}
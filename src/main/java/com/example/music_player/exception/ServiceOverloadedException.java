@@ -0,0 +1,25 @@
+package com.example.music_player.exception;
+
+/**
+ * Thrown when an endpoint is saturated and the request is shed. Expected under load,
+ * so no stack trace is captured.
+ */
+public class ServiceOverloadedException extends RuntimeException {
+    
+    private final String endpoint;
+    private final long retryAfterSeconds;
+    
+    public ServiceOverloadedException(String endpoint, String reason, long retryAfterSeconds) {
+        super("Endpoint " + endpoint + " overloaded (" + reason + ")", null, false, false);
+        this.endpoint = endpoint;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    public String getEndpoint() {
+        return endpoint;
+    }
+    
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -1,39 +1,167 @@
 package com.example.music_player.exception;
 
+import io.netty.handler.timeout.ReadTimeoutException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.util.concurrent.TimeoutException;
+
 public class SpotifyApiException extends RuntimeException {
-    
+
+    /**
+     * Classified upstream failure. Everything but UNKNOWN is an expected outcome of talking to
+     * Spotify, so those exceptions are created without a stack trace.
+     */
+    public enum ErrorClass {
+        BAD_REQUEST(HttpStatus.BAD_REQUEST, "Invalid request to Spotify API."),
+        UNAUTHORIZED(HttpStatus.UNAUTHORIZED, "Authentication failed. Please check your Spotify credentials."),
+        FORBIDDEN(HttpStatus.FORBIDDEN, "Access forbidden. Please ensure you have the required Spotify permissions."),
+        NOT_FOUND(HttpStatus.NOT_FOUND, "Requested Spotify resource not found."),
+        NO_ACTIVE_DEVICE(HttpStatus.NOT_FOUND, "No active Spotify device found."),
+        RATE_LIMITED(HttpStatus.TOO_MANY_REQUESTS, "Rate limit exceeded. Please try again later."),
+        UPSTREAM_UNAVAILABLE(HttpStatus.BAD_GATEWAY, "Spotify API is currently unavailable."),
+        TIMEOUT(HttpStatus.GATEWAY_TIMEOUT, "Spotify API did not respond in time."),
+        CONNECTION(HttpStatus.BAD_GATEWAY, "Could not connect to Spotify API."),
+        DEADLINE_EXCEEDED(HttpStatus.GATEWAY_TIMEOUT, "The request's time budget ran out before Spotify answered."),
+        UNKNOWN(HttpStatus.INTERNAL_SERVER_ERROR, "Spotify API error.");
+
+        private final HttpStatus httpStatus;
+        private final String message;
+
+        ErrorClass(HttpStatus httpStatus, String message) {
+            this.httpStatus = httpStatus;
+            this.message = message;
+        }
+
+        public HttpStatus getHttpStatus() {
+            return httpStatus;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+
     private final int statusCode;
     private final String errorCode;
-    
+    private final ErrorClass errorClass;
+    private final int upstreamStatus;
+    private final long retryAfterSeconds;
+
     public SpotifyApiException(String message) {
         super(message);
         this.statusCode = 500;
         this.errorCode = "SPOTIFY_API_ERROR";
+        this.errorClass = ErrorClass.UNKNOWN;
+        this.upstreamStatus = 0;
+        this.retryAfterSeconds = 0;
     }
-    
+
     public SpotifyApiException(String message, int statusCode) {
         super(message);
         this.statusCode = statusCode;
         this.errorCode = "SPOTIFY_API_ERROR";
+        this.errorClass = ErrorClass.UNKNOWN;
+        this.upstreamStatus = 0;
+        this.retryAfterSeconds = 0;
     }
-    
+
     public SpotifyApiException(String message, int statusCode, String errorCode) {
         super(message);
         this.statusCode = statusCode;
         this.errorCode = errorCode;
+        this.errorClass = ErrorClass.UNKNOWN;
+        this.upstreamStatus = 0;
+        this.retryAfterSeconds = 0;
     }
-    
+
     public SpotifyApiException(String message, Throwable cause) {
         super(message, cause);
         this.statusCode = 500;
         this.errorCode = "SPOTIFY_API_ERROR";
+        this.errorClass = ErrorClass.UNKNOWN;
+        this.upstreamStatus = 0;
+        this.retryAfterSeconds = 0;
+    }
+
+    public SpotifyApiException(ErrorClass errorClass, int upstreamStatus, long retryAfterSeconds, Throwable cause) {
+        super(errorClass.name() + (upstreamStatus > 0 ? " (HTTP " + upstreamStatus + ")" : ""), cause,
+                false, errorClass == ErrorClass.UNKNOWN);
+        this.statusCode = errorClass.getHttpStatus().value();
+        this.errorCode = errorClass.name();
+        this.errorClass = errorClass;
+        this.upstreamStatus = upstreamStatus;
+        this.retryAfterSeconds = retryAfterSeconds;
     }
-    
+
+    /**
+     * Classify an upstream response by status code and, for 404s, Spotify's error reason
+     */
+    public static SpotifyApiException fromResponse(int status, String body, String retryAfter) {
+        ErrorClass errorClass = switch (status) {
+            case 400 -> ErrorClass.BAD_REQUEST;
+            case 401 -> ErrorClass.UNAUTHORIZED;
+            case 403 -> ErrorClass.FORBIDDEN;
+            case 404 -> body != null && body.contains("NO_ACTIVE_DEVICE")
+                    ? ErrorClass.NO_ACTIVE_DEVICE : ErrorClass.NOT_FOUND;
+            case 429 -> ErrorClass.RATE_LIMITED;
+            default -> status >= 500 ? ErrorClass.UPSTREAM_UNAVAILABLE : ErrorClass.UNKNOWN;
+        };
+        return new SpotifyApiException(errorClass, status, parseRetryAfter(retryAfter), null);
+    }
+
+    /**
+     * Classify any failure of an upstream call; already classified exceptions are returned as is
+     */
+    public static SpotifyApiException from(Throwable error) {
+        if (error instanceof SpotifyApiException classified) {
+            return classified;
+        }
+        if (error instanceof WebClientResponseException response) {
+            return fromResponse(response.getStatusCode().value(), response.getResponseBodyAsString(),
+                    response.getHeaders().getFirst("Retry-After"));
+        }
+        if (error instanceof TimeoutException || error.getCause() instanceof ReadTimeoutException) {
+            return new SpotifyApiException(ErrorClass.TIMEOUT, 0, 0, error);
+        }
+        if (error instanceof WebClientRequestException) {
+            return new SpotifyApiException(ErrorClass.CONNECTION, 0, 0, error);
+        }
+        return new SpotifyApiException(ErrorClass.UNKNOWN, 0, 0, error);
+    }
+
     public int getStatusCode() {
         return statusCode;
     }
-    
+
     public String getErrorCode() {
         return errorCode;
     }
-}
\ No newline at end of file
+
+    public ErrorClass getErrorClass() {
+        return errorClass;
+    }
+
+    /**
+     * HTTP status Spotify answered with, or 0 when no response was received
+     */
+    public int getUpstreamStatus() {
+        return upstreamStatus;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    private static long parseRetryAfter(String retryAfter) {
+        if (retryAfter == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(retryAfter.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
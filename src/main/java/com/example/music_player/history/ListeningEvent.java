@@ -0,0 +1,81 @@
+package com.example.music_player.history;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One entry of the listening history. Command events are appended as the command succeeds,
+ * with only the track URI; a TRACK event (no user) carries the track's name, artists and
+ * duration once they are looked up, so that statistics can be rebuilt from the log alone.
+ */
+public record ListeningEvent(long timestamp, Type type, String userId, String trackUri, String trackName,
+                             List<String> artists, int durationMs) {
+
+    public enum Type {
+        PLAY, PAUSE, RESUME, SKIP, TRACK
+    }
+
+    /**
+     * Compact binary form stored in the event log
+     */
+    public byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(timestamp);
+            out.writeByte(type.ordinal());
+            writeString(out, userId);
+            writeString(out, trackUri);
+            writeString(out, trackName);
+            out.writeInt(durationMs);
+            out.writeShort(artists.size());
+            for (String artist : artists) {
+                writeString(out, artist);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static ListeningEvent decode(ByteBuffer buffer) {
+        long timestamp = buffer.getLong();
+        Type type = Type.values()[buffer.get()];
+        String userId = readString(buffer);
+        String trackUri = readString(buffer);
+        String trackName = readString(buffer);
+        int durationMs = buffer.getInt();
+        int artistCount = buffer.getShort();
+        List<String> artists = new ArrayList<>(artistCount);
+        for (int i = 0; i < artistCount; i++) {
+            artists.add(readString(buffer));
+        }
+        return new ListeningEvent(timestamp, type, userId, trackUri, trackName, List.copyOf(artists), durationMs);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeShort(-1);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(utf8.length, Short.MAX_VALUE);
+        out.writeShort(length);
+        out.write(utf8, 0, length);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] utf8 = new byte[length];
+        buffer.get(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+}
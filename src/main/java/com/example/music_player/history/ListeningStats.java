@@ -0,0 +1,159 @@
+package com.example.music_player.history;
+
+import com.example.music_player.dto.ListeningStatsView;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-user listening aggregates, updated one event at a time so a stats request never scans
+ * the history. Listening time is the time a track was actually playing (pauses excluded),
+ * capped at the track's duration, and is credited when the next play, skip or pause arrives.
+ * Track names, artists and durations come from TRACK events, which may arrive after the plays
+ * they describe; they are joined in when a view is built.
+ */
+public class ListeningStats {
+
+    private final ConcurrentHashMap<String, UserStats> users = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, TrackInfo> tracks = new ConcurrentHashMap<>();
+
+    public void apply(ListeningEvent event) {
+        if (event.trackUri() != null && (event.trackName() != null || !event.artists().isEmpty())) {
+            // TRACK events, and play events written before metadata moved to its own event
+            tracks.put(event.trackUri(), new TrackInfo(event.trackName(), event.artists(), event.durationMs()));
+        }
+        if (event.type() != ListeningEvent.Type.TRACK) {
+            users.computeIfAbsent(event.userId(), id -> new UserStats()).apply(event, tracks);
+        }
+    }
+
+    /**
+     * Whether metadata of the track has been seen, so it need not be looked up again
+     */
+    public boolean knowsTrack(String trackUri) {
+        return tracks.containsKey(trackUri);
+    }
+
+    /**
+     * Totals and the most played tracks and artists of a user, including the track playing now
+     */
+    public ListeningStatsView view(String userId, int limit, long now) {
+        UserStats stats = users.get(userId);
+        ListeningStatsView view = new ListeningStatsView();
+        view.setUserId(userId);
+        if (stats == null) {
+            view.setTopTracks(List.of());
+            view.setTopArtists(List.of());
+            return view;
+        }
+        synchronized (stats) {
+            long pending = stats.pendingMs(now, tracks);
+            view.setPlays(stats.plays);
+            view.setSkips(stats.skips);
+            view.setListeningTimeMs(stats.listeningTimeMs + pending);
+
+            List<ListeningStatsView.Entry> topTracks = new ArrayList<>(stats.tracks.size());
+            Map<String, ListeningStatsView.Entry> artists = new HashMap<>();
+            for (Map.Entry<String, Counter> entry : stats.tracks.entrySet()) {
+                Counter counter = entry.getValue();
+                long listened = counter.listeningTimeMs + (entry.getKey().equals(stats.currentTrack) ? pending : 0);
+                TrackInfo info = tracks.getOrDefault(entry.getKey(), TrackInfo.UNKNOWN);
+                topTracks.add(new ListeningStatsView.Entry(entry.getKey(), info.name(), counter.plays, listened));
+                for (String artist : info.artists()) {
+                    ListeningStatsView.Entry total = artists.computeIfAbsent(artist,
+                            name -> new ListeningStatsView.Entry(name, name, 0, 0));
+                    total.setPlays(total.getPlays() + counter.plays);
+                    total.setListeningTimeMs(total.getListeningTimeMs() + listened);
+                }
+            }
+            view.setTopTracks(top(topTracks, limit));
+            view.setTopArtists(top(new ArrayList<>(artists.values()), limit));
+        }
+        return view;
+    }
+
+    private static List<ListeningStatsView.Entry> top(List<ListeningStatsView.Entry> entries, int limit) {
+        entries.sort((a, b) -> a.getPlays() != b.getPlays()
+                ? Long.compare(b.getPlays(), a.getPlays())
+                : Long.compare(b.getListeningTimeMs(), a.getListeningTimeMs()));
+        return entries.subList(0, Math.min(limit, entries.size()));
+    }
+
+    private record TrackInfo(String name, List<String> artists, int durationMs) {
+        static final TrackInfo UNKNOWN = new TrackInfo(null, List.of(), 0);
+    }
+
+    private static final class Counter {
+        private long plays;
+        private long listeningTimeMs;
+    }
+
+    private static final class UserStats {
+        private long plays;
+        private long skips;
+        private long listeningTimeMs;
+        private final Map<String, Counter> tracks = new HashMap<>();
+
+        // track currently playing or paused
+        private String currentTrack;
+        private long playedMs;
+        private long playingSince = -1;
+
+        synchronized void apply(ListeningEvent event, Map<String, TrackInfo> trackInfo) {
+            long at = event.timestamp();
+            switch (event.type()) {
+                case PLAY -> {
+                    finish(at, trackInfo);
+                    plays++;
+                    currentTrack = event.trackUri();
+                    playedMs = 0;
+                    playingSince = at;
+                    tracks.computeIfAbsent(currentTrack, uri -> new Counter()).plays++;
+                }
+                case SKIP -> {
+                    if (currentTrack != null) {
+                        skips++;
+                    }
+                    finish(at, trackInfo);
+                }
+                case PAUSE -> {
+                    if (playingSince >= 0) {
+                        playedMs += Math.max(0, at - playingSince);
+                        playingSince = -1;
+                    }
+                }
+                case RESUME -> {
+                    if (currentTrack != null && playingSince < 0) {
+                        playingSince = at;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Credit the listening time of the current track and forget it
+         */
+        private void finish(long at, Map<String, TrackInfo> trackInfo) {
+            if (currentTrack == null) {
+                return;
+            }
+            long listened = pendingMs(at, trackInfo);
+            listeningTimeMs += listened;
+            tracks.get(currentTrack).listeningTimeMs += listened;
+            currentTrack = null;
+            playingSince = -1;
+        }
+
+        private long pendingMs(long at, Map<String, TrackInfo> trackInfo) {
+            if (currentTrack == null) {
+                return 0;
+            }
+            long listened = playedMs + (playingSince >= 0 ? Math.max(0, at - playingSince) : 0);
+            int durationMs = trackInfo.getOrDefault(currentTrack, TrackInfo.UNKNOWN).durationMs();
+            return durationMs > 0 ? Math.min(listened, durationMs) : listened;
+        }
+    }
+}
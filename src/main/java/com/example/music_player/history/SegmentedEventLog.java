@@ -0,0 +1,200 @@
+package com.example.music_player.history;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of opaque records split into fixed-size, memory-mapped segment files.
+ * Appends are plain memory writes; the written range is forced to disk once every
+ * {@code forceEvery} records, or whenever {@link #force()} is called, so the cost of an fsync
+ * is shared by a batch of appends. Each record is framed as length, CRC32C and payload; a zero
+ * length marks the end of a segment and a torn record at the tail is discarded on open. Only
+ * the newest {@code retainedSegments} segments are kept; older ones are deleted as the log rolls.
+ */
+public class SegmentedEventLog implements Closeable {
+
+    private static final int HEADER_BYTES = 8;
+    private static final String SUFFIX = ".log";
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final int forceEvery;
+    private final int retainedSegments;
+    private long segmentIndex;
+    private MappedByteBuffer active;
+    private int forcedUpTo;
+    private int unforced;
+
+    public SegmentedEventLog(Path directory, int segmentBytes, int forceEvery) throws IOException {
+        this(directory, segmentBytes, forceEvery, 0);
+    }
+
+    /**
+     * A log keeping at most retainedSegments segment files, or every segment when it is 0
+     */
+    public SegmentedEventLog(Path directory, int segmentBytes, int forceEvery, int retainedSegments)
+            throws IOException {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.forceEvery = Math.max(1, forceEvery);
+        this.retainedSegments = retainedSegments;
+        Files.createDirectories(directory);
+        List<Path> segments = segments();
+        if (segments.isEmpty()) {
+            open(0);
+        } else {
+            Path last = segments.get(segments.size() - 1);
+            open(index(last));
+            active.position(recover(active));
+            forcedUpTo = active.position();
+        }
+        prune();
+    }
+
+    /**
+     * Append one record, rolling to a new segment when the active one is full
+     */
+    public synchronized void append(byte[] payload) throws IOException {
+        if (payload.length + HEADER_BYTES > segmentBytes) {
+            throw new IllegalArgumentException("Record of " + payload.length + " bytes exceeds the segment size");
+        }
+        if (active.remaining() < payload.length + HEADER_BYTES) {
+            force();
+            open(segmentIndex + 1);
+            prune();
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        active.putInt(payload.length);
+        active.putInt((int) crc.getValue());
+        active.put(payload);
+        if (++unforced >= forceEvery) {
+            force();
+        }
+    }
+
+    /**
+     * Flush appended records that have not been forced to disk yet
+     */
+    public synchronized void force() {
+        int position = active.position();
+        if (position > forcedUpTo) {
+            active.force(forcedUpTo, position - forcedUpTo);
+            forcedUpTo = position;
+        }
+        unforced = 0;
+    }
+
+    /**
+     * Feed every intact record, oldest first, to the consumer. Each buffer is positioned at
+     * the start of the payload and limited to its end.
+     */
+    public void replay(Consumer<ByteBuffer> consumer) throws IOException {
+        for (Path segment : segments()) {
+            try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+                ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                int position = 0;
+                int length;
+                while ((length = validRecordLength(buffer, position)) >= 0) {
+                    ByteBuffer payload = buffer.duplicate();
+                    payload.position(position + HEADER_BYTES).limit(position + HEADER_BYTES + length);
+                    consumer.accept(payload.slice());
+                    position += HEADER_BYTES + length;
+                }
+            }
+        }
+    }
+
+    public int segmentCount() throws IOException {
+        return segments().size();
+    }
+
+    @Override
+    public synchronized void close() {
+        force();
+    }
+
+    private void open(long index) throws IOException {
+        Path file = directory.resolve(String.format("%020d%s", index, SUFFIX));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            active = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        }
+        segmentIndex = index;
+        forcedUpTo = 0;
+        unforced = 0;
+    }
+
+    /**
+     * Find the end of the last intact record and clear whatever a crash left behind it
+     */
+    private static int recover(ByteBuffer buffer) {
+        int position = 0;
+        int length;
+        while ((length = validRecordLength(buffer, position)) >= 0) {
+            position += HEADER_BYTES + length;
+        }
+        if (buffer.limit() - position >= 4) {
+            int tornLength = buffer.getInt(position);
+            int end = tornLength > 0 ? Math.min(buffer.limit(), position + HEADER_BYTES + tornLength) : position;
+            for (int i = position; i < end; i++) {
+                buffer.put(i, (byte) 0);
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Payload length of the record at the given position, or -1 at the end of the segment
+     */
+    private static int validRecordLength(ByteBuffer buffer, int position) {
+        if (buffer.limit() - position < HEADER_BYTES) {
+            return -1;
+        }
+        int length = buffer.getInt(position);
+        if (length <= 0 || length > buffer.limit() - position - HEADER_BYTES) {
+            return -1;
+        }
+        ByteBuffer payload = buffer.duplicate();
+        payload.position(position + HEADER_BYTES).limit(position + HEADER_BYTES + length);
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        return (int) crc.getValue() == buffer.getInt(position + 4) ? length : -1;
+    }
+
+    /**
+     * Delete the oldest segments beyond the retained count; the active segment is always kept
+     */
+    private void prune() throws IOException {
+        if (retainedSegments <= 0) {
+            return;
+        }
+        List<Path> segments = segments();
+        for (int i = 0; i < segments.size() - retainedSegments; i++) {
+            Files.deleteIfExists(segments.get(i));
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static long index(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.music_player.service;
+
+import com.example.music_player.dto.SpotifyDevice;
+import com.example.music_player.dto.SpotifyDevicesResponse;
+import com.example.music_player.dto.SpotifyPlaybackState;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Last known playback device of each user, learned from player state, device lists and
+ * successful play and transfer commands. Playback commands target it explicitly instead of
+ * relying on Spotify's notion of an active device, which lapses after a while of inactivity.
+ */
+@Component
+public class ActiveDeviceTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(ActiveDeviceTracker.class);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    private final ConcurrentHashMap<String, String> devices = new ConcurrentHashMap<>();
+
+    public String lastDevice(String userId) {
+        return userId != null ? devices.get(userId) : null;
+    }
+
+    public void remember(String userId, String deviceId) {
+        if (userId != null && deviceId != null) {
+            devices.put(userId, deviceId);
+        }
+    }
+
+    /**
+     * Drop the device if it is still the one on record, e.g. after Spotify no longer knows it
+     */
+    public void forget(String userId, String deviceId) {
+        if (userId != null && deviceId != null) {
+            devices.remove(userId, deviceId);
+        }
+    }
+
+    /**
+     * Pick the user's device from a device list: the active one, else the one already on
+     * record if it is still listed, else the first controllable one
+     */
+    public String observeDevices(String userId, List<SpotifyDevice> available) {
+        String known = lastDevice(userId);
+        SpotifyDevice chosen = null;
+        for (SpotifyDevice device : available) {
+            if (device.isRestricted() || device.getId() == null) {
+                continue;
+            }
+            if (device.isActive()) {
+                chosen = device;
+                break;
+            }
+            if (chosen == null || device.getId().equals(known)) {
+                chosen = device;
+            }
+        }
+        if (chosen == null) {
+            forget(userId, known);
+            return null;
+        }
+        remember(userId, chosen.getId());
+        return chosen.getId();
+    }
+
+    /**
+     * Same as {@link #observeDevices(String, List)} for a raw /me/player/devices body
+     */
+    public void observeDevices(String userId, String devicesJson) {
+        try {
+            SpotifyDevicesResponse response = MAPPER.readValue(devicesJson, SpotifyDevicesResponse.class);
+            if (response.getDevices() != null) {
+                observeDevices(userId, response.getDevices());
+            }
+        } catch (JsonProcessingException e) {
+            logger.debug("Could not read device list: {}", e.getOriginalMessage());
+        }
+    }
+
+    /**
+     * Record the device of a playback state; a state without an active device changes nothing
+     */
+    public void observePlayback(String userId, SpotifyPlaybackState state) {
+        if (state != null && state.getDevice() != null && state.getDevice().isActive()) {
+            remember(userId, state.getDevice().getId());
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.music_player.service;
+
+import com.example.music_player.config.SpotifyConfig;
+import com.example.music_player.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded concurrency per controller endpoint: at most max-concurrent requests run, up to
+ * max-queue wait for at most max-queue-wait, and everything beyond that is rejected at once
+ * with {@link ServiceOverloadedException} (503 + Retry-After).
+ */
+@Service
+public class EndpointConcurrencyLimiter {
+
+    private final SpotifyConfig.Limits limits;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+
+    public EndpointConcurrencyLimiter(SpotifyConfig spotifyConfig, MeterRegistry meterRegistry) {
+        this.limits = spotifyConfig.getLimits();
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Run the work under the endpoint's limit. The work is only subscribed once a slot is free.
+     */
+    public <T> Mono<T> limit(String endpoint, Mono<T> work) {
+        return bulkhead(endpoint).run(work);
+    }
+
+    /**
+     * Run a streamed response under the endpoint's limit; the slot is held until the stream ends.
+     */
+    public <T> Flux<T> limitMany(String endpoint, Flux<T> work) {
+        return bulkhead(endpoint).runMany(work);
+    }
+
+    private Bulkhead bulkhead(String endpoint) {
+        return bulkheads.computeIfAbsent(endpoint,
+                name -> new Bulkhead(name, limits.forEndpoint(name), meterRegistry));
+    }
+
+    private static final class Bulkhead extends PermitQueue<String> {
+        private final String endpoint;
+        private final int maxQueue;
+        private final long retryAfterSeconds;
+        private final ArrayDeque<Waiter<String>> waiters = new ArrayDeque<>();
+
+        private Bulkhead(String endpoint, SpotifyConfig.Limit limit, MeterRegistry registry) {
+            super(limit.getMaxConcurrent(), limit.getMaxQueueWait(),
+                    Timer.builder("spotify.endpoint.queue.time")
+                            .description("Time requests wait for an endpoint slot")
+                            .tag("endpoint", endpoint)
+                            .publishPercentiles(0.5, 0.99)
+                            .register(registry),
+                    rejected(registry, endpoint, "queue_full"),
+                    rejected(registry, endpoint, "queue_timeout"));
+            this.endpoint = endpoint;
+            this.maxQueue = limit.getMaxQueue();
+            this.retryAfterSeconds = Math.max(1, limit.getRetryAfter().toSeconds());
+            Gauge.builder("spotify.endpoint.in.flight", this, bulkhead -> bulkhead.inFlight())
+                    .tag("endpoint", endpoint)
+                    .register(registry);
+            Gauge.builder("spotify.endpoint.queued", this, bulkhead -> bulkhead.queued())
+                    .tag("endpoint", endpoint)
+                    .register(registry);
+        }
+
+        private static Counter rejected(MeterRegistry registry, String endpoint, String reason) {
+            return Counter.builder("spotify.endpoint.rejected")
+                    .tag("endpoint", endpoint)
+                    .tag("reason", reason)
+                    .register(registry);
+        }
+
+        <T> Mono<T> run(Mono<T> work) {
+            return run(endpoint, work);
+        }
+
+        <T> Flux<T> runMany(Flux<T> work) {
+            return runMany(endpoint, work);
+        }
+
+        @Override
+        protected boolean hasWaiters() {
+            return !waiters.isEmpty();
+        }
+
+        @Override
+        protected boolean enqueue(Waiter<String> waiter) {
+            return waiters.size() < maxQueue && waiters.add(waiter);
+        }
+
+        @Override
+        protected void remove(Waiter<String> waiter) {
+            waiters.remove(waiter);
+        }
+
+        @Override
+        protected Waiter<String> poll() {
+            return waiters.poll();
+        }
+
+        private synchronized int queued() {
+            return waiters.size();
+        }
+
+        @Override
+        protected ServiceOverloadedException overloaded(String reason) {
+            return new ServiceOverloadedException(endpoint, reason, retryAfterSeconds);
+        }
+    }
+}
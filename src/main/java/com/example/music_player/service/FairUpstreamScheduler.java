@@ -0,0 +1,245 @@
+package com.example.music_player.service;
+
+import com.example.music_player.config.SpotifyConfig;
+import com.example.music_player.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.security.Principal;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Fair share of the metadata lane across callers. Up to max-concurrent calls run at once;
+ * beyond that each caller waits in its own bounded queue and the queues are served weighted
+ * round-robin, so a client flooding search or track lookups only delays itself. A caller is
+ * identified by its Spotify user once a bearer token has been confirmed by Spotify, else by a
+ * hash of its token, which a client can only present if it holds it, else by its address, and
+ * is carried in the Reactor Context; calls made outside a request count as "background". The
+ * authenticated principal only selects a configured client weight and never merges callers.
+ * Calls beyond a caller's queue, or waiting longer than max-queue-wait, fail with
+ * {@link ServiceOverloadedException}.
+ */
+@Service
+public class FairUpstreamScheduler {
+
+    /**
+     * Reactor Context key of the caller
+     */
+    public static final String CALLER = FairUpstreamScheduler.class.getName() + ".caller";
+
+    /**
+     * Reactor Context key of the authenticated principal name, whose client weight applies
+     */
+    public static final String CLIENT = FairUpstreamScheduler.class.getName() + ".client";
+
+    private static final String BACKGROUND = "background";
+    private static final String ANONYMOUS = "anonymous";
+
+    private final SpotifyConfig.Fairness settings;
+    // looked up lazily: the API service's own metadata client is built with this scheduler
+    private final ObjectProvider<SpotifyApiService> spotifyApiService;
+    private final FairQueue queue;
+
+    public FairUpstreamScheduler(SpotifyConfig spotifyConfig, MeterRegistry meterRegistry,
+                                 ObjectProvider<SpotifyApiService> spotifyApiService) {
+        this.settings = spotifyConfig.getFairness();
+        this.spotifyApiService = spotifyApiService;
+        this.queue = new FairQueue(settings, meterRegistry);
+        Gauge.builder("spotify.fair.queued", queue, fairQueue -> fairQueue.queued())
+                .register(meterRegistry);
+        Gauge.builder("spotify.fair.callers", queue, fairQueue -> fairQueue.waitingCallers())
+                .description("Callers with queued metadata calls")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Caller key of a request: that of its bearer token, else its address
+     */
+    public String callerKey(String authHeader, String remoteAddress) {
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            return tokenCaller(authHeader.substring(7));
+        }
+        return remoteAddress != null ? "address:" + remoteAddress : ANONYMOUS;
+    }
+
+    /**
+     * Caller key of an access token: its Spotify user once resolved through Spotify, so all
+     * tokens of a user share one queue, else a hash of the token; the raw token is never kept
+     */
+    public String tokenCaller(String accessToken) {
+        SpotifyApiService api = spotifyApiService.getIfAvailable();
+        String userId = api != null ? api.cachedUserId(accessToken) : null;
+        return userId != null ? "user:" + userId : "token:" + SpotifyAuthService.tokenKey(accessToken);
+    }
+
+    /**
+     * Context entries identifying the caller of the current servlet request. Read now, on the
+     * request thread; under WebFlux the web filter has already put the caller in the context.
+     */
+    public Function<Context, Context> forRequest() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) {
+            return context -> context;
+        }
+        HttpServletRequest request = servletAttributes.getRequest();
+        String caller = callerKey(request.getHeader(HttpHeaders.AUTHORIZATION), request.getRemoteAddr());
+        Principal principal = request.getUserPrincipal();
+        return context -> context.hasKey(CALLER) ? context : withCaller(context, caller, principal);
+    }
+
+    /**
+     * Put the caller, and the principal whose client weight applies to it, into the context
+     */
+    public static Context withCaller(Context context, String caller, Principal principal) {
+        Context withCaller = context.put(CALLER, caller);
+        return principal != null && principal.getName() != null ? withCaller.put(CLIENT, principal.getName()) : withCaller;
+    }
+
+    /**
+     * Outbound filter: each call waits for its caller's turn and holds its slot until Spotify answers
+     */
+    public ExchangeFilterFunction outbound() {
+        return (request, next) -> Mono.deferContextual(context -> {
+            String caller = context.getOrDefault(CALLER, BACKGROUND);
+            return queue.run(new Caller(caller, weight(caller, context.getOrDefault(CLIENT, null))),
+                    Mono.defer(() -> next.exchange(request)));
+        });
+    }
+
+    private int weight(String caller, String client) {
+        if (BACKGROUND.equals(caller)) {
+            return Math.max(1, settings.getBackgroundWeight());
+        }
+        return client != null ? settings.weightOfClient(client) : Math.max(1, settings.getDefaultWeight());
+    }
+
+    private record Caller(String key, int weight) {
+    }
+
+    /**
+     * One bounded queue per caller; the ring holds callers with waiting calls in service order
+     */
+    private static final class FairQueue extends PermitQueue<Caller> {
+        private final int maxQueuePerCaller;
+        private final long retryAfterSeconds;
+        private final Map<String, CallerQueue> queues = new HashMap<>();
+        private final ArrayDeque<CallerQueue> ring = new ArrayDeque<>();
+        private int queued;
+
+        private FairQueue(SpotifyConfig.Fairness settings, MeterRegistry registry) {
+            super(settings.getMaxConcurrent(), settings.getMaxQueueWait(),
+                    Timer.builder("spotify.fair.queue.time")
+                            .description("Time metadata calls wait for their caller's turn")
+                            .publishPercentiles(0.5, 0.99)
+                            .register(registry),
+                    rejected(registry, "queue_full"),
+                    rejected(registry, "queue_timeout"));
+            this.maxQueuePerCaller = settings.getMaxQueuePerCaller();
+            this.retryAfterSeconds = Math.max(1, settings.getRetryAfter().toSeconds());
+        }
+
+        private static Counter rejected(MeterRegistry registry, String reason) {
+            return Counter.builder("spotify.fair.rejected")
+                    .tag("reason", reason)
+                    .register(registry);
+        }
+
+        @Override
+        protected boolean hasWaiters() {
+            return !ring.isEmpty();
+        }
+
+        @Override
+        protected boolean enqueue(Waiter<Caller> waiter) {
+            Caller caller = waiter.key();
+            CallerQueue queue = queues.get(caller.key());
+            if ((queue != null ? queue.waiters.size() : 0) >= maxQueuePerCaller) {
+                return false;
+            }
+            if (queue == null) {
+                queue = new CallerQueue(caller.key(), caller.weight());
+                queues.put(caller.key(), queue);
+                ring.addLast(queue);
+            }
+            queue.waiters.addLast(waiter);
+            queued++;
+            return true;
+        }
+
+        @Override
+        protected void remove(Waiter<Caller> waiter) {
+            CallerQueue queue = queues.get(waiter.key().key());
+            if (queue != null && queue.waiters.remove(waiter)) {
+                queued--;
+                if (queue.waiters.isEmpty()) {
+                    ring.remove(queue);
+                    queues.remove(queue.caller, queue);
+                }
+            }
+        }
+
+        /**
+         * Weighted round-robin: the caller at the head of the ring is served up to its weight in
+         * calls before it moves to the back
+         */
+        @Override
+        protected Waiter<Caller> poll() {
+            CallerQueue queue = ring.peekFirst();
+            if (queue == null) {
+                return null;
+            }
+            Waiter<Caller> waiter = queue.waiters.pollFirst();
+            queued--;
+            if (queue.waiters.isEmpty() || ++queue.served >= queue.weight) {
+                ring.pollFirst();
+                queue.served = 0;
+                if (queue.waiters.isEmpty()) {
+                    queues.remove(queue.caller, queue);
+                } else {
+                    ring.addLast(queue);
+                }
+            }
+            return waiter;
+        }
+
+        private synchronized int queued() {
+            return queued;
+        }
+
+        private synchronized int waitingCallers() {
+            return ring.size();
+        }
+
+        @Override
+        protected ServiceOverloadedException overloaded(String reason) {
+            return new ServiceOverloadedException("upstream", reason, retryAfterSeconds);
+        }
+    }
+
+    private static final class CallerQueue {
+        private final String caller;
+        private final int weight;
+        private final ArrayDeque<PermitQueue.Waiter<Caller>> waiters = new ArrayDeque<>();
+        private int served;
+
+        private CallerQueue(String caller, int weight) {
+            this.caller = caller;
+            this.weight = weight;
+        }
+    }
+}
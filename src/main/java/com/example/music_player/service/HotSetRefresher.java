@@ -0,0 +1,171 @@
+package com.example.music_player.service;
+
+import com.example.music_player.config.SpotifyConfig;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps the hottest search results and tracks warm. Entries in the top-K are re-fetched shortly
+ * before they expire, and the hot set is snapshotted to disk so a freshly started node can
+ * load it before the first request arrives.
+ */
+@Service
+public class HotSetRefresher {
+
+    private static final Logger logger = LoggerFactory.getLogger(HotSetRefresher.class);
+
+    private static final String SEARCH = "search";
+    private static final String TRACK = "track";
+
+    private final QueryPopularityTracker popularity;
+    private final SpotifyApiService spotifyApiService;
+    private final Duration refreshAhead;
+    private final int refreshConcurrency;
+    private final Path snapshotFile;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    public HotSetRefresher(QueryPopularityTracker popularity, SpotifyApiService spotifyApiService,
+                           SpotifyConfig spotifyConfig) {
+        this.popularity = popularity;
+        this.spotifyApiService = spotifyApiService;
+        this.refreshAhead = spotifyConfig.getPopularity().getRefreshAhead();
+        this.refreshConcurrency = spotifyConfig.getPopularity().getRefreshConcurrency();
+        String file = spotifyConfig.getPopularity().getSnapshotFile();
+        this.snapshotFile = file != null && !file.isBlank() ? Paths.get(file) : null;
+    }
+
+    /**
+     * Re-fetch hot entries that expire within the refresh-ahead window. Hot entries missing
+     * from this node are loaded through the cache, so a shared-tier copy is used when present.
+     */
+    @Scheduled(fixedDelayString = "${spotify.popularity.refresh-interval:30s}",
+            initialDelayString = "${spotify.popularity.refresh-interval:30s}")
+    public void refreshAhead() {
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        List<Mono<Void>> tasks = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : popularity.hotSearches()) {
+            Duration remaining = spotifyApiService.remainingSearchTtl(entry.getKey());
+            if (remaining.compareTo(refreshAhead) < 0) {
+                tasks.add(spotifyApiService.preloadSearch(entry.getKey(), !remaining.isZero()));
+            }
+        }
+        for (Map.Entry<String, Long> entry : popularity.hotTracks()) {
+            Duration remaining = spotifyApiService.remainingTrackTtl(entry.getKey());
+            if (remaining.compareTo(refreshAhead) < 0) {
+                tasks.add(spotifyApiService.preloadTrack(entry.getKey(), !remaining.isZero()));
+            }
+        }
+        run(tasks)
+                .doFinally(signal -> refreshing.set(false))
+                .subscribe(refreshed -> {
+                    if (refreshed > 0) {
+                        logger.debug("Refreshed {} hot cache entries ahead of expiry", refreshed);
+                    }
+                });
+    }
+
+    /**
+     * Halve popularity counts so yesterday's hits make room for today's
+     */
+    @Scheduled(fixedDelayString = "${spotify.popularity.decay-interval:10m}",
+            initialDelayString = "${spotify.popularity.decay-interval:10m}")
+    public void decay() {
+        popularity.decay();
+    }
+
+    /**
+     * Persist the hot set periodically and on shutdown
+     */
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${spotify.popularity.snapshot-interval:5m}",
+            initialDelayString = "${spotify.popularity.snapshot-interval:5m}")
+    public void writeSnapshot() {
+        if (snapshotFile == null) {
+            return;
+        }
+        List<String> lines = new ArrayList<>();
+        popularity.hotSearches().forEach(entry -> addLine(lines, SEARCH, entry));
+        popularity.hotTracks().forEach(entry -> addLine(lines, TRACK, entry));
+        try {
+            Files.createDirectories(snapshotFile.toAbsolutePath().getParent());
+            Path temp = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+            Files.write(temp, lines, StandardCharsets.UTF_8);
+            Files.move(temp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Could not write hot set snapshot to {}: {}", snapshotFile, e.toString());
+        }
+    }
+
+    /**
+     * Seed popularity from the last snapshot and load its entries before traffic arrives
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void prewarm() {
+        if (snapshotFile == null || !Files.isRegularFile(snapshotFile)) {
+            return;
+        }
+        List<Map.Entry<String, Long>> searches = new ArrayList<>();
+        List<Map.Entry<String, Long>> tracks = new ArrayList<>();
+        try {
+            for (String line : Files.readAllLines(snapshotFile, StandardCharsets.UTF_8)) {
+                String[] fields = line.split("\t", 3);
+                if (fields.length != 3) {
+                    continue;
+                }
+                Map.Entry<String, Long> entry = Map.entry(fields[2], Long.parseLong(fields[1]));
+                if (SEARCH.equals(fields[0])) {
+                    searches.add(entry);
+                } else if (TRACK.equals(fields[0])) {
+                    tracks.add(entry);
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            logger.warn("Ignoring unreadable hot set snapshot {}: {}", snapshotFile, e.toString());
+            return;
+        }
+        popularity.seed(searches, tracks);
+
+        List<Mono<Void>> tasks = new ArrayList<>();
+        searches.forEach(entry -> tasks.add(spotifyApiService.preloadSearch(entry.getKey(), false)));
+        tracks.forEach(entry -> tasks.add(spotifyApiService.preloadTrack(entry.getKey(), false)));
+        run(tasks).subscribe(warmed -> logger.info("Pre-warmed {} of {} hot cache entries from {}",
+                warmed, tasks.size(), snapshotFile));
+    }
+
+    /**
+     * Run loads with bounded concurrency; failures are skipped, the count of successes is emitted
+     */
+    private Mono<Long> run(List<Mono<Void>> tasks) {
+        return Flux.fromIterable(tasks)
+                .flatMap(task -> task.thenReturn(Boolean.TRUE).onErrorResume(error -> Mono.empty()),
+                        refreshConcurrency)
+                .count();
+    }
+
+    private static void addLine(List<String> lines, String kind, Map.Entry<String, Long> entry) {
+        if (entry.getKey().indexOf('\n') < 0 && entry.getKey().indexOf('\r') < 0) {
+            lines.add(kind + "\t" + entry.getValue() + "\t" + entry.getKey());
+        }
+    }
+}
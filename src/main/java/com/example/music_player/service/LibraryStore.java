@@ -0,0 +1,84 @@
+package com.example.music_player.service;
+
+import com.example.music_player.dto.LocalPlaylist;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Local copy of users' playlists and saved tracks, maintained by {@link LibrarySyncService}
+ */
+@Component
+public class LibraryStore {
+
+    private final ConcurrentHashMap<String, UserLibrary> libraries = new ConcurrentHashMap<>();
+
+    public LocalPlaylist getPlaylist(String userId, String playlistId) {
+        return library(userId).playlists.get(playlistId);
+    }
+
+    public Collection<LocalPlaylist> getPlaylists(String userId) {
+        return List.copyOf(library(userId).playlists.values());
+    }
+
+    public void putPlaylist(String userId, LocalPlaylist playlist) {
+        library(userId).playlists.put(playlist.getId(), playlist);
+    }
+
+    /**
+     * Remove every playlist not in the given set, returning how many were removed
+     */
+    public int retainPlaylists(String userId, Set<String> playlistIds) {
+        Map<String, LocalPlaylist> playlists = library(userId).playlists;
+        int before = playlists.size();
+        playlists.keySet().retainAll(playlistIds);
+        return before - playlists.size();
+    }
+
+    /**
+     * Saved tracks (track URI to added_at), most recently saved first
+     */
+    public Map<String, String> getSavedTracks(String userId) {
+        UserLibrary library = library(userId);
+        synchronized (library.savedTracks) {
+            return new LinkedHashMap<>(library.savedTracks);
+        }
+    }
+
+    /**
+     * Prepend newly saved tracks (given most recent first)
+     */
+    public void addSavedTracks(String userId, Map<String, String> newest) {
+        UserLibrary library = library(userId);
+        synchronized (library.savedTracks) {
+            LinkedHashMap<String, String> merged = new LinkedHashMap<>(newest);
+            for (Map.Entry<String, String> entry : library.savedTracks.entrySet()) {
+                merged.putIfAbsent(entry.getKey(), entry.getValue());
+            }
+            library.savedTracks.clear();
+            library.savedTracks.putAll(merged);
+        }
+    }
+
+    public void replaceSavedTracks(String userId, Map<String, String> savedTracks) {
+        UserLibrary library = library(userId);
+        synchronized (library.savedTracks) {
+            library.savedTracks.clear();
+            library.savedTracks.putAll(savedTracks);
+        }
+    }
+
+    private UserLibrary library(String userId) {
+        return libraries.computeIfAbsent(userId, id -> new UserLibrary());
+    }
+
+    private static final class UserLibrary {
+        private final ConcurrentHashMap<String, LocalPlaylist> playlists = new ConcurrentHashMap<>();
+        private final LinkedHashMap<String, String> savedTracks = new LinkedHashMap<>();
+    }
+}
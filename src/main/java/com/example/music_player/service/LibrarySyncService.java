@@ -0,0 +1,266 @@
+package com.example.music_player.service;
+
+import com.example.music_player.config.SpotifyConfig;
+import com.example.music_player.dto.LibrarySyncResult;
+import com.example.music_player.dto.LocalPlaylist;
+import com.example.music_player.dto.SpotifyPaging;
+import com.example.music_player.dto.SpotifyPlaylist;
+import com.example.music_player.dto.SpotifyPlaylistItem;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Incremental sync of users' playlists and saved tracks into the {@link LibraryStore}.
+ * Playlists whose snapshot_id is unchanged are skipped without fetching their items, pages
+ * are only requested as fast as they are consumed, and deltas are applied on a bounded scheduler.
+ */
+@Service
+public class LibrarySyncService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LibrarySyncService.class);
+
+    private final SpotifyApiService spotifyApiService;
+    private final LibraryStore libraryStore;
+    private final int playlistConcurrency;
+    private final Scheduler syncScheduler;
+    private final ConcurrentHashMap<String, Mono<LibrarySyncResult>> running = new ConcurrentHashMap<>();
+
+    public LibrarySyncService(SpotifyApiService spotifyApiService, LibraryStore libraryStore,
+                              SpotifyConfig spotifyConfig) {
+        this.spotifyApiService = spotifyApiService;
+        this.libraryStore = libraryStore;
+        this.playlistConcurrency = spotifyConfig.getLibrary().getPlaylistConcurrency();
+        this.syncScheduler = Schedulers.newBoundedElastic(spotifyConfig.getLibrary().getSyncThreads(),
+                Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE, "library-sync");
+    }
+
+    /**
+     * Sync the library of the user owning the access token. A sync already running for the
+     * same user is joined rather than started twice.
+     */
+    public Mono<LibrarySyncResult> sync(String accessToken) {
+        return spotifyApiService.getCurrentUser(accessToken)
+                .flatMap(user -> running.computeIfAbsent(user.getId(), userId -> doSync(userId, accessToken)
+                        .doFinally(signal -> running.remove(userId))
+                        .cache()));
+    }
+
+    /**
+     * Locally synced playlists of the user owning the access token
+     */
+    public Mono<List<LocalPlaylist>> getPlaylists(String accessToken) {
+        return spotifyApiService.getCurrentUser(accessToken)
+                .map(user -> List.copyOf(libraryStore.getPlaylists(user.getId())));
+    }
+
+    /**
+     * Locally synced saved track URIs of the user owning the access token
+     */
+    public Mono<List<String>> getSavedTrackUris(String accessToken) {
+        return spotifyApiService.getCurrentUser(accessToken)
+                .map(user -> List.copyOf(libraryStore.getSavedTracks(user.getId()).keySet()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        syncScheduler.dispose();
+    }
+
+    private Mono<LibrarySyncResult> doSync(String userId, String accessToken) {
+        long started = System.nanoTime();
+        Counters counters = new Counters();
+        Set<String> seenPlaylists = ConcurrentHashMap.newKeySet();
+
+        Mono<Void> playlists = pages(url -> spotifyApiService.getPlaylistsPage(url, accessToken))
+                .concatMapIterable(SpotifyPaging::getItems)
+                .filter(Objects::nonNull)
+                .doOnNext(playlist -> {
+                    seenPlaylists.add(playlist.getId());
+                    counters.playlistsSeen.incrementAndGet();
+                })
+                .flatMap(playlist -> syncPlaylist(userId, playlist, accessToken, counters), playlistConcurrency)
+                .then(Mono.fromRunnable(() ->
+                        counters.playlistsRemoved.addAndGet(libraryStore.retainPlaylists(userId, seenPlaylists))));
+
+        Mono<Void> savedTracks = syncSavedTracks(userId, accessToken, counters);
+
+        return Mono.when(playlists, savedTracks)
+                .then(Mono.fromSupplier(() -> counters.toResult((System.nanoTime() - started) / 1_000_000)))
+                .doOnSuccess(result -> logger.info(
+                        "Library sync for user {}: {} playlists ({} unchanged, {} updated, {} removed), "
+                                + "+{}/-{} playlist tracks, +{}/-{} saved tracks in {} ms",
+                        userId, result.getPlaylistsSeen(), result.getPlaylistsUnchanged(),
+                        result.getPlaylistsUpdated(), result.getPlaylistsRemoved(), result.getTracksAdded(),
+                        result.getTracksRemoved(), result.getSavedTracksAdded(), result.getSavedTracksRemoved(),
+                        result.getDurationMs()))
+                // the failed Spotify call itself is recorded by its client
+                .doOnError(error -> logger.warn("Library sync for user {} failed: {}", userId, error.toString()));
+    }
+
+    private Mono<Void> syncPlaylist(String userId, SpotifyPlaylist playlist, String accessToken, Counters counters) {
+        LocalPlaylist stored = libraryStore.getPlaylist(userId, playlist.getId());
+        if (stored != null && Objects.equals(stored.getSnapshotId(), playlist.getSnapshotId())) {
+            counters.playlistsUnchanged.incrementAndGet();
+            if (!Objects.equals(stored.getName(), playlist.getName())) {
+                // stored playlists are shared with readers, so a rename replaces the entry
+                libraryStore.putPlaylist(userId, new LocalPlaylist(playlist.getId(), playlist.getName(),
+                        stored.getSnapshotId(), stored.getTrackUris()));
+            }
+            return Mono.empty();
+        }
+
+        return pages(url -> spotifyApiService.getPlaylistItemsPage(playlist.getId(), url, accessToken))
+                .concatMapIterable(SpotifyPaging::getItems)
+                .mapNotNull(item -> item.getTrack() != null ? item.getTrack().getUri() : null)
+                .collectList()
+                .publishOn(syncScheduler)
+                .doOnNext(trackUris -> {
+                    List<String> previous = stored != null ? stored.getTrackUris() : List.of();
+                    int[] delta = delta(previous, trackUris);
+                    counters.tracksAdded.addAndGet(delta[0]);
+                    counters.tracksRemoved.addAndGet(delta[1]);
+                    counters.playlistsUpdated.incrementAndGet();
+                    libraryStore.putPlaylist(userId,
+                            new LocalPlaylist(playlist.getId(), playlist.getName(), playlist.getSnapshotId(), trackUris));
+                })
+                .then();
+    }
+
+    /**
+     * Saved tracks are ordered newest first: page only until a known track shows up. If the
+     * total then doesn't add up, something older was removed and a full pass reconciles it.
+     */
+    private Mono<Void> syncSavedTracks(String userId, String accessToken, Counters counters) {
+        Map<String, String> known = libraryStore.getSavedTracks(userId);
+        Function<String, Mono<SpotifyPaging<SpotifyPlaylistItem>>> fetch =
+                url -> spotifyApiService.getSavedTracksPage(url, accessToken);
+
+        return pages(fetch)
+                .takeUntil(page -> containsKnown(page, known))
+                .collectList()
+                .publishOn(syncScheduler)
+                .flatMap(pages -> {
+                    int total = pages.isEmpty() ? 0 : pages.get(0).getTotal();
+                    Map<String, String> newest = new LinkedHashMap<>();
+                    for (SpotifyPaging<SpotifyPlaylistItem> page : pages) {
+                        for (SpotifyPlaylistItem item : items(page)) {
+                            if (!Objects.equals(known.get(item.getTrack().getUri()), item.getAddedAt())) {
+                                newest.put(item.getTrack().getUri(), item.getAddedAt());
+                            }
+                        }
+                    }
+                    if (known.size() + newest.size() == total) {
+                        libraryStore.addSavedTracks(userId, newest);
+                        counters.savedTracksAdded.addAndGet(newest.size());
+                        return Mono.empty();
+                    }
+                    return pages(fetch)
+                            .concatMapIterable(this::items)
+                            .collectMap(item -> item.getTrack().getUri(), SpotifyPlaylistItem::getAddedAt,
+                                    LinkedHashMap::new)
+                            .publishOn(syncScheduler)
+                            .doOnNext(all -> {
+                                int[] delta = delta(List.copyOf(known.keySet()), List.copyOf(all.keySet()));
+                                counters.savedTracksAdded.addAndGet(delta[0]);
+                                counters.savedTracksRemoved.addAndGet(delta[1]);
+                                libraryStore.replaceSavedTracks(userId, all);
+                            })
+                            .then();
+                });
+    }
+
+    /**
+     * Lazily page through a collection: the next page is only requested once the previous one
+     * has been consumed downstream.
+     */
+    private <T> Flux<SpotifyPaging<T>> pages(Function<String, Mono<SpotifyPaging<T>>> fetch) {
+        return fetch.apply(null)
+                .expand(page -> page.getNext() != null ? fetch.apply(page.getNext()) : Mono.empty());
+    }
+
+    private List<SpotifyPlaylistItem> items(SpotifyPaging<SpotifyPlaylistItem> page) {
+        List<SpotifyPlaylistItem> items = new ArrayList<>();
+        if (page.getItems() != null) {
+            for (SpotifyPlaylistItem item : page.getItems()) {
+                if (item != null && item.getTrack() != null && item.getTrack().getUri() != null) {
+                    items.add(item);
+                }
+            }
+        }
+        return items;
+    }
+
+    private boolean containsKnown(SpotifyPaging<SpotifyPlaylistItem> page, Map<String, String> known) {
+        for (SpotifyPlaylistItem item : items(page)) {
+            if (Objects.equals(known.get(item.getTrack().getUri()), item.getAddedAt())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Multiset difference: [added, removed]
+     */
+    private static int[] delta(List<String> previous, List<String> current) {
+        Map<String, Integer> remaining = new HashMap<>();
+        for (String uri : previous) {
+            remaining.merge(uri, 1, Integer::sum);
+        }
+        int added = 0;
+        for (String uri : current) {
+            Integer count = remaining.get(uri);
+            if (count == null) {
+                added++;
+            } else if (count == 1) {
+                remaining.remove(uri);
+            } else {
+                remaining.put(uri, count - 1);
+            }
+        }
+        int removed = remaining.values().stream().mapToInt(Integer::intValue).sum();
+        return new int[] {added, removed};
+    }
+
+    private static final class Counters {
+        private final AtomicInteger playlistsSeen = new AtomicInteger();
+        private final AtomicInteger playlistsUnchanged = new AtomicInteger();
+        private final AtomicInteger playlistsUpdated = new AtomicInteger();
+        private final AtomicInteger playlistsRemoved = new AtomicInteger();
+        private final AtomicInteger tracksAdded = new AtomicInteger();
+        private final AtomicInteger tracksRemoved = new AtomicInteger();
+        private final AtomicInteger savedTracksAdded = new AtomicInteger();
+        private final AtomicInteger savedTracksRemoved = new AtomicInteger();
+
+        private LibrarySyncResult toResult(long durationMs) {
+            LibrarySyncResult result = new LibrarySyncResult();
+            result.setPlaylistsSeen(playlistsSeen.get());
+            result.setPlaylistsUnchanged(playlistsUnchanged.get());
+            result.setPlaylistsUpdated(playlistsUpdated.get());
+            result.setPlaylistsRemoved(playlistsRemoved.get());
+            result.setTracksAdded(tracksAdded.get());
+            result.setTracksRemoved(tracksRemoved.get());
+            result.setSavedTracksAdded(savedTracksAdded.get());
+            result.setSavedTracksRemoved(savedTracksRemoved.get());
+            result.setDurationMs(durationMs);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.music_player.service;
+
+import com.example.music_player.config.SpotifyConfig;
+import com.example.music_player.dto.ListeningStatsView;
+import com.example.music_player.dto.SpotifyTrack;
+import com.example.music_player.history.ListeningEvent;
+import com.example.music_player.history.ListeningStats;
+import com.example.music_player.history.SegmentedEventLog;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Listening history of each user. Successful play, pause, resume and skip commands are
+ * appended to a {@link SegmentedEventLog} and folded into {@link ListeningStats} as they
+ * happen, in the order the commands succeeded; track metadata is looked up afterwards and
+ * appended as a separate TRACK event. Appends run on a dedicated thread, in the order they were
+ * submitted, so writing and forcing the log never blocks the event loop. The log is only read
+ * back once, on startup, to rebuild the statistics. Without spotify.history.dir the history is
+ * kept in memory only.
+ */
+@Service
+public class ListeningHistoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ListeningHistoryService.class);
+
+    private static final String TRACK_URI_PREFIX = "spotify:track:";
+
+    private final SpotifyApiService spotifyApiService;
+    private final SegmentedEventLog eventLog;
+    private final ListeningStats stats = new ListeningStats();
+    private final Scheduler appender = Schedulers.newSingle("listening-history");
+    private final int defaultLimit;
+
+    public ListeningHistoryService(SpotifyApiService spotifyApiService, SpotifyConfig spotifyConfig) {
+        this.spotifyApiService = spotifyApiService;
+        SpotifyConfig.History history = spotifyConfig.getHistory();
+        this.defaultLimit = history.getDefaultLimit();
+        if (history.getDir() == null || history.getDir().isBlank()) {
+            this.eventLog = null;
+            logger.info("Listening history is kept in memory only; set spotify.history.dir to persist it");
+            return;
+        }
+        try {
+            this.eventLog = new SegmentedEventLog(Paths.get(history.getDir()), history.getSegmentBytes(),
+                    history.getForceEvery(), history.getRetainedSegments());
+            long[] replayed = new long[1];
+            eventLog.replay(record -> {
+                stats.apply(ListeningEvent.decode(record));
+                replayed[0]++;
+            });
+            logger.info("Rebuilt listening stats from {} history events in {}", replayed[0], history.getDir());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open listening history in " + history.getDir(), e);
+        }
+    }
+
+    /**
+     * Log that a track started playing
+     */
+    public void recordPlay(String trackUri, String accessToken) {
+        long at = System.currentTimeMillis();
+        withUser(accessToken, "play", userId -> append(command(at, ListeningEvent.Type.PLAY, userId, trackUri)));
+        lookUpTrack(trackUri);
+    }
+
+    /**
+     * Log that the current track was skipped in favour of the given one
+     */
+    public void recordSkip(String nextTrackUri, String accessToken) {
+        long at = System.currentTimeMillis();
+        withUser(accessToken, "skip", userId -> {
+            append(command(at, ListeningEvent.Type.SKIP, userId, null));
+            append(command(at, ListeningEvent.Type.PLAY, userId, nextTrackUri));
+        });
+        lookUpTrack(nextTrackUri);
+    }
+
+    public void recordPause(String accessToken) {
+        long at = System.currentTimeMillis();
+        withUser(accessToken, "pause", userId -> append(command(at, ListeningEvent.Type.PAUSE, userId, null)));
+    }
+
+    public void recordResume(String accessToken) {
+        long at = System.currentTimeMillis();
+        withUser(accessToken, "resume", userId -> append(command(at, ListeningEvent.Type.RESUME, userId, null)));
+    }
+
+    /**
+     * Aggregated statistics of the user owning the access token; never reads the log
+     */
+    public Mono<ListeningStatsView> getStats(String accessToken, Integer limit) {
+        int top = limit != null && limit > 0 ? limit : defaultLimit;
+        return spotifyApiService.getCurrentUser(accessToken)
+                .map(user -> stats.view(user.getId(), top, System.currentTimeMillis()));
+    }
+
+    /**
+     * Force events appended since the last batch to disk, bounding how much a crash can lose
+     */
+    @Scheduled(fixedDelayString = "${spotify.history.force-interval:1s}")
+    public void force() {
+        if (eventLog != null) {
+            eventLog.force();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        flush();
+        appender.dispose();
+        if (eventLog != null) {
+            eventLog.close();
+        }
+    }
+
+    /**
+     * Wait until the events submitted so far are appended and applied
+     */
+    void flush() {
+        Mono.empty().subscribeOn(appender).block();
+    }
+
+    /**
+     * Run the append with the user owning the token. Commands resolve their user before they
+     * succeed, so it is normally cached and the event is appended right away, in command order;
+     * otherwise it is appended once the user is known.
+     */
+    private void withUser(String accessToken, String command, Consumer<String> append) {
+        String userId = spotifyApiService.cachedUserId(accessToken);
+        if (userId != null) {
+            append.accept(userId);
+            return;
+        }
+        spotifyApiService.getCurrentUser(accessToken).subscribe(user -> append.accept(user.getId()),
+                error -> logger.debug("Could not record {}: {}", command, error.toString()));
+    }
+
+    /**
+     * Append and apply on the single appender thread so the statistics see events in log order
+     */
+    private void append(ListeningEvent event) {
+        appender.schedule(() -> write(event));
+    }
+
+    private void write(ListeningEvent event) {
+        try {
+            if (eventLog != null) {
+                eventLog.append(event.encode());
+            }
+            stats.apply(event);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not append {} event to listening history: {}", event.type(), e.toString());
+        }
+    }
+
+    /**
+     * Append the track's metadata unless it is already known; a failed lookup leaves the plays
+     * counted, just without names or a duration cap
+     */
+    private void lookUpTrack(String trackUri) {
+        if (trackUri == null || !trackUri.startsWith(TRACK_URI_PREFIX) || stats.knowsTrack(trackUri)) {
+            return;
+        }
+        spotifyApiService.getTrack(trackUri.substring(TRACK_URI_PREFIX.length()))
+                .subscribe(track -> append(trackInfo(trackUri, track)),
+                        error -> logger.debug("Could not look up {}: {}", trackUri, error.toString()));
+    }
+
+    private static ListeningEvent command(long at, ListeningEvent.Type type, String userId, String trackUri) {
+        return new ListeningEvent(at, type, userId, trackUri, null, List.of(), 0);
+    }
+
+    private static ListeningEvent trackInfo(String trackUri, SpotifyTrack track) {
+        List<String> artists = new ArrayList<>();
+        if (track.getArtists() != null) {
+            for (SpotifyTrack.SpotifyArtist artist : track.getArtists()) {
+                if (artist.getName() != null) {
+                    artists.add(artist.getName());
+                }
+            }
+        }
+        return new ListeningEvent(System.currentTimeMillis(), ListeningEvent.Type.TRACK, null, trackUri,
+                track.getName(), List.copyOf(artists), track.getDurationMs());
+    }
+}
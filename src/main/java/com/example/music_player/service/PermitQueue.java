@@ -0,0 +1,176 @@
+package com.example.music_player.service;
+
+import com.example.music_player.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Bounded concurrency with a queue of waiters, shared by the endpoint limits and the fair
+ * upstream scheduler. At most maxConcurrent permits are out; further callers wait, and a freed
+ * slot passes straight to the next waiter. A waiter is claimed exactly once, either by the
+ * release handing it the slot or by its cancellation, and each permit is released exactly once,
+ * so a timeout racing a handoff can neither leak nor duplicate a slot. Subclasses only decide
+ * how waiters are queued and which one is served next; all of it runs under the queue's lock.
+ */
+abstract class PermitQueue<K> {
+
+    private final int maxConcurrent;
+    private final Duration maxQueueWait;
+    private final Timer queueTimer;
+    private final Counter rejectedQueueFull;
+    private final Counter rejectedQueueTimeout;
+    private int inFlight;
+
+    protected PermitQueue(int maxConcurrent, Duration maxQueueWait, Timer queueTimer,
+                          Counter rejectedQueueFull, Counter rejectedQueueTimeout) {
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueueWait = maxQueueWait;
+        this.queueTimer = queueTimer;
+        this.rejectedQueueFull = rejectedQueueFull;
+        this.rejectedQueueTimeout = rejectedQueueTimeout;
+    }
+
+    /**
+     * Whether any waiter is queued; a new caller then queues too instead of overtaking it
+     */
+    protected abstract boolean hasWaiters();
+
+    /**
+     * Queue the waiter, or return false when its queue is full
+     */
+    protected abstract boolean enqueue(Waiter<K> waiter);
+
+    /**
+     * Remove a cancelled waiter
+     */
+    protected abstract void remove(Waiter<K> waiter);
+
+    /**
+     * Take the next waiter to serve, or null when none is queued. It may have been cancelled
+     * in the meantime, in which case the next one is taken.
+     */
+    protected abstract Waiter<K> poll();
+
+    protected abstract ServiceOverloadedException overloaded(String reason);
+
+    /**
+     * Run the work under a permit. The work is only subscribed once a slot is free.
+     */
+    <T> Mono<T> run(K key, Mono<T> work) {
+        return Mono.usingWhen(acquire(key), permit -> work,
+                permit -> Mono.fromRunnable(permit::release),
+                (permit, error) -> Mono.fromRunnable(permit::release),
+                permit -> Mono.fromRunnable(permit::release));
+    }
+
+    /**
+     * Run a stream under a permit, held until the stream ends
+     */
+    <T> Flux<T> runMany(K key, Flux<T> work) {
+        return Flux.usingWhen(acquire(key), permit -> work,
+                permit -> Mono.fromRunnable(permit::release),
+                (permit, error) -> Mono.fromRunnable(permit::release),
+                permit -> Mono.fromRunnable(permit::release));
+    }
+
+    private Mono<Permit> acquire(K key) {
+        return Mono.<Permit>create(sink -> {
+                    Waiter<K> waiter = new Waiter<>(key, sink, System.nanoTime());
+                    synchronized (this) {
+                        if (inFlight < maxConcurrent && !hasWaiters()) {
+                            inFlight++;
+                            waiter.claim();
+                        } else if (!enqueue(waiter)) {
+                            rejectedQueueFull.increment();
+                            sink.error(overloaded("queue full"));
+                            return;
+                        } else {
+                            sink.onCancel(() -> cancel(waiter));
+                            return;
+                        }
+                    }
+                    queueTimer.record(0, TimeUnit.NANOSECONDS);
+                    sink.success(new Permit(this));
+                })
+                .timeout(maxQueueWait, Mono.defer(() -> {
+                    rejectedQueueTimeout.increment();
+                    return Mono.error(overloaded("queue wait exceeded"));
+                }))
+                // a permit handed to a waiter that was cancelled in the meantime goes back
+                .doOnDiscard(Permit.class, Permit::release);
+    }
+
+    private void cancel(Waiter<K> waiter) {
+        if (waiter.claim()) {
+            synchronized (this) {
+                remove(waiter);
+            }
+        }
+    }
+
+    private void release() {
+        Waiter<K> next;
+        synchronized (this) {
+            do {
+                next = poll();
+            } while (next != null && !next.claim());
+            if (next == null) {
+                inFlight--;
+                return;
+            }
+        }
+        // the slot passes straight to the next waiter, inFlight stays unchanged
+        queueTimer.record(System.nanoTime() - next.enqueuedAt, TimeUnit.NANOSECONDS);
+        next.sink.success(new Permit(this));
+    }
+
+    synchronized int inFlight() {
+        return inFlight;
+    }
+
+    static final class Waiter<K> {
+        private final K key;
+        private final MonoSink<Permit> sink;
+        private final long enqueuedAt;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        private Waiter(K key, MonoSink<Permit> sink, long enqueuedAt) {
+            this.key = key;
+            this.sink = sink;
+            this.enqueuedAt = enqueuedAt;
+        }
+
+        /**
+         * Queue key the waiter was acquired with, e.g. its caller
+         */
+        K key() {
+            return key;
+        }
+
+        private boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+    }
+
+    private static final class Permit {
+        private final PermitQueue<?> queue;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(PermitQueue<?> queue) {
+            this.queue = queue;
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                queue.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package com.example.music_player.service;
+
+import com.example.music_player.config.SpotifyConfig;
+import com.example.music_player.dto.PlayQueueView;
+import com.example.music_player.dto.SpotifyTrack;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Per-user play queue. Metadata for the next few tracks is prefetched with batched lookups
+ * and the user's device in {@link ActiveDeviceTracker} is kept fresh, so advancing the queue
+ * costs one upstream play call. A queue holds at most spotify.queue.max-length tracks and is
+ * dropped after spotify.queue.idle-timeout without use.
+ */
+@Service
+public class PlayQueueService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlayQueueService.class);
+
+    private static final String TRACK_URI_PREFIX = "spotify:track:";
+    private static final Pattern TRACK_URI = Pattern.compile("spotify:track:[0-9A-Za-z]{22}");
+
+    private final SpotifyApiService spotifyApiService;
+    private final ListeningHistoryService listeningHistory;
+    private final ActiveDeviceTracker deviceTracker;
+    private final int prefetchDepth;
+    private final long deviceRefreshNanos;
+    private final int maxLength;
+    private final long idleTimeoutNanos;
+    private final ConcurrentHashMap<String, PlayQueue> queues = new ConcurrentHashMap<>();
+
+    public PlayQueueService(SpotifyApiService spotifyApiService, ListeningHistoryService listeningHistory,
+                            ActiveDeviceTracker deviceTracker, SpotifyConfig spotifyConfig) {
+        this.spotifyApiService = spotifyApiService;
+        this.listeningHistory = listeningHistory;
+        this.deviceTracker = deviceTracker;
+        this.prefetchDepth = spotifyConfig.getQueue().getPrefetchDepth();
+        this.deviceRefreshNanos = spotifyConfig.getQueue().getDeviceRefreshInterval().toNanos();
+        this.maxLength = spotifyConfig.getQueue().getMaxLength();
+        this.idleTimeoutNanos = spotifyConfig.getQueue().getIdleTimeout().toNanos();
+    }
+
+    /**
+     * Current queue of the user owning the access token
+     */
+    public Mono<PlayQueueView> getQueue(String accessToken) {
+        return queueFor(accessToken).map(this::view);
+    }
+
+    /**
+     * Append tracks to the user's queue and start warming metadata and device. Fails with
+     * IllegalArgumentException for anything but track URIs or when the queue would overflow.
+     */
+    public Mono<PlayQueueView> enqueue(List<String> trackUris, String accessToken) {
+        for (String uri : trackUris) {
+            if (uri == null || !TRACK_URI.matcher(uri).matches()) {
+                return Mono.error(new IllegalArgumentException("Not a track URI: " + uri));
+            }
+        }
+        return queueFor(accessToken)
+                .flatMap(queue -> {
+                    if (!queue.addAll(trackUris, maxLength)) {
+                        return Mono.error(new IllegalArgumentException("Play queue is full (" + maxLength + " tracks)"));
+                    }
+                    warmUp(queue, accessToken);
+                    return Mono.just(view(queue));
+                });
+    }
+
+    /**
+     * Advance to the next track and play it on the user's tracked device. The queue only
+     * stays advanced if the play succeeds, so a failed play can simply be retried.
+     */
+    public Mono<PlayQueueView> next(String accessToken) {
+        return queueFor(accessToken).flatMap(queue -> {
+            Step step = queue.advance();
+            if (step == null) {
+                return Mono.error(new IllegalArgumentException("Play queue is empty"));
+            }
+            String trackUri = step.trackUri();
+            return spotifyApiService.playTrack(trackUri, accessToken)
+                    .doOnError(error -> queue.rollback(step))
+                    .doOnCancel(() -> queue.rollback(step))
+                    .doOnSuccess(v -> {
+                        if (step.skipping()) {
+                            listeningHistory.recordSkip(trackUri, accessToken);
+                        } else {
+                            listeningHistory.recordPlay(trackUri, accessToken);
+                        }
+                        warmUp(queue, accessToken);
+                    })
+                    .then(Mono.fromSupplier(() -> view(queue)));
+        });
+    }
+
+    /**
+     * Remove every queued track
+     */
+    public Mono<Void> clear(String accessToken) {
+        return queueFor(accessToken).doOnNext(PlayQueue::clear).then();
+    }
+
+    /**
+     * Drop queues nobody has used for the idle timeout
+     */
+    @Scheduled(fixedDelayString = "${spotify.queue.eviction-interval:5m}")
+    public void evictIdleQueues() {
+        evictIdleQueues(System.nanoTime());
+    }
+
+    void evictIdleQueues(long now) {
+        queues.values().removeIf(queue -> queue.idleFor(now) >= idleTimeoutNanos);
+    }
+
+    int queueCount() {
+        return queues.size();
+    }
+
+    private Mono<PlayQueue> queueFor(String accessToken) {
+        return spotifyApiService.getCurrentUser(accessToken)
+                .map(user -> queues.compute(user.getId(), (userId, queue) -> {
+                    PlayQueue current = queue != null ? queue : new PlayQueue(userId);
+                    current.touch(System.nanoTime());
+                    return current;
+                }));
+    }
+
+    /**
+     * Prefetch metadata for the upcoming window and refresh the device if stale. Runs in the
+     * background; failures only mean the next advance pays a cold lookup.
+     */
+    private void warmUp(PlayQueue queue, String accessToken) {
+        List<String> trackIds = new ArrayList<>();
+        for (String uri : queue.window(prefetchDepth + 1)) {
+            String trackId = trackId(uri);
+            if (trackId != null) {
+                trackIds.add(trackId);
+            }
+        }
+        if (!trackIds.isEmpty()) {
+            spotifyApiService.getTracks(trackIds)
+                    .subscribe(tracks -> { }, error -> logger.debug("Queue metadata prefetch failed: {}", error.toString()));
+        }
+        if (queue.deviceNeedsRefresh(deviceRefreshNanos)) {
+            // the device list updates the tracker as it passes through
+            spotifyApiService.getDevices(accessToken)
+                    .subscribe(devices -> { }, error -> logger.debug("Queue device refresh failed: {}", error.toString()));
+        }
+    }
+
+    /**
+     * Build the queue view from prefetched metadata only; never calls upstream
+     */
+    private PlayQueueView view(PlayQueue queue) {
+        String currentUri = queue.current();
+        List<String> upcomingUris = queue.upcoming();
+        
+        PlayQueueView view = new PlayQueueView();
+        view.setCurrentUri(currentUri);
+        view.setCurrent(spotifyApiService.getCachedTrack(trackId(currentUri)));
+        view.setUpcomingUris(upcomingUris);
+        view.setDeviceId(deviceTracker.lastDevice(queue.userId));
+        List<SpotifyTrack> upcoming = new ArrayList<>();
+        for (String uri : upcomingUris.subList(0, Math.min(prefetchDepth, upcomingUris.size()))) {
+            SpotifyTrack track = spotifyApiService.getCachedTrack(trackId(uri));
+            if (track != null) {
+                upcoming.add(track);
+            }
+        }
+        view.setUpcoming(upcoming);
+        return view;
+    }
+
+    private static String trackId(String trackUri) {
+        if (trackUri != null && trackUri.startsWith(TRACK_URI_PREFIX)) {
+            return trackUri.substring(TRACK_URI_PREFIX.length());
+        }
+        return null;
+    }
+
+    /**
+     * One advance of a queue: the track moved to, and whether it replaced a current one
+     */
+    private record Step(long sequence, String trackUri, boolean skipping) {
+    }
+
+    private static final class PlayQueue {
+        private final String userId;
+        private final List<String> uris = new ArrayList<>();
+        private int position = -1;
+        // bumped by every move, so a rollback can tell whether the queue moved on since
+        private long moves;
+        private long deviceCheckedAt;
+        private boolean deviceChecked;
+        private volatile long lastUsedAt;
+
+        PlayQueue(String userId) {
+            this.userId = userId;
+        }
+
+        void touch(long now) {
+            lastUsedAt = now;
+        }
+
+        long idleFor(long now) {
+            return now - lastUsedAt;
+        }
+
+        /**
+         * Append unless the queue would exceed maxLength, after first dropping played tracks
+         */
+        synchronized boolean addAll(List<String> trackUris, int maxLength) {
+            if (uris.size() + trackUris.size() > maxLength && position > 0) {
+                uris.subList(0, position).clear();
+                position = 0;
+            }
+            if (uris.size() + trackUris.size() > maxLength) {
+                return false;
+            }
+            uris.addAll(trackUris);
+            return true;
+        }
+
+        /**
+         * Move to the next track, or return null at the end of the queue
+         */
+        synchronized Step advance() {
+            if (position + 1 >= uris.size()) {
+                return null;
+            }
+            boolean skipping = position >= 0;
+            position++;
+            moves++;
+            return new Step(moves, uris.get(position), skipping);
+        }
+
+        /**
+         * Undo an advance whose play failed, unless the queue has moved on since
+         */
+        synchronized void rollback(Step step) {
+            if (moves == step.sequence()) {
+                position--;
+                moves++;
+            }
+        }
+
+        synchronized String current() {
+            return position >= 0 && position < uris.size() ? uris.get(position) : null;
+        }
+
+        synchronized List<String> upcoming() {
+            return new ArrayList<>(uris.subList(Math.min(position + 1, uris.size()), uris.size()));
+        }
+
+        synchronized List<String> window(int size) {
+            int from = Math.max(position, 0);
+            return new ArrayList<>(uris.subList(Math.min(from, uris.size()), Math.min(from + size, uris.size())));
+        }
+
+        synchronized void clear() {
+            uris.clear();
+            position = -1;
+            moves++;
+        }
+
+        synchronized boolean deviceNeedsRefresh(long refreshNanos) {
+            long now = System.nanoTime();
+            if (deviceChecked && now - deviceCheckedAt < refreshNanos) {
+                return false;
+            }
+            // mark as checked up front so concurrent warm-ups don't all hit /devices
+            deviceChecked = true;
+            deviceCheckedAt = now;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package com.example.music_player.service;
+
+import com.example.music_player.config.SpotifyConfig;
+import com.example.music_player.dto.PlaybackProgress;
+import com.example.music_player.dto.SpotifyPlaybackState;
+import com.example.music_player.dto.SpotifyTrack;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Per-user playback clock. Every playback state seen from Spotify is a sync point; between
+ * sync points progress is extrapolated locally from progress_ms, the monotonic time of the
+ * sync and the track's duration. A resync is only needed when the clock was invalidated by a
+ * command, the extrapolated track has ended, or the sync has aged past its interval. The
+ * interval is spotify.clock.max-age, dropping to min-age after a sync that found the clock
+ * off by more than drift-threshold (playback changed from another client) and doubling back
+ * on each accurate one. Resyncs of a user are coalesced and at most one per min-interval.
+ * Clocks not synced for idle-timeout are dropped; the next query of that user starts afresh.
+ */
+@Component
+public class PlaybackClock {
+
+    private static final String[] RESYNC_REASONS = {"missing", "command", "track_end", "age", "drift"};
+
+    private final SpotifyConfig.Clock settings;
+    private final ConcurrentHashMap<String, UserClock> clocks = new ConcurrentHashMap<>();
+    private final Counter localQueries;
+    private final Counter upstreamQueries;
+    private final Map<String, Counter> resyncs = new HashMap<>();
+    private final DistributionSummary drift;
+
+    public PlaybackClock(SpotifyConfig spotifyConfig, MeterRegistry meterRegistry) {
+        this.settings = spotifyConfig.getClock();
+        this.localQueries = queries(meterRegistry, "local");
+        this.upstreamQueries = queries(meterRegistry, "upstream");
+        for (String reason : RESYNC_REASONS) {
+            resyncs.put(reason, Counter.builder("spotify.playback.clock.resyncs")
+                    .description("Playback state fetched to resync the local clock")
+                    .tag("reason", reason)
+                    .register(meterRegistry));
+        }
+        this.drift = DistributionSummary.builder("spotify.playback.clock.drift")
+                .description("Difference between extrapolated and reported progress at resync")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Progress of the user's playback, extrapolated when the clock can be trusted and
+     * otherwise after fetching the state with the given supplier. The fetch is expected to
+     * report its result through {@link #observe(String, SpotifyPlaybackState)}.
+     */
+    public Mono<PlaybackProgress> progress(String userId, Supplier<Mono<SpotifyPlaybackState>> fetch) {
+        UserClock clock = clockOf(userId);
+        long now = System.nanoTime();
+        String reason = resyncReason(userId, now);
+        if (reason == null) {
+            localQueries.increment();
+            return Mono.just(localProgress(userId, now));
+        }
+        return clock.resync(now, () -> {
+                    resyncs.get(reason).increment();
+                    upstreamQueries.increment();
+                    return fetch.get().then();
+                })
+                .then(Mono.fromSupplier(() -> localProgress(userId, System.nanoTime())));
+    }
+
+    /**
+     * Sync point: a playback state just reported by Spotify, or null when nothing is playing
+     */
+    public void observe(String userId, SpotifyPlaybackState state) {
+        if (userId != null) {
+            observe(userId, state, System.nanoTime());
+        }
+    }
+
+    /**
+     * A playback command changed the state; the next query resyncs
+     */
+    public void invalidate(String userId) {
+        if (userId != null) {
+            UserClock clock = clocks.get(userId);
+            if (clock != null) {
+                synchronized (clock) {
+                    clock.stale = true;
+                    // Spotify may take a moment to reflect the command, so check again soon
+                    clock.interval = settings.getMinAge().toNanos();
+                }
+            }
+        }
+    }
+
+    void observe(String userId, SpotifyPlaybackState state, long now) {
+        UserClock clock = clockOf(userId);
+        Snapshot observed = Snapshot.of(state, now);
+        synchronized (clock) {
+            Snapshot previous = clock.snapshot;
+            if (previous != null && !clock.stale) {
+                long expected = previous.progressAt(now);
+                boolean sameTrack = observed.trackUri != null && observed.trackUri.equals(previous.trackUri);
+                long driftMs = sameTrack ? Math.abs(observed.progressMs - expected) : Long.MAX_VALUE;
+                if (sameTrack) {
+                    drift.record(driftMs);
+                }
+                // whatever follows the end of a track is expected, not drift
+                if (!previous.ended(now) && (driftMs > settings.getDriftThreshold().toMillis()
+                        || observed.playing != previous.playing)) {
+                    clock.interval = settings.getMinAge().toNanos();
+                } else {
+                    clock.interval = Math.min(clock.interval * 2, settings.getMaxAge().toNanos());
+                }
+            }
+            clock.snapshot = observed;
+            clock.stale = false;
+        }
+    }
+
+    /**
+     * Drop the clocks of users nobody asked about for idle-timeout
+     */
+    @Scheduled(fixedDelayString = "${spotify.clock.idle-timeout:30m}")
+    public void evictIdle() {
+        evictIdle(System.nanoTime());
+    }
+
+    void evictIdle(long now) {
+        long idleTimeout = settings.getIdleTimeout().toNanos();
+        clocks.values().removeIf(clock -> {
+            synchronized (clock) {
+                Snapshot snapshot = clock.snapshot;
+                long lastUsed = Math.max(clock.lastResyncAt, snapshot != null ? snapshot.syncedAt : clock.createdAt);
+                return clock.pending == null && now - lastUsed >= idleTimeout;
+            }
+        });
+    }
+
+    int size() {
+        return clocks.size();
+    }
+
+    String resyncReason(String userId, long now) {
+        UserClock clock = clockOf(userId);
+        synchronized (clock) {
+            Snapshot snapshot = clock.snapshot;
+            if (snapshot == null) {
+                return "missing";
+            }
+            if (clock.stale) {
+                return "command";
+            }
+            if (now - clock.lastResyncAt < settings.getMinInterval().toNanos()) {
+                return null;
+            }
+            if (snapshot.ended(now)) {
+                return "track_end";
+            }
+            if (now - snapshot.syncedAt >= clock.interval) {
+                return clock.interval < settings.getMaxAge().toNanos() ? "drift" : "age";
+            }
+            return null;
+        }
+    }
+
+    PlaybackProgress localProgress(String userId, long now) {
+        Snapshot snapshot = clockOf(userId).snapshot;
+        return snapshot != null ? snapshot.progress(now) : new PlaybackProgress();
+    }
+
+    private UserClock clockOf(String userId) {
+        return clocks.computeIfAbsent(userId, id -> new UserClock(settings.getMaxAge().toNanos(), System.nanoTime()));
+    }
+
+    private static Counter queries(MeterRegistry registry, String source) {
+        return Counter.builder("spotify.playback.clock.queries")
+                .description("Progress queries by where the answer came from")
+                .tag("source", source)
+                .register(registry);
+    }
+
+    private static final class UserClock {
+        private volatile Snapshot snapshot;
+        private volatile boolean stale;
+        private long interval;
+        private long lastResyncAt = Long.MIN_VALUE / 2;
+        private Mono<Void> pending;
+        private final long createdAt;
+
+        private UserClock(long interval, long createdAt) {
+            this.interval = interval;
+            this.createdAt = createdAt;
+        }
+
+        /**
+         * Run the fetch, or join the one already in flight
+         */
+        private synchronized Mono<Void> resync(long now, Supplier<Mono<Void>> fetch) {
+            if (pending == null) {
+                lastResyncAt = now;
+                Mono<Void> call = fetch.get()
+                        .doFinally(signal -> {
+                            synchronized (this) {
+                                pending = null;
+                            }
+                        })
+                        .cache();
+                pending = call;
+                return call;
+            }
+            return pending;
+        }
+    }
+
+    private record Snapshot(String trackUri, String trackName, String deviceId, boolean playing, long progressMs,
+                            long durationMs, long syncedAt) {
+
+        static Snapshot of(SpotifyPlaybackState state, long now) {
+            if (state == null) {
+                return new Snapshot(null, null, null, false, 0, 0, now);
+            }
+            SpotifyTrack item = state.getItem();
+            return new Snapshot(item != null ? item.getUri() : null, item != null ? item.getName() : null,
+                    state.getDevice() != null ? state.getDevice().getId() : null, state.isPlaying(),
+                    state.getProgressMs() != null ? state.getProgressMs() : 0,
+                    item != null ? item.getDurationMs() : 0, now);
+        }
+
+        long progressAt(long now) {
+            if (!playing) {
+                return progressMs;
+            }
+            long progress = progressMs + TimeUnit.NANOSECONDS.toMillis(now - syncedAt);
+            return durationMs > 0 ? Math.min(progress, durationMs) : progress;
+        }
+
+        boolean ended(long now) {
+            return playing && durationMs > 0 && progressMs + TimeUnit.NANOSECONDS.toMillis(now - syncedAt) >= durationMs;
+        }
+
+        PlaybackProgress progress(long now) {
+            PlaybackProgress progress = new PlaybackProgress();
+            progress.setTrackUri(trackUri);
+            progress.setTrackName(trackName);
+            progress.setDeviceId(deviceId);
+            progress.setPlaying(playing);
+            progress.setProgressMs(progressAt(now));
+            progress.setDurationMs(durationMs);
+            progress.setSyncedAgoMs(TimeUnit.NANOSECONDS.toMillis(now - syncedAt));
+            return progress;
+        }
+    }
+}
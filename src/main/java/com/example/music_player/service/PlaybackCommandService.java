@@ -0,0 +1,115 @@
+package com.example.music_player.service;
+
+import com.example.music_player.dto.PlaybackCommand;
+import com.example.music_player.dto.PlaybackCommandResult;
+import com.example.music_player.exception.ErrorCodes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies a whole playback intent (device, track, start position, volume) as one request,
+ * using as few Spotify calls as possible. A track is started with a single play call carrying
+ * device_id and position_ms, which also moves playback to the device, so no transfer or seek
+ * is sent; the volume goes to the same device concurrently. Without a track, a device change
+ * is one transfer, followed by a seek when a position is given. A volume-only command names
+ * no device and applies to the active one.
+ */
+@Service
+public class PlaybackCommandService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlaybackCommandService.class);
+
+    private final SpotifyApiService spotifyApiService;
+    private final ActiveDeviceTracker deviceTracker;
+    private final ListeningHistoryService listeningHistory;
+
+    public PlaybackCommandService(SpotifyApiService spotifyApiService, ActiveDeviceTracker deviceTracker,
+                                  ListeningHistoryService listeningHistory) {
+        this.spotifyApiService = spotifyApiService;
+        this.deviceTracker = deviceTracker;
+        this.listeningHistory = listeningHistory;
+    }
+
+    /**
+     * Run the command. Failure of the play, transfer or seek fails the whole command; a volume
+     * change that fails after those succeeded is reported in the result instead.
+     */
+    public Mono<PlaybackCommandResult> execute(PlaybackCommand command, String accessToken) {
+        String invalid = validate(command);
+        if (invalid != null) {
+            return Mono.error(new IllegalArgumentException(invalid));
+        }
+        long startedAt = System.nanoTime();
+        return spotifyApiService.getCurrentUser(accessToken).flatMap(user -> {
+            PlaybackCommandResult result = new PlaybackCommandResult();
+            String requested = command.getDeviceId();
+            String target = requested != null ? requested : deviceTracker.lastDevice(user.getId());
+            Mono<Void> playback = playback(command, target, accessToken).cache();
+            Mono<Void> volume = Mono.empty();
+            if (command.getVolume() != null) {
+                int percent = command.getVolume();
+                if (command.getTrackUri() == null && requested == null && command.getPositionMs() == null) {
+                    // nothing moves playback, so leave the volume to whichever device is active
+                    volume = spotifyApiService.setVolume(percent, null, accessToken);
+                } else {
+                    // after the playback step only if the target device is not known yet, or turned out wrong
+                    Mono<Void> afterPlayback = playback.then(Mono.defer(() ->
+                            spotifyApiService.setVolume(percent, deviceTracker.lastDevice(user.getId()), accessToken)));
+                    volume = (target == null ? afterPlayback
+                            : spotifyApiService.setVolume(percent, target, accessToken)
+                                    .onErrorResume(error -> SpotifyApiService.isDeviceUnavailable(error, target,
+                                                    requested != null),
+                                            error -> afterPlayback))
+                            .onErrorResume(error -> {
+                                result.getFailed().put("volume", ErrorCodes.of(error));
+                                return Mono.empty();
+                            });
+                }
+            }
+            return Mono.when(playback, volume).then(Mono.fromSupplier(() -> {
+                result.setDeviceId(requested != null ? requested : deviceTracker.lastDevice(user.getId()));
+                result.setTrackUri(command.getTrackUri());
+                result.setPositionMs(command.getPositionMs());
+                result.setVolume(result.getFailed().containsKey("volume") ? null : command.getVolume());
+                result.setDurationMs(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+                logger.info("Applied playback command on device {} in {} ms", result.getDeviceId(),
+                        result.getDurationMs());
+                return result;
+            }));
+        });
+    }
+
+    private Mono<Void> playback(PlaybackCommand command, String target, String accessToken) {
+        String trackUri = command.getTrackUri();
+        if (trackUri != null) {
+            // an unknown device is resolved, and recovered if stale, by playTrack itself
+            return spotifyApiService.playTrack(trackUri, command.getDeviceId(), command.getPositionMs(), accessToken)
+                    .doOnSuccess(v -> listeningHistory.recordPlay(trackUri, accessToken));
+        }
+        Mono<Void> transfer = command.getDeviceId() != null
+                ? spotifyApiService.transferPlayback(command.getDeviceId(), accessToken)
+                : Mono.empty();
+        Mono<Void> seek = command.getPositionMs() != null
+                ? spotifyApiService.seek(command.getPositionMs(), target, accessToken)
+                : Mono.empty();
+        return transfer.then(seek);
+    }
+
+    private static String validate(PlaybackCommand command) {
+        if (command.getDeviceId() == null && command.getTrackUri() == null && command.getPositionMs() == null
+                && command.getVolume() == null) {
+            return "Empty playback command";
+        }
+        if (command.getVolume() != null && (command.getVolume() < 0 || command.getVolume() > 100)) {
+            return "Volume out of range: " + command.getVolume();
+        }
+        if (command.getPositionMs() != null && command.getPositionMs() < 0) {
+            return "Negative position: " + command.getPositionMs();
+        }
+        return null;
+    }
+}
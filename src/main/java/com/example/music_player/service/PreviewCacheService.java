@@ -0,0 +1,164 @@
+package com.example.music_player.service;
+
+import com.example.music_player.config.SpotifyConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Disk cache of 30-second preview MP3s. Each preview is downloaded once; concurrent first
+ * requests for the same track share a single download. A hit refreshes the file's modification
+ * time, so the size limit evicts the least recently played previews.
+ */
+@Service
+public class PreviewCacheService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PreviewCacheService.class);
+
+    private static final Pattern TRACK_ID = Pattern.compile("[A-Za-z0-9]{1,64}");
+
+    private final SpotifyApiService spotifyApiService;
+    private final WebClient webClient;
+    private final Path cacheDir;
+    private final long maxCacheBytes;
+    private final List<String> allowedHosts;
+    private final ConcurrentHashMap<String, Mono<Path>> downloads = new ConcurrentHashMap<>();
+
+    public PreviewCacheService(SpotifyApiService spotifyApiService, SpotifyConfig spotifyConfig,
+                               @Qualifier("previewWebClient") WebClient webClient) {
+        this.spotifyApiService = spotifyApiService;
+        this.webClient = webClient;
+        this.cacheDir = Paths.get(spotifyConfig.getPreview().getCacheDir());
+        this.maxCacheBytes = spotifyConfig.getPreview().getMaxCacheBytes();
+        this.allowedHosts = spotifyConfig.getPreview().getAllowedHosts();
+    }
+
+    /**
+     * Path of the cached preview for a track, downloading it on first use. Completes empty
+     * when the track has no preview.
+     */
+    public Mono<Path> getPreview(String trackId) {
+        if (trackId == null || !TRACK_ID.matcher(trackId).matches()) {
+            return Mono.error(new IllegalArgumentException("Invalid track ID: " + trackId));
+        }
+        Path target = cacheDir.resolve(trackId + ".mp3");
+        return Mono.fromCallable(() -> cached(target))
+                .subscribeOn(Schedulers.boundedElastic())
+                // cache(): a listener going away must not abort the download others are waiting for
+                .switchIfEmpty(Mono.defer(() -> downloads.computeIfAbsent(trackId, id -> download(id, target)
+                        .doFinally(signal -> downloads.remove(id))
+                        .cache())));
+    }
+
+    /**
+     * The cached preview, marked as just used, or null when it isn't cached yet
+     */
+    private Path cached(Path target) {
+        if (!Files.isRegularFile(target)) {
+            return null;
+        }
+        try {
+            Files.setLastModifiedTime(target, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException error) {
+            // evicted meanwhile, or not writable: still serve it if it is there
+            logger.debug("Could not mark preview {} as used: {}", target.getFileName(), error.toString());
+        }
+        return target;
+    }
+
+    private Mono<Path> download(String trackId, Path target) {
+        return spotifyApiService.getTrack(trackId)
+                .mapNotNull(track -> track.getPreviewUrl())
+                .map(URI::create)
+                .filter(this::isAllowed)
+                .flatMap(previewUri -> {
+                    Path temp = cacheDir.resolve(trackId + ".mp3.part");
+                    Flux<DataBuffer> body = webClient.get()
+                            .uri(previewUri)
+                            .retrieve()
+                            .bodyToFlux(DataBuffer.class);
+                    return Mono.fromCallable(() -> Files.createDirectories(cacheDir))
+                            .subscribeOn(Schedulers.boundedElastic())
+                            .then(DataBufferUtils.write(body, temp))
+                            .then(Mono.fromCallable(() -> Files.move(temp, target,
+                                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE))
+                                    .subscribeOn(Schedulers.boundedElastic()))
+                            .doOnSuccess(path -> {
+                                logger.info("Cached preview for track: {}", trackId);
+                                Schedulers.boundedElastic().schedule(this::enforceSizeLimit);
+                            })
+                            .doOnError(error -> {
+                                // upstream failures are already recorded by the preview client
+                                logger.debug("Could not cache preview for track {}: {}", trackId, error.toString());
+                                try {
+                                    Files.deleteIfExists(temp);
+                                } catch (IOException ignored) {
+                                    // best effort cleanup
+                                }
+                            });
+                });
+    }
+
+    private boolean isAllowed(URI previewUri) {
+        boolean allowed = "https".equals(previewUri.getScheme()) && allowedHosts.contains(previewUri.getHost());
+        if (!allowed) {
+            logger.warn("Refusing to proxy preview from unexpected host: {}", previewUri.getHost());
+        }
+        return allowed;
+    }
+
+    /**
+     * Drop least recently used previews once the cache grows past its limit
+     */
+    private void enforceSizeLimit() {
+        try (Stream<Path> files = Files.list(cacheDir)) {
+            List<Path> previews = files
+                    .filter(path -> path.getFileName().toString().endsWith(".mp3"))
+                    .sorted(Comparator.comparing(PreviewCacheService::lastModified))
+                    .toList();
+            long total = 0;
+            for (Path preview : previews) {
+                total += Files.size(preview);
+            }
+            for (Path preview : previews) {
+                if (total <= maxCacheBytes) {
+                    break;
+                }
+                long size = Files.size(preview);
+                Files.deleteIfExists(preview);
+                total -= size;
+            }
+        } catch (IOException | UncheckedIOException error) {
+            logger.warn("Could not enforce preview cache size limit: {}", error.toString());
+        }
+    }
+
+    private static FileTime lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (IOException error) {
+            throw new UncheckedIOException(error);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.music_player.service;
+
+import com.example.music_player.cache.HeavyHitters;
+import com.example.music_player.config.SpotifyConfig;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded-memory popularity of search queries and track lookups. Search keys are the
+ * normalized "query|limit" cache keys, so a hot key maps directly onto a cache entry.
+ */
+@Component
+public class QueryPopularityTracker {
+
+    private final HeavyHitters searches;
+    private final HeavyHitters tracks;
+
+    public QueryPopularityTracker(SpotifyConfig spotifyConfig) {
+        SpotifyConfig.Popularity popularity = spotifyConfig.getPopularity();
+        this.searches = new HeavyHitters(popularity.getTopK(), popularity.getSketchWidth(), popularity.getSketchDepth());
+        this.tracks = new HeavyHitters(popularity.getTopK(), popularity.getSketchWidth(), popularity.getSketchDepth());
+    }
+
+    public void recordSearch(String searchKey) {
+        searches.record(searchKey);
+    }
+
+    public void recordTrack(String trackId) {
+        tracks.record(trackId);
+    }
+
+    /**
+     * Restore counts from a snapshot
+     */
+    public void seed(List<Map.Entry<String, Long>> hotSearches, List<Map.Entry<String, Long>> hotTracks) {
+        hotSearches.forEach(entry -> searches.add(entry.getKey(), entry.getValue()));
+        hotTracks.forEach(entry -> tracks.add(entry.getKey(), entry.getValue()));
+    }
+
+    /**
+     * Hottest search keys with estimated counts, most frequent first
+     */
+    public List<Map.Entry<String, Long>> hotSearches() {
+        return searches.top();
+    }
+
+    /**
+     * Hottest track IDs with estimated counts, most frequent first
+     */
+    public List<Map.Entry<String, Long>> hotTracks() {
+        return tracks.top();
+    }
+
+    /**
+     * Age all counts so popularity reflects recent traffic
+     */
+    public void decay() {
+        searches.decay();
+        tracks.decay();
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.music_player.service;
+
+import com.example.music_player.config.SpotifyConfig;
+import com.example.music_player.exception.ErrorCodes;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Playback commands over a long-lived remote-control connection. The access token is taken
+ * once from the handshake (see {@link #accessToken}); after that each command is a single text
+ * frame {@code <id> <op> [args...]} and is answered with {@code <id> ok [detail]},
+ * {@code <id> state <json>}, {@code <id> progress <json>} or {@code <id> err <code>}, with
+ * the same codes as the error field of HTTP error responses (see {@link ErrorCodes}). Up to
+ * {@code spotify.remote.max-in-flight} commands of one connection run at once, so replies
+ * can arrive out of order and are matched by id. Independent of the transport: the servlet
+ * and reactive WebSocket adapters only move frames. The channel only answers commands and never
+ * pushes state on its own: the Spotify Web API has no change notifications, so pushing would
+ * mean polling the player for every open connection. Clients ask with {@code state} or
+ * {@code progress} when they need it.
+ *
+ * <pre>
+ * 1 play spotify:track:4iV5W9uYEdYUVa79Axb7Rh [deviceId]
+ * 2 pause | resume | next | state | progress | ping
+ * 3 volume 40
+ * 4 transfer deviceId
+ * </pre>
+ */
+@Component
+public class RemoteCommandProcessor {
+
+    private static final Logger logger = LoggerFactory.getLogger(RemoteCommandProcessor.class);
+
+    private final SpotifyApiService spotifyApiService;
+    private final PlayQueueService playQueueService;
+    private final ListeningHistoryService listeningHistory;
+    private final EndpointConcurrencyLimiter concurrencyLimiter;
+    private final RequestDeadlines deadlines;
+    private final FairUpstreamScheduler fairScheduler;
+    private final RemoteTicketRegistry tickets;
+    private final ObjectMapper objectMapper;
+    private final int maxInFlight;
+    private final Duration idleTimeout;
+
+    public RemoteCommandProcessor(SpotifyApiService spotifyApiService, PlayQueueService playQueueService,
+                                  ListeningHistoryService listeningHistory,
+                                  EndpointConcurrencyLimiter concurrencyLimiter, RequestDeadlines deadlines,
+                                  FairUpstreamScheduler fairScheduler, RemoteTicketRegistry tickets,
+                                  ObjectMapper objectMapper,
+                                  SpotifyConfig spotifyConfig) {
+        this.spotifyApiService = spotifyApiService;
+        this.playQueueService = playQueueService;
+        this.listeningHistory = listeningHistory;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.deadlines = deadlines;
+        this.fairScheduler = fairScheduler;
+        this.tickets = tickets;
+        this.objectMapper = objectMapper;
+        this.maxInFlight = spotifyConfig.getRemote().getMaxInFlight();
+        this.idleTimeout = spotifyConfig.getRemote().getIdleTimeout();
+    }
+
+    /**
+     * Access token of a handshake: a Bearer Authorization header, or for browsers, which cannot
+     * set headers on a WebSocket, a ticket from {@link RemoteTicketRegistry} in the ticket query
+     * parameter. The access token itself is never accepted in the URL, where it would be logged.
+     */
+    public String accessToken(HttpHeaders headers, URI uri) {
+        String authHeader = headers.getFirst(HttpHeaders.AUTHORIZATION);
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            return authHeader.substring(7);
+        }
+        return tickets.redeem(UriComponentsBuilder.fromUri(uri).build().getQueryParams().getFirst("ticket"));
+    }
+
+    /**
+     * Replies to the frames of one connection, opened with the given access token; adapters
+     * refuse the handshake when {@link #accessToken} finds none. Completes, so the adapter
+     * closes the connection, once the client closes it or stays silent for the idle timeout.
+     */
+    public Flux<String> process(String accessToken, Flux<String> frames) {
+        return frames.timeout(idleTimeout)
+                .onErrorResume(TimeoutException.class, error -> Flux.empty())
+                .flatMap(frame -> execute(frame.trim(), accessToken)
+                        .contextWrite(context -> context.put(FairUpstreamScheduler.CALLER,
+                                fairScheduler.tokenCaller(accessToken))),
+                        maxInFlight);
+    }
+
+    private Mono<String> execute(String frame, String accessToken) {
+        String[] parts = frame.split("\\s+");
+        String id = parts[0];
+        if (parts.length < 2) {
+            return Mono.just(id + " err " + ErrorCodes.INVALID_ARGUMENT);
+        }
+        String op = parts[1];
+        Mono<String> reply = Mono.defer(() -> command(op, parts, accessToken));
+        String endpoint = endpoint(op);
+        if (endpoint != null) {
+            // same limits and time budget as the equivalent HTTP endpoint
+            reply = deadlines.enforce(concurrencyLimiter.limit(endpoint, reply))
+                    .contextWrite(deadlines.forEndpoint(endpoint));
+        }
+        return reply.map(result -> id + " " + result)
+                .onErrorResume(error -> Mono.just(id + " err " + errorCode(error)));
+    }
+
+    private Mono<String> command(String op, String[] parts, String accessToken) {
+        switch (op) {
+            case "play" -> {
+                String trackUri = argument(parts, 2);
+                String deviceId = parts.length > 3 ? parts[3] : null;
+                return spotifyApiService.playTrack(trackUri, deviceId, accessToken)
+                        .doOnSuccess(v -> listeningHistory.recordPlay(trackUri, accessToken))
+                        .thenReturn("ok");
+            }
+            case "pause" -> {
+                return spotifyApiService.pausePlayback(accessToken)
+                        .doOnSuccess(v -> listeningHistory.recordPause(accessToken))
+                        .thenReturn("ok");
+            }
+            case "resume" -> {
+                return spotifyApiService.resumePlayback(accessToken)
+                        .doOnSuccess(v -> listeningHistory.recordResume(accessToken))
+                        .thenReturn("ok");
+            }
+            case "volume" -> {
+                int volume = Integer.parseInt(argument(parts, 2));
+                if (volume < 0 || volume > 100) {
+                    return Mono.error(new IllegalArgumentException("Volume out of range: " + volume));
+                }
+                return spotifyApiService.setVolume(volume, accessToken).thenReturn("ok");
+            }
+            case "transfer" -> {
+                return spotifyApiService.transferPlayback(argument(parts, 2), accessToken).thenReturn("ok");
+            }
+            case "next" -> {
+                return playQueueService.next(accessToken).map(queue -> "ok " + queue.getCurrentUri());
+            }
+            case "state" -> {
+                return spotifyApiService.getCurrentPlayback(accessToken)
+                        .map(state -> "state " + json(state))
+                        .defaultIfEmpty("state {}");
+            }
+            case "progress" -> {
+                return spotifyApiService.getPlaybackProgress(accessToken).map(progress -> "progress " + json(progress));
+            }
+            case "ping" -> {
+                return Mono.just("pong");
+            }
+            default -> {
+                return Mono.error(new IllegalArgumentException("Unknown command: " + op));
+            }
+        }
+    }
+
+    private static String endpoint(String op) {
+        return switch (op) {
+            case "play", "pause", "resume", "volume", "transfer" -> op;
+            case "next" -> "queue";
+            case "state", "progress" -> "player";
+            default -> null;
+        };
+    }
+
+    private String json(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String argument(String[] parts, int index) {
+        if (parts.length <= index) {
+            throw new IllegalArgumentException("Missing argument for " + parts[1]);
+        }
+        return parts[index];
+    }
+
+    private static String errorCode(Throwable error) {
+        if (ErrorCodes.isUnexpected(error)) {
+            logger.warn("Remote command failed: {}", error.toString());
+        }
+        return ErrorCodes.of(error);
+    }
+}
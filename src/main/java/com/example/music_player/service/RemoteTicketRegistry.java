@@ -0,0 +1,66 @@
+package com.example.music_player.service;
+
+import com.example.music_player.config.SpotifyConfig;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Single-use, short-lived tickets for opening the remote-control WebSocket from a browser,
+ * which cannot set an Authorization header on the handshake. The ticket travels in the URL
+ * instead of the access token, so a URL that ends up in a log is useless once redeemed or
+ * after spotify.remote.ticket-ttl.
+ */
+@Component
+public class RemoteTicketRegistry {
+
+    private final SecureRandom random = new SecureRandom();
+    private final ConcurrentHashMap<String, Ticket> tickets = new ConcurrentHashMap<>();
+    private final Duration ttl;
+
+    public RemoteTicketRegistry(SpotifyConfig spotifyConfig) {
+        this.ttl = spotifyConfig.getRemote().getTicketTtl();
+    }
+
+    /**
+     * Issue a ticket standing for the access token until it is redeemed or expires
+     */
+    public String issue(String accessToken) {
+        byte[] bytes = new byte[24];
+        random.nextBytes(bytes);
+        String ticket = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        tickets.put(ticket, new Ticket(accessToken, System.nanoTime() + ttl.toNanos()));
+        return ticket;
+    }
+
+    /**
+     * The access token of a ticket, or null when it is unknown, already used or expired
+     */
+    public String redeem(String ticket) {
+        if (ticket == null) {
+            return null;
+        }
+        Ticket issued = tickets.remove(ticket);
+        return issued != null && issued.expiresAt - System.nanoTime() > 0 ? issued.accessToken : null;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    @Scheduled(fixedDelayString = "${spotify.remote.ticket-ttl:30s}")
+    public void evictExpired() {
+        evictExpired(System.nanoTime());
+    }
+
+    void evictExpired(long now) {
+        tickets.values().removeIf(ticket -> ticket.expiresAt - now <= 0);
+    }
+
+    private record Ticket(String accessToken, long expiresAt) {
+    }
+}
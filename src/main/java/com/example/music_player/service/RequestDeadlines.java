@@ -0,0 +1,237 @@
+package com.example.music_player.service;
+
+import com.example.music_player.config.SpotifyConfig;
+import com.example.music_player.exception.SpotifyApiException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Time budgets for incoming requests. Each request gets a {@link Deadline} from its
+ * X-Request-Timeout header (capped at spotify.deadlines.max) or its endpoint's default; the
+ * deadline travels in the Reactor Context into every outbound call, so upstream requests are
+ * never started after it has passed, are cancelled when it passes, and are only retried while
+ * enough of it remains. Each of these cases counts as spotify.deadline.exhausted.
+ */
+@Component
+public class RequestDeadlines {
+
+    /**
+     * Requested budget, e.g. "800" (milliseconds), "800ms" or "2s"
+     */
+    public static final String HEADER = "X-Request-Timeout";
+
+    private final SpotifyConfig.Deadlines settings;
+    private final Counter exhaustedRequest;
+    private final Counter exhaustedUpstream;
+    private final Counter exhaustedRetry;
+
+    public RequestDeadlines(SpotifyConfig spotifyConfig, MeterRegistry meterRegistry) {
+        this.settings = spotifyConfig.getDeadlines();
+        this.exhaustedRequest = exhaustedCounter("request", meterRegistry);
+        this.exhaustedUpstream = exhaustedCounter("upstream", meterRegistry);
+        this.exhaustedRetry = exhaustedCounter("retry", meterRegistry);
+    }
+
+    /**
+     * Absolute point in time by which a request must be answered
+     */
+    public record Deadline(long expiresAtNanos) {
+
+        public static Deadline after(Duration budget) {
+            return new Deadline(System.nanoTime() + budget.toNanos());
+        }
+
+        public Duration remaining() {
+            return Duration.ofNanos(Math.max(0, expiresAtNanos - System.nanoTime()));
+        }
+
+        public boolean isExpired() {
+            return expiresAtNanos - System.nanoTime() <= 0;
+        }
+    }
+
+    /**
+     * Context entry carrying the endpoint's deadline. The requested timeout is read now, on the
+     * servlet request thread; under WebFlux it comes from the header the web filter put in
+     * the context. An enclosing deadline, if any, is kept.
+     */
+    public Function<Context, Context> forEndpoint(String endpoint) {
+        String requested = servletHeader();
+        return context -> {
+            if (context.hasKey(Deadline.class)) {
+                return context;
+            }
+            String header = requested != null ? requested : context.getOrDefault(HEADER, null);
+            return context.put(Deadline.class, Deadline.after(budget(endpoint, header)));
+        };
+    }
+
+    /**
+     * Fail with DEADLINE_EXCEEDED when the work outlives the deadline in its context
+     */
+    public <T> Mono<T> enforce(Mono<T> work) {
+        return Mono.deferContextual(context -> {
+            Deadline deadline = context.getOrDefault(Deadline.class, null);
+            if (deadline == null) {
+                return work;
+            }
+            return work.timeout(deadline.remaining(), Mono.defer(() -> {
+                exhaustedRequest.increment();
+                return Mono.error(deadlineExceeded());
+            }));
+        });
+    }
+
+    /**
+     * End a stream gracefully when the deadline passes; whatever was emitted so far stands
+     */
+    public <T> Flux<T> enforceMany(Flux<T> work) {
+        return Flux.deferContextual(context -> {
+            Deadline deadline = context.getOrDefault(Deadline.class, null);
+            if (deadline == null) {
+                return work;
+            }
+            return work.takeUntilOther(Mono.delay(deadline.remaining())
+                            .doOnNext(tick -> exhaustedRequest.increment()))
+                    .onErrorResume(RequestDeadlines::isDeadlineExceeded, error -> Flux.empty());
+        });
+    }
+
+    /**
+     * Outbound filter: refuse calls once the deadline has passed and retry idempotent requests
+     * after connection failures or 502/503/504. A retry waits for the response's Retry-After
+     * and is skipped unless at least spotify.deadlines.min-retry-budget of the deadline would
+     * remain after that wait. Calls without a deadline, i.e. background work, only wait up to
+     * spotify.deadlines.background-retry-wait, since the wait holds their fair-queuing slot.
+     * A call in flight when the deadline passes is cancelled by {@link #enforce} around the
+     * whole request.
+     */
+    public ExchangeFilterFunction outbound() {
+        return (request, next) -> exchange(request, next, 0);
+    }
+
+    private Mono<ClientResponse> exchange(ClientRequest request, ExchangeFunction next, int attempt) {
+        return Mono.deferContextual(context -> {
+            Deadline deadline = context.getOrDefault(Deadline.class, null);
+            if (deadline != null && deadline.isExpired()) {
+                exhaustedUpstream.increment();
+                return Mono.error(deadlineExceeded());
+            }
+            Mono<ClientResponse> call = next.exchange(request);
+            if (attempt >= settings.getMaxRetries() || !HttpMethod.GET.equals(request.method())) {
+                return call;
+            }
+            return call
+                    .flatMap(response -> {
+                        if (!isRetryable(response.statusCode().value())) {
+                            return Mono.just(response);
+                        }
+                        Duration delay = retryAfter(
+                                response.headers().asHttpHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+                        if (!canRetry(deadline, delay)) {
+                            return Mono.just(response);
+                        }
+                        return response.releaseBody()
+                                .then(Mono.delay(delay))
+                                .then(exchange(request, next, attempt + 1));
+                    })
+                    .onErrorResume(WebClientRequestException.class, error -> canRetry(deadline, Duration.ZERO)
+                            ? exchange(request, next, attempt + 1)
+                            : Mono.error(error));
+        });
+    }
+
+    /**
+     * Whether a retry after the given wait still leaves the minimum retry budget
+     */
+    boolean canRetry(Deadline deadline, Duration delay) {
+        boolean affordable = deadline != null
+                ? deadline.remaining().minus(delay).compareTo(settings.getMinRetryBudget()) >= 0
+                : delay.compareTo(settings.getBackgroundRetryWait()) <= 0;
+        if (affordable) {
+            return true;
+        }
+        exhaustedRetry.increment();
+        return false;
+    }
+
+    /**
+     * Retry-After in seconds, as Spotify sends it; absent or unparseable means no wait
+     */
+    private static Duration retryAfter(String header) {
+        if (header == null) {
+            return Duration.ZERO;
+        }
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(header.trim())));
+        } catch (NumberFormatException e) {
+            return Duration.ZERO;
+        }
+    }
+
+    private static boolean isRetryable(int status) {
+        return status == 502 || status == 503 || status == 504;
+    }
+
+    /**
+     * Budget of a request to the endpoint given its X-Request-Timeout header, which may be null
+     */
+    Duration budget(String endpoint, String header) {
+        if (header != null) {
+            try {
+                String value = header.trim();
+                Duration requested = value.chars().allMatch(Character::isDigit)
+                        ? Duration.ofMillis(Long.parseLong(value))
+                        : DurationStyle.SIMPLE.parse(value);
+                if (!requested.isNegative()) {
+                    return requested.compareTo(settings.getMax()) > 0 ? settings.getMax() : requested;
+                }
+            } catch (IllegalArgumentException e) {
+                // malformed header: fall back to the endpoint default
+            }
+        }
+        return settings.forEndpoint(endpoint);
+    }
+
+    private static String servletHeader() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            return servletAttributes.getRequest().getHeader(HEADER);
+        }
+        return null;
+    }
+
+    private static boolean isDeadlineExceeded(Throwable error) {
+        return error instanceof SpotifyApiException spotifyError
+                && spotifyError.getErrorClass() == SpotifyApiException.ErrorClass.DEADLINE_EXCEEDED;
+    }
+
+    private static SpotifyApiException deadlineExceeded() {
+        return new SpotifyApiException(SpotifyApiException.ErrorClass.DEADLINE_EXCEEDED, 0, 0, null);
+    }
+
+    private static Counter exhaustedCounter(String stage, MeterRegistry meterRegistry) {
+        return Counter.builder("spotify.deadline.exhausted")
+                .description("Work abandoned because the request's time budget ran out")
+                .tag("stage", stage)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.music_player.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Switch-latest channel per search session: starting a new search cancels the
+ * previous in-flight search of the same session, including its upstream request.
+ * Session ids are chosen by the client, so a session is scoped to the access token it was
+ * opened with (hashed, as {@link SpotifyAuthService#tokenKey(String)}), or without a token to
+ * its caller ({@link FairUpstreamScheduler#CALLER} in the Reactor Context), and one client
+ * cannot cancel another's searches by reusing its id.
+ */
+@Service
+public class SearchSessionRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchSessionRegistry.class);
+
+    private final ConcurrentHashMap<String, Sinks.Empty<Void>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Run a search as the latest one of the given session of the access token, which may be
+     * null. The returned Mono completes empty when a newer search of the same session
+     * supersedes it.
+     */
+    public <T> Mono<T> switchLatest(String accessToken, String sessionId, Mono<T> search) {
+        if (sessionId == null || sessionId.isBlank()) {
+            return search;
+        }
+        return Mono.deferContextual(context -> {
+            String owner = accessToken != null
+                    ? "token:" + SpotifyAuthService.tokenKey(accessToken)
+                    : context.getOrDefault(FairUpstreamScheduler.CALLER, "anonymous");
+            String key = owner + " " + sessionId;
+            Sinks.Empty<Void> superseded = Sinks.empty();
+            Sinks.Empty<Void> previous = inFlight.put(key, superseded);
+            if (previous != null) {
+                logger.debug("Cancelling superseded search for session: {}", sessionId);
+                previous.tryEmitEmpty();
+            }
+            return search
+                    .takeUntilOther(superseded.asMono().then(Mono.just(Boolean.TRUE)))
+                    .doFinally(signal -> inFlight.remove(key, superseded));
+        });
+    }
+
+    /**
+     * Number of sessions with a search currently in flight
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+}
@@ -1,48 +1,124 @@
 package com.example.music_player.service;
 
+import com.example.music_player.cache.TwoLevelCache;
+import com.example.music_player.cache.TwoLevelCacheManager;
 import com.example.music_player.config.SpotifyConfig;
+import com.example.music_player.dto.SpotifyDevice;
+import com.example.music_player.dto.PlaybackProgress;
+import com.example.music_player.dto.SpotifyDevicesResponse;
+import com.example.music_player.dto.SpotifyPaging;
+import com.example.music_player.dto.SpotifyPlaybackState;
+import com.example.music_player.dto.SpotifyPlaylist;
+import com.example.music_player.dto.SpotifyPlaylistItem;
 import com.example.music_player.dto.SpotifySearchResponse;
+import com.example.music_player.dto.SpotifySearchSection;
 import com.example.music_player.dto.SpotifyTrack;
+import com.example.music_player.dto.SpotifyTracksResponse;
+import com.example.music_player.dto.SpotifyUser;
+import com.example.music_player.exception.SpotifyApiException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
-import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 
+/**
+ * Spotify Web API calls. Playback commands (and the /me lookup gating them) go through the
+ * playback lane; search, track metadata and library paging go through the metadata lane.
+ * Plays target the user's device as tracked by {@link ActiveDeviceTracker}, and every playback
+ * state read or changed here keeps the user's {@link PlaybackClock} in sync.
+ */
 @Service
 public class SpotifyApiService {
     
     private static final Logger logger = LoggerFactory.getLogger(SpotifyApiService.class);
     
+    private static final ParameterizedTypeReference<SpotifyPaging<SpotifyPlaylist>> PLAYLIST_PAGE =
+            new ParameterizedTypeReference<>() {};
+    private static final ParameterizedTypeReference<SpotifyPaging<SpotifyPlaylistItem>> ITEM_PAGE =
+            new ParameterizedTypeReference<>() {};
+    private static final String PLAYLIST_ITEM_FIELDS =
+            "total,next,items(added_at,track(id,uri,name,duration_ms,artists(id,name,uri),album(id,name,uri)))";
+    private static final List<String> SEARCH_TYPES = List.of("track", "artist", "album", "playlist");
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    
     private final SpotifyAuthService authService;
-    private final WebClient webClient;
+    private final TrackSuggestionIndex suggestionIndex;
+    private final QueryPopularityTracker popularity;
+    private final ActiveDeviceTracker deviceTracker;
+    private final PlaybackClock playbackClock;
+    private final String baseUrl;
+    private final WebClient playbackClient;
+    private final WebClient metadataClient;
+    private final TwoLevelCache<List<SpotifyTrack>> searchCache;
+    private final TwoLevelCache<SpotifySearchSection<?>> searchSectionCache;
+    private final TwoLevelCache<SpotifyTrack> trackCache;
+    private final TwoLevelCache<SpotifyUser> userCache;
     
-    public SpotifyApiService(SpotifyConfig spotifyConfig, SpotifyAuthService authService) {
+    public SpotifyApiService(SpotifyConfig spotifyConfig, SpotifyAuthService authService,
+                             TrackSuggestionIndex suggestionIndex, TwoLevelCacheManager cacheManager,
+                             QueryPopularityTracker popularity,
+                             ActiveDeviceTracker deviceTracker, PlaybackClock playbackClock,
+                             @Qualifier("playbackWebClient") WebClient playbackClient,
+                             @Qualifier("metadataWebClient") WebClient metadataClient) {
         this.authService = authService;
-        this.webClient = WebClient.builder()
-                .baseUrl(spotifyConfig.getBaseUrl())
-                .build();
+        this.suggestionIndex = suggestionIndex;
+        this.popularity = popularity;
+        this.deviceTracker = deviceTracker;
+        this.playbackClock = playbackClock;
+        this.baseUrl = spotifyConfig.getBaseUrl();
+        this.playbackClient = playbackClient;
+        this.metadataClient = metadataClient;
+        this.searchCache = cacheManager.getCache("search", spotifyConfig.getCache().getSearchTtl());
+        this.searchSectionCache = cacheManager.getCache("search-sections", spotifyConfig.getCache().getSearchTtl());
+        this.trackCache = cacheManager.getCache("tracks", spotifyConfig.getCache().getTrackTtl());
+        this.userCache = cacheManager.getCache("users", Duration.ofMinutes(50));
     }
     
     /**
      * Search for tracks by query
      */
     public Mono<List<SpotifyTrack>> searchTracks(String query, int limit) {
+        int effectiveLimit = Math.min(limit, 50);
+        String key = searchKey(query, effectiveLimit);
+        popularity.recordSearch(key);
+        return searchCache.get(key, () -> fetchSearchTracks(query, effectiveLimit))
+                .doOnSuccess(tracks -> {
+                    logger.info("Found {} tracks for query: {}", tracks.size(), query);
+                    suggestionIndex.indexTracks(tracks);
+                })
+                .doOnCancel(() -> logger.debug("Search cancelled for query: {}", query));
+    }
+    
+    private Mono<List<SpotifyTrack>> fetchSearchTracks(String query, int limit) {
         return authService.getClientCredentialsToken()
                 .flatMap(token -> 
-                    webClient.get()
+                    metadataClient.get()
                             .uri(uriBuilder -> uriBuilder
                                     .path("/search")
                                     .queryParam("q", query)
                                     .queryParam("type", "track")
-                                    .queryParam("limit", Math.min(limit, 50))
+                                    .queryParam("limit", limit)
                                     .build())
                             .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
                             .retrieve()
@@ -52,143 +128,570 @@ public class SpotifyApiService {
                         return response.getTracks().getItems();
                     }
                     return Collections.<SpotifyTrack>emptyList();
-                })
-                .doOnSuccess(tracks -> logger.info("Found {} tracks for query: {}", tracks.size(), query))
-                .doOnError(error -> logger.error("Error searching tracks for query: {}", query, error));
+                });
+    }
+    
+    /**
+     * Search several types at once. Each type is a separately cached section fetched with its
+     * own upstream call, so sections already cached are emitted immediately and each missing
+     * one follows as soon as its call completes.
+     */
+    public Flux<SpotifySearchSection<?>> searchSections(String query, List<String> types, int limit) {
+        int effectiveLimit = Math.min(limit, 50);
+        List<String> requested = new ArrayList<>();
+        for (String type : types) {
+            if (!isSearchType(type)) {
+                return Flux.error(new IllegalArgumentException("Unsupported search type: " + type));
+            }
+            String normalized = type.trim().toLowerCase(Locale.ROOT);
+            if (!requested.contains(normalized)) {
+                requested.add(normalized);
+            }
+        }
+        
+        return Flux.defer(() -> {
+            List<SpotifySearchSection<?>> cached = new ArrayList<>();
+            List<String> missing = new ArrayList<>();
+            for (String type : requested) {
+                SpotifySearchSection<?> section = searchSectionCache.peek(sectionKey(type, query, effectiveLimit));
+                if (section != null) {
+                    cached.add(section);
+                } else {
+                    missing.add(type);
+                }
+            }
+            return Flux.fromIterable(cached).mergeWith(Flux.fromIterable(missing)
+                    .flatMap(type -> searchSectionCache.get(sectionKey(type, query, effectiveLimit),
+                            () -> fetchSearch(query, type, effectiveLimit)
+                                    .<SpotifySearchSection<?>>map(response -> toSection(type, response))
+                                    .doOnNext(this::indexSection))));
+        })
+                .doOnComplete(() -> logger.info("Searched {} for query: {}", requested, query));
+    }
+    
+    /**
+     * Whether a type can be requested from searchSections (track, artist, album, playlist)
+     */
+    public static boolean isSearchType(String type) {
+        return type != null && SEARCH_TYPES.contains(type.trim().toLowerCase(Locale.ROOT));
+    }
+    
+    private Mono<SpotifySearchResponse> fetchSearch(String query, String type, int limit) {
+        return authService.getClientCredentialsToken()
+                .flatMap(token -> 
+                    metadataClient.get()
+                            .uri(uriBuilder -> uriBuilder
+                                    .path("/search")
+                                    .queryParam("q", query)
+                                    .queryParam("type", type)
+                                    .queryParam("limit", limit)
+                                    .build())
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                            .retrieve()
+                            .bodyToMono(SpotifySearchResponse.class));
+    }
+    
+    private static SpotifySearchSection<?> toSection(String type, SpotifySearchResponse response) {
+        return switch (type) {
+            case "track" -> response.getTracks() != null
+                    ? new SpotifySearchSection.Tracks(present(response.getTracks().getItems()),
+                            response.getTracks().getTotal())
+                    : new SpotifySearchSection.Tracks(List.of(), 0);
+            case "artist" -> new SpotifySearchSection.Artists(present(response.getArtists()), total(response.getArtists()));
+            case "album" -> new SpotifySearchSection.Albums(present(response.getAlbums()), total(response.getAlbums()));
+            default -> new SpotifySearchSection.Playlists(present(response.getPlaylists()), total(response.getPlaylists()));
+        };
+    }
+    
+    private static <T> List<T> present(SpotifyPaging<T> paging) {
+        return paging != null ? present(paging.getItems()) : List.of();
+    }
+    
+    private static <T> List<T> present(List<T> items) {
+        // Spotify pads some result lists (notably playlists) with nulls
+        return items != null ? items.stream().filter(Objects::nonNull).toList() : List.of();
+    }
+    
+    private static int total(SpotifyPaging<?> paging) {
+        return paging != null ? paging.getTotal() : 0;
+    }
+    
+    private void indexSection(SpotifySearchSection<?> section) {
+        if (section instanceof SpotifySearchSection.Tracks tracks) {
+            suggestionIndex.indexTracks(tracks.getItems());
+        } else if (section instanceof SpotifySearchSection.Artists artists) {
+            artists.getItems().forEach(artist ->
+                    suggestionIndex.add("artist", artist.getId(), artist.getName(), artist.getUri()));
+        } else if (section instanceof SpotifySearchSection.Albums albums) {
+            albums.getItems().forEach(album ->
+                    suggestionIndex.add("album", album.getId(), album.getName(), album.getUri()));
+        } else if (section instanceof SpotifySearchSection.Playlists playlists) {
+            playlists.getItems().forEach(playlist ->
+                    suggestionIndex.add("playlist", playlist.getId(), playlist.getName(), playlist.getUri()));
+        }
     }
     
     /**
      * Get track information by ID
      */
     public Mono<SpotifyTrack> getTrack(String trackId) {
+        popularity.recordTrack(trackId);
+        return trackCache.get(trackId, () -> fetchTrack(trackId))
+                .doOnSuccess(track -> {
+                    logger.info("Retrieved track: {}", track.getName());
+                    suggestionIndex.indexTrack(track);
+                });
+    }
+    
+    private Mono<SpotifyTrack> fetchTrack(String trackId) {
         return authService.getClientCredentialsToken()
                 .flatMap(token -> 
-                    webClient.get()
+                    metadataClient.get()
                             .uri("/tracks/{id}", trackId)
                             .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
                             .retrieve()
-                            .bodyToMono(SpotifyTrack.class)
-                            .doOnSuccess(track -> logger.info("Retrieved track: {}", track.getName()))
-                            .doOnError(error -> logger.error("Error retrieving track with ID: {}", trackId, error))
-                );
+                            .bodyToMono(SpotifyTrack.class));
+    }
+    
+    /**
+     * Load a search result into the cache without counting it as traffic. With refresh the
+     * result is fetched again even when cached, resetting its time to live.
+     */
+    public Mono<Void> preloadSearch(String searchKey, boolean refresh) {
+        return Mono.defer(() -> {
+            int separator = searchKey.lastIndexOf('|');
+            String query = searchKey.substring(0, separator);
+            int limit = Integer.parseInt(searchKey.substring(separator + 1));
+            if (refresh) {
+                return fetchSearchTracks(query, limit).flatMap(tracks -> searchCache.put(searchKey, tracks));
+            }
+            return searchCache.get(searchKey, () -> fetchSearchTracks(query, limit)).then();
+        });
+    }
+    
+    /**
+     * Load a track into the cache without counting it as traffic; see preloadSearch
+     */
+    public Mono<Void> preloadTrack(String trackId, boolean refresh) {
+        if (refresh) {
+            return fetchTrack(trackId).flatMap(track -> trackCache.put(trackId, track));
+        }
+        return trackCache.get(trackId, () -> fetchTrack(trackId)).then();
+    }
+    
+    /**
+     * Remaining time to live of a cached search result on this node
+     */
+    public Duration remainingSearchTtl(String searchKey) {
+        return searchCache.remainingTtl(searchKey);
+    }
+    
+    /**
+     * Remaining time to live of a cached track on this node
+     */
+    public Duration remainingTrackTtl(String trackId) {
+        return trackCache.remainingTtl(trackId);
+    }
+    
+    /**
+     * Get a track from this node's cache without any upstream call, or null
+     */
+    public SpotifyTrack getCachedTrack(String trackId) {
+        return trackId != null ? trackCache.peek(trackId) : null;
+    }
+    
+    /**
+     * Get several tracks by ID, in order. Cached tracks are served locally and the rest are
+     * fetched with batched /tracks?ids= calls (at most 50 IDs per call).
+     */
+    public Mono<List<SpotifyTrack>> getTracks(List<String> trackIds) {
+        List<String> missing = new ArrayList<>();
+        for (String trackId : trackIds) {
+            if (trackCache.peek(trackId) == null && !missing.contains(trackId)) {
+                missing.add(trackId);
+            }
+        }
+        
+        List<List<String>> batches = new ArrayList<>();
+        for (int i = 0; i < missing.size(); i += 50) {
+            batches.add(missing.subList(i, Math.min(i + 50, missing.size())));
+        }
+        
+        return Flux.fromIterable(batches)
+                .concatMap(this::fetchTrackBatch)
+                .collectMap(SpotifyTrack::getId)
+                .map(fetched -> {
+                    List<SpotifyTrack> tracks = new ArrayList<>(trackIds.size());
+                    for (String trackId : trackIds) {
+                        SpotifyTrack track = fetched.containsKey(trackId) ? fetched.get(trackId) : trackCache.peek(trackId);
+                        if (track != null) {
+                            tracks.add(track);
+                        }
+                    }
+                    return tracks;
+                })
+                .doOnSuccess(tracks -> logger.info("Retrieved {} tracks ({} fetched in {} batches)",
+                        tracks.size(), missing.size(), batches.size()));
+    }
+    
+    private Flux<SpotifyTrack> fetchTrackBatch(List<String> trackIds) {
+        return authService.getClientCredentialsToken()
+                .flatMap(token -> 
+                    metadataClient.get()
+                            .uri(uriBuilder -> uriBuilder
+                                    .path("/tracks")
+                                    .queryParam("ids", String.join(",", trackIds))
+                                    .build())
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                            .retrieve()
+                            .bodyToMono(SpotifyTracksResponse.class))
+                .flatMapIterable(response -> response.getTracks() != null
+                        ? response.getTracks().stream().filter(Objects::nonNull).toList()
+                        : Collections.<SpotifyTrack>emptyList())
+                .concatMap(track -> {
+                    suggestionIndex.indexTrack(track);
+                    return trackCache.put(track.getId(), track).thenReturn(track);
+                });
+    }
+    
+    /**
+     * Get the Spotify user owning an access token (cached for the token's lifetime)
+     */
+    public Mono<SpotifyUser> getCurrentUser(String accessToken) {
+        return userCache.get(SpotifyAuthService.tokenKey(accessToken), () -> playbackClient.get()
+                        .uri("/me")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
+                        .retrieve()
+                        .bodyToMono(SpotifyUser.class));
     }
     
     /**
-     * Play a track on user's active device
+     * User ID of an access token if already resolved, without calling Spotify
+     */
+    public String cachedUserId(String accessToken) {
+        SpotifyUser user = userCache.peek(SpotifyAuthService.tokenKey(accessToken));
+        return user != null ? user.getId() : null;
+    }
+    
+    /**
+     * Play a track on the user's device
      */
     public Mono<Void> playTrack(String trackUri, String accessToken) {
-        Map<String, Object> playRequest = Map.of(
-            "uris", List.of(trackUri)
-        );
+        return playTrack(trackUri, null, accessToken);
+    }
+    
+    /**
+     * Play a track on the given device, or on the user's last known device when deviceId is
+     * null. When Spotify reports no active device, or no longer knows the tracked one, playback
+     * is recovered once by transferring to a usable device and playing there.
+     */
+    public Mono<Void> playTrack(String trackUri, String deviceId, String accessToken) {
+        return playTrack(trackUri, deviceId, null, accessToken);
+    }
+    
+    /**
+     * Same as {@link #playTrack(String, String, String)}, starting at positionMs when not null
+     */
+    public Mono<Void> playTrack(String trackUri, String deviceId, Integer positionMs, String accessToken) {
+        return getCurrentUser(accessToken).flatMap(user -> {
+            String target = deviceId != null ? deviceId : deviceTracker.lastDevice(user.getId());
+            return play(trackUri, target, positionMs, accessToken)
+                    .doOnSuccess(v -> deviceTracker.remember(user.getId(), target))
+                    .onErrorResume(error -> isDeviceUnavailable(error, target, deviceId != null),
+                            error -> recoverPlayback(user.getId(), trackUri, positionMs, deviceId, target,
+                                    accessToken, error));
+        });
+    }
+    
+    /**
+     * Transfer to the requested device, or to the best one from a fresh device list, then play
+     */
+    private Mono<Void> recoverPlayback(String userId, String trackUri, Integer positionMs, String requestedDevice,
+                                       String failedDevice, String accessToken, Throwable failure) {
+        deviceTracker.forget(userId, failedDevice);
+        Mono<String> device = requestedDevice != null
+                ? Mono.just(requestedDevice)
+                : fetchDevices(accessToken).mapNotNull(devices -> deviceTracker.observeDevices(userId, devices));
+        return device
+                .switchIfEmpty(Mono.error(failure))
+                .flatMap(target -> {
+                    logger.info("No usable device for playback, transferring to device: {}", target);
+                    return transfer(target, false, accessToken)
+                            .then(play(trackUri, target, positionMs, accessToken))
+                            .doOnSuccess(v -> deviceTracker.remember(userId, target));
+                });
+    }
+    
+    /**
+     * A missing active device is recoverable; a 404 is too when the device was only our guess.
+     * Shared by every path that picks a device, so they all recover from the same failures.
+     */
+    static boolean isDeviceUnavailable(Throwable error, String target, boolean requested) {
+        if (!(error instanceof SpotifyApiException spotifyError)) {
+            return false;
+        }
+        return spotifyError.getErrorClass() == SpotifyApiException.ErrorClass.NO_ACTIVE_DEVICE
+                || spotifyError.getErrorClass() == SpotifyApiException.ErrorClass.NOT_FOUND
+                        && target != null && !requested;
+    }
+    
+    private Mono<Void> play(String trackUri, String deviceId, Integer positionMs, String accessToken) {
+        Map<String, Object> playRequest = positionMs != null
+                ? Map.of("uris", List.of(trackUri), "position_ms", positionMs)
+                : Map.of("uris", List.of(trackUri));
         
-        return webClient.put()
-                .uri("/me/player/play")
+        return playbackClient.put()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/me/player/play")
+                        .queryParamIfPresent("device_id", Optional.ofNullable(deviceId))
+                        .build())
                 .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
                 .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
                 .bodyValue(playRequest)
                 .retrieve()
                 .toBodilessEntity()
-                .then()
-                .doOnSuccess(v -> logger.info("Successfully started playing track: {}", trackUri))
-                .doOnError(error -> {
-                    if (error instanceof WebClientResponseException wcre) {
-                        logger.error("Error playing track: {} - Status: {} - Body: {}", 
-                                   trackUri, wcre.getStatusCode(), wcre.getResponseBodyAsString());
-                    } else {
-                        logger.error("Error playing track: {}", trackUri, error);
-                    }
-                });
+                .then(invalidateClock(accessToken))
+                .doOnSuccess(v -> logger.info("Successfully started playing track: {}", trackUri));
     }
     
     /**
      * Pause playback
      */
     public Mono<Void> pausePlayback(String accessToken) {
-        return webClient.put()
+        return playbackClient.put()
                 .uri("/me/player/pause")
                 .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
                 .retrieve()
                 .toBodilessEntity()
-                .then()
-                .doOnSuccess(v -> logger.info("Playback paused"))
-                .doOnError(error -> logger.error("Error pausing playback", error));
+                .then(invalidateClock(accessToken))
+                .doOnSuccess(v -> logger.info("Playback paused"));
     }
     
     /**
      * Resume playback
      */
     public Mono<Void> resumePlayback(String accessToken) {
-        return webClient.put()
+        return playbackClient.put()
                 .uri("/me/player/play")
                 .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
                 .retrieve()
                 .toBodilessEntity()
+                .then(invalidateClock(accessToken))
+                .doOnSuccess(v -> logger.info("Playback resumed"));
+    }
+    
+    /**
+     * A command changed the playback state, so the user's clock resyncs on its next query. The
+     * user is resolved, from the cache unless it lapsed, so the clock is always found.
+     */
+    private Mono<Void> invalidateClock(String accessToken) {
+        return Mono.defer(() -> getCurrentUser(accessToken))
+                .doOnNext(user -> playbackClock.invalidate(user.getId()))
                 .then()
-                .doOnSuccess(v -> logger.info("Playback resumed"))
-                .doOnError(error -> logger.error("Error resuming playback", error));
+                .onErrorResume(error -> {
+                    logger.debug("Could not resolve the user to resync the playback clock: {}", error.toString());
+                    return Mono.empty();
+                });
+    }
+    
+    /**
+     * Get current playback state; empty when nothing is playing
+     */
+    public Mono<SpotifyPlaybackState> getCurrentPlayback(String accessToken) {
+        return fetchPlayback(accessToken).mapNotNull(PlaybackBody::state);
     }
     
     /**
-     * Get current playback state
+     * Current playback state exactly as Spotify sent it, including the fields the typed state
+     * leaves out (context, actions, ...); empty when nothing is playing
      */
-    public Mono<String> getCurrentPlayback(String accessToken) {
-        return webClient.get()
+    public Mono<String> getCurrentPlaybackJson(String accessToken) {
+        return fetchPlayback(accessToken).map(PlaybackBody::json);
+    }
+    
+    private Mono<PlaybackBody> fetchPlayback(String accessToken) {
+        return playbackClient.get()
                 .uri("/me/player")
                 .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
                 .retrieve()
                 .bodyToMono(String.class)
-                .doOnSuccess(state -> logger.info("Retrieved current playback state"))
-                .doOnError(error -> logger.error("Error getting current playback state", error));
+                .map(json -> new PlaybackBody(json, readPlayback(json)))
+                .doOnSuccess(body -> {
+                    String userId = cachedUserId(accessToken);
+                    SpotifyPlaybackState state = body != null ? body.state() : null;
+                    deviceTracker.observePlayback(userId, state);
+                    playbackClock.observe(userId, state);
+                    logger.info("Retrieved current playback state");
+                });
+    }
+    
+    private static SpotifyPlaybackState readPlayback(String json) {
+        try {
+            return MAPPER.readValue(json, SpotifyPlaybackState.class);
+        } catch (JsonProcessingException e) {
+            throw new SpotifyApiException("Unreadable playback state: " + e.getOriginalMessage(), e);
+        }
+    }
+    
+    private record PlaybackBody(String json, SpotifyPlaybackState state) {
+    }
+    
+    /**
+     * Playback progress from the user's local clock; /me/player is only called to resync it
+     */
+    public Mono<PlaybackProgress> getPlaybackProgress(String accessToken) {
+        return getCurrentUser(accessToken)
+                .flatMap(user -> playbackClock.progress(user.getId(), () -> getCurrentPlayback(accessToken)));
     }
     
     /**
      * Get user's available devices
      */
     public Mono<String> getAvailableDevices(String accessToken) {
-        return webClient.get()
+        return playbackClient.get()
                 .uri("/me/player/devices")
                 .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
                 .retrieve()
                 .bodyToMono(String.class)
-                .doOnSuccess(devices -> logger.info("Retrieved available devices"))
-                .doOnError(error -> logger.error("Error getting available devices", error));
+                .doOnNext(devices -> deviceTracker.observeDevices(cachedUserId(accessToken), devices))
+                .doOnSuccess(devices -> logger.info("Retrieved available devices"));
+    }
+    
+    /**
+     * Get user's available devices as typed objects
+     */
+    public Mono<List<SpotifyDevice>> getDevices(String accessToken) {
+        return fetchDevices(accessToken)
+                .doOnNext(devices -> deviceTracker.observeDevices(cachedUserId(accessToken), devices));
+    }
+    
+    /**
+     * The device list without recording it, for callers that pick a device themselves
+     */
+    private Mono<List<SpotifyDevice>> fetchDevices(String accessToken) {
+        return playbackClient.get()
+                .uri("/me/player/devices")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
+                .retrieve()
+                .bodyToMono(SpotifyDevicesResponse.class)
+                .map(response -> response.getDevices() != null
+                        ? response.getDevices() : Collections.<SpotifyDevice>emptyList());
     }
     
     /**
      * Transfer playback to a specific device
      */
     public Mono<Void> transferPlayback(String deviceId, String accessToken) {
+        return transfer(deviceId, true, accessToken)
+                .doOnSuccess(v -> deviceTracker.remember(cachedUserId(accessToken), deviceId));
+    }
+    
+    private Mono<Void> transfer(String deviceId, boolean play, String accessToken) {
         Map<String, Object> transferRequest = Map.of(
             "device_ids", List.of(deviceId),
-            "play", true
+            "play", play
         );
         
-        return webClient.put()
+        return playbackClient.put()
                 .uri("/me/player")
                 .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
                 .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
                 .bodyValue(transferRequest)
                 .retrieve()
                 .toBodilessEntity()
-                .then()
-                .doOnSuccess(v -> logger.info("Transferred playback to device: {}", deviceId))
-                .doOnError(error -> logger.error("Error transferring playback to device: {}", deviceId, error));
+                .then(invalidateClock(accessToken))
+                .doOnSuccess(v -> logger.info("Transferred playback to device: {}", deviceId));
     }
     
     /**
      * Set volume for playback
      */
     public Mono<Void> setVolume(int volumePercent, String accessToken) {
-        return webClient.put()
+        return setVolume(volumePercent, null, accessToken);
+    }
+    
+    /**
+     * Set volume on the given device, or on the active device when deviceId is null
+     */
+    public Mono<Void> setVolume(int volumePercent, String deviceId, String accessToken) {
+        return playbackClient.put()
                 .uri(uriBuilder -> uriBuilder
                         .path("/me/player/volume")
                         .queryParam("volume_percent", Math.max(0, Math.min(100, volumePercent)))
+                        .queryParamIfPresent("device_id", Optional.ofNullable(deviceId))
                         .build())
                 .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
                 .retrieve()
                 .toBodilessEntity()
                 .then()
-                .doOnSuccess(v -> logger.info("Set volume to {}%", volumePercent))
-                .doOnError(error -> logger.error("Error setting volume to {}%", volumePercent, error));
+                .doOnSuccess(v -> logger.info("Set volume to {}%", volumePercent));
+    }
+    
+    /**
+     * Seek within the current track on the given device, or on the active device when deviceId is null
+     */
+    public Mono<Void> seek(int positionMs, String deviceId, String accessToken) {
+        return playbackClient.put()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/me/player/seek")
+                        .queryParam("position_ms", Math.max(0, positionMs))
+                        .queryParamIfPresent("device_id", Optional.ofNullable(deviceId))
+                        .build())
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
+                .retrieve()
+                .toBodilessEntity()
+                .then(invalidateClock(accessToken))
+                .doOnSuccess(v -> logger.info("Seeked to {} ms", positionMs));
+    }
+    
+    /**
+     * Get a page of the user's playlists. Pass the previous page's next URL, or null for the first page.
+     */
+    public Mono<SpotifyPaging<SpotifyPlaylist>> getPlaylistsPage(String pageUrl, String accessToken) {
+        URI uri = pageUrl != null ? URI.create(pageUrl) : URI.create(baseUrl + "/me/playlists?limit=50");
+        return getPage(uri, PLAYLIST_PAGE, accessToken);
+    }
+    
+    /**
+     * Get a page of a playlist's items, restricted to the fields the library sync needs
+     */
+    public Mono<SpotifyPaging<SpotifyPlaylistItem>> getPlaylistItemsPage(String playlistId, String pageUrl,
+                                                                         String accessToken) {
+        URI uri = pageUrl != null ? URI.create(pageUrl) : playlistItemsUri(playlistId);
+        return getPage(uri, ITEM_PAGE, accessToken);
+    }
+    
+    /**
+     * Get a page of the user's saved tracks, most recently saved first
+     */
+    public Mono<SpotifyPaging<SpotifyPlaylistItem>> getSavedTracksPage(String pageUrl, String accessToken) {
+        URI uri = pageUrl != null ? URI.create(pageUrl) : URI.create(baseUrl + "/me/tracks?limit=50");
+        return getPage(uri, ITEM_PAGE, accessToken);
+    }
+    
+    private <T> Mono<SpotifyPaging<T>> getPage(URI uri, ParameterizedTypeReference<SpotifyPaging<T>> type,
+                                               String accessToken) {
+        return metadataClient.get()
+                .uri(uri)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
+                .retrieve()
+                .bodyToMono(type);
+    }
+    
+    private URI playlistItemsUri(String playlistId) {
+        return UriComponentsBuilder.fromUriString(baseUrl + "/playlists/{id}/tracks")
+                .queryParam("limit", 100)
+                .queryParam("fields", PLAYLIST_ITEM_FIELDS)
+                .encode()
+                .buildAndExpand(playlistId)
+                .toUri();
+    }
+    
+    private static String searchKey(String query, int limit) {
+        return query.trim().toLowerCase(Locale.ROOT) + "|" + limit;
+    }
+    
+    private static String sectionKey(String type, String query, int limit) {
+        return type + "|" + searchKey(query, limit);
     }
-}
\ No newline at end of file
+}
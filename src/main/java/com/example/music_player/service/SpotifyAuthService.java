@@ -1,9 +1,12 @@
 package com.example.music_player.service;
 
+import com.example.music_player.cache.TwoLevelCache;
+import com.example.music_player.cache.TwoLevelCacheManager;
 import com.example.music_player.config.SpotifyConfig;
 import com.example.music_player.dto.SpotifyTokenResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.util.LinkedMultiValueMap;
@@ -13,8 +16,11 @@ import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.util.Base64;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.HexFormat;
 
 @Service
 public class SpotifyAuthService {
@@ -23,17 +29,25 @@ public class SpotifyAuthService {
     
     private final SpotifyConfig spotifyConfig;
     private final WebClient webClient;
-    private final ConcurrentHashMap<String, SpotifyTokenResponse> tokenCache = new ConcurrentHashMap<>();
+    private final TwoLevelCache<SpotifyTokenResponse> tokenCache;
     
-    public SpotifyAuthService(SpotifyConfig spotifyConfig) {
+    public SpotifyAuthService(SpotifyConfig spotifyConfig, TwoLevelCacheManager cacheManager,
+                              @Qualifier("authWebClient") WebClient webClient) {
         this.spotifyConfig = spotifyConfig;
-        this.webClient = WebClient.builder().build();
+        this.webClient = webClient;
+        this.tokenCache = cacheManager.getCache("tokens", Duration.ofMinutes(50));
     }
     
     /**
-     * Get access token using Client Credentials flow (for app-only access)
+     * Get access token using Client Credentials flow (for app-only access).
+     * The token is shared across nodes and reused until shortly before it expires.
      */
     public Mono<String> getClientCredentialsToken() {
+        return tokenCache.get("client_credentials", this::fetchClientCredentialsToken, this::tokenTtl)
+                .map(SpotifyTokenResponse::getAccessToken);
+    }
+    
+    private Mono<SpotifyTokenResponse> fetchClientCredentialsToken() {
         return webClient.post()
                 .uri(spotifyConfig.getAuthUrl())
                 .header("Authorization", "Basic " + getBasicAuthHeader())
@@ -41,12 +55,7 @@ public class SpotifyAuthService {
                 .body(BodyInserters.fromFormData(createClientCredentialsBody()))
                 .retrieve()
                 .bodyToMono(SpotifyTokenResponse.class)
-                .doOnSuccess(response -> {
-                    logger.info("Successfully obtained client credentials token");
-                    tokenCache.put("client_credentials", response);
-                })
-                .doOnError(error -> logger.error("Error obtaining client credentials token", error))
-                .map(SpotifyTokenResponse::getAccessToken);
+                .doOnSuccess(response -> logger.info("Successfully obtained client credentials token"));
     }
     
     /**
@@ -65,11 +74,8 @@ public class SpotifyAuthService {
                 .body(BodyInserters.fromFormData(body))
                 .retrieve()
                 .bodyToMono(SpotifyTokenResponse.class)
-                .doOnSuccess(response -> {
-                    logger.info("Successfully exchanged code for token");
-                    tokenCache.put("user_token", response);
-                })
-                .doOnError(error -> logger.error("Error exchanging code for token", error));
+                .flatMap(response -> storeSession(response).thenReturn(response))
+                .doOnSuccess(response -> logger.info("Successfully exchanged code for token"));
     }
     
     /**
@@ -87,18 +93,35 @@ public class SpotifyAuthService {
                 .body(BodyInserters.fromFormData(body))
                 .retrieve()
                 .bodyToMono(SpotifyTokenResponse.class)
-                .doOnSuccess(response -> {
-                    logger.info("Successfully refreshed token");
-                    tokenCache.put("user_token", response);
+                .doOnNext(response -> {
+                    // Spotify only returns a refresh token when it rotates it
+                    if (response.getRefreshToken() == null) {
+                        response.setRefreshToken(refreshToken);
+                    }
                 })
-                .doOnError(error -> logger.error("Error refreshing token", error));
+                .doOnSuccess(response -> logger.info("Successfully refreshed token"));
+    }
+    
+    /**
+     * Refresh the session an access token belongs to, on whichever node handled the callback.
+     * The refresh token stays on the server; the new token replaces the old one. Completes
+     * empty when the access token belongs to no known session.
+     */
+    public Mono<SpotifyTokenResponse> refreshSession(String accessToken) {
+        String key = sessionKey(accessToken);
+        return tokenCache.get(key, Mono::empty)
+                .flatMap(session -> refreshToken(session.getRefreshToken()))
+                .flatMap(response -> storeSession(response)
+                        .then(tokenCache.invalidate(key))
+                        .thenReturn(response));
     }
     
     /**
      * Get authorization URL for user login
      */
     public String getAuthorizationUrl(String state) {
-        String scopes = "user-read-playback-state user-modify-playback-state user-read-currently-playing";
+        String scopes = "user-read-playback-state user-modify-playback-state user-read-currently-playing "
+                + "playlist-read-private user-library-read";
         
         return spotifyConfig.getAuthorizeUrl() + 
                "?response_type=code" +
@@ -109,17 +132,37 @@ public class SpotifyAuthService {
     }
     
     /**
-     * Get cached user token
+     * Cache key for an access token: a truncated SHA-256, so raw tokens never appear in
+     * shared-tier keys
      */
-    public SpotifyTokenResponse getCachedUserToken() {
-        return tokenCache.get("user_token");
+    public static String tokenKey(String accessToken) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(accessToken.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
     
     /**
-     * Clear cached tokens
+     * Keep the full token response, refresh token included, for as long as the session may be
+     * refreshed, under a hash of its access token
      */
-    public void clearTokenCache() {
-        tokenCache.clear();
+    private Mono<Void> storeSession(SpotifyTokenResponse response) {
+        if (response.getRefreshToken() == null) {
+            return Mono.empty();
+        }
+        return tokenCache.put(sessionKey(response.getAccessToken()), response, spotifyConfig.getCache().getSessionTtl());
+    }
+    
+    private static String sessionKey(String accessToken) {
+        return "session:" + tokenKey(accessToken);
+    }
+    
+    private Duration tokenTtl(SpotifyTokenResponse response) {
+        Duration ttl = Duration.ofSeconds(response.getExpiresIn())
+                .minus(spotifyConfig.getCache().getTokenExpiryMargin());
+        return ttl.isNegative() || ttl.isZero() ? Duration.ofSeconds(1) : ttl;
     }
     
     private String getBasicAuthHeader() {
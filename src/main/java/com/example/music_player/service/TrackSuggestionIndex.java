@@ -0,0 +1,303 @@
+package com.example.music_player.service;
+
+import com.example.music_player.config.SpotifyConfig;
+import com.example.music_player.dto.SpotifySuggestion;
+import com.example.music_player.dto.SpotifyTrack;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory prefix index over every track, artist, album and playlist name the service has
+ * seen. Writers add entries concurrently and readers never take a lock; only evictions are
+ * serialized. Once full, the least popular and least recently seen entries make room for new
+ * names.
+ */
+@Service
+public class TrackSuggestionIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrackSuggestionIndex.class);
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern TOKEN_SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Comparator<Ranked> RANKING = Comparator.comparingDouble(Ranked::score).reversed()
+            .thenComparing(ranked -> ranked.entry().name);
+    private static final Comparator<Entry> EVICTION_ORDER = Comparator.comparingLong((Entry entry) -> entry.hits.sum())
+            .thenComparingLong(entry -> entry.lastSeen);
+
+    private final int maxEntries;
+    private final int defaultLimit;
+    private final int maxCandidates;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<String, Set<Entry>> tokenIndex = new ConcurrentSkipListMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong clock = new AtomicLong();
+
+    public TrackSuggestionIndex(SpotifyConfig spotifyConfig) {
+        this.maxEntries = spotifyConfig.getSuggest().getMaxEntries();
+        this.defaultLimit = spotifyConfig.getSuggest().getDefaultLimit();
+        this.maxCandidates = spotifyConfig.getSuggest().getMaxCandidates();
+    }
+
+    /**
+     * Index tracks together with their artists and album
+     */
+    public void indexTracks(List<SpotifyTrack> tracks) {
+        if (tracks == null) {
+            return;
+        }
+        for (SpotifyTrack track : tracks) {
+            indexTrack(track);
+        }
+    }
+
+    /**
+     * Index a single track together with its artists and album
+     */
+    public void indexTrack(SpotifyTrack track) {
+        if (track == null) {
+            return;
+        }
+        add("track", track.getId(), track.getName(), track.getUri());
+        if (track.getArtists() != null) {
+            for (SpotifyTrack.SpotifyArtist artist : track.getArtists()) {
+                add("artist", artist.getId(), artist.getName(), artist.getUri());
+            }
+        }
+        if (track.getAlbum() != null) {
+            add("album", track.getAlbum().getId(), track.getAlbum().getName(), track.getAlbum().getUri());
+        }
+    }
+
+    /**
+     * Index an arbitrary named entity, bumping its popularity if already known
+     */
+    public void add(String type, String id, String name, String uri) {
+        if (id == null || name == null || name.isBlank()) {
+            return;
+        }
+        String key = type + ":" + id;
+        Entry existing = entries.get(key);
+        if (existing != null) {
+            existing.touch(clock.incrementAndGet());
+            return;
+        }
+        if (size.get() >= maxEntries) {
+            evict();
+        }
+        Entry entry = new Entry(key, type, id, name, uri, normalize(name), clock.incrementAndGet());
+        Entry raced = entries.putIfAbsent(key, entry);
+        if (raced != null) {
+            raced.touch(clock.incrementAndGet());
+            return;
+        }
+        size.incrementAndGet();
+        for (String token : entry.tokens) {
+            // inside compute so an eviction cannot drop the bucket between lookup and insert
+            tokenIndex.compute(token, (t, bucket) -> {
+                Set<Entry> target = bucket != null ? bucket : ConcurrentHashMap.<Entry>newKeySet();
+                target.add(entry);
+                return target;
+            });
+        }
+        // an eviction that removed the entry while its tokens were still being added may have
+        // missed some of them; evictions unindex only after removing the entry, so checking
+        // afterwards leaves no token behind either way
+        if (entries.get(key) != entry) {
+            unindex(entry);
+        }
+    }
+
+    /**
+     * Ranked suggestions for a (partial) query, using the configured default limit
+     */
+    public List<SpotifySuggestion> suggest(String query) {
+        return suggest(query, defaultLimit);
+    }
+
+    /**
+     * Ranked suggestions for a (partial) query. The last word is matched as a prefix,
+     * every preceding word must prefix some word of the indexed name. At most
+     * spotify.suggest.max-candidates matches are ranked, so a short prefix of a huge index stays
+     * cheap; they are taken in word order, starting with names containing the word itself.
+     */
+    public List<SpotifySuggestion> suggest(String query, int limit) {
+        if (query == null || limit <= 0) {
+            return Collections.emptyList();
+        }
+        String normalizedQuery = normalize(query);
+        List<String> queryTokens = tokenize(normalizedQuery);
+        if (queryTokens.isEmpty()) {
+            return Collections.emptyList();
+        }
+        String lastToken = queryTokens.get(queryTokens.size() - 1);
+        List<String> leadingTokens = queryTokens.subList(0, queryTokens.size() - 1);
+
+        ConcurrentNavigableMap<String, Set<Entry>> range =
+                tokenIndex.subMap(lastToken, true, lastToken + Character.MAX_VALUE, true);
+
+        // bounded top-k over the candidates: the heap head is the weakest suggestion kept so far
+        Set<Entry> seen = new HashSet<>();
+        PriorityQueue<Ranked> top = new PriorityQueue<>(limit + 1, RANKING.reversed());
+        scan:
+        for (Set<Entry> bucket : range.values()) {
+            for (Entry entry : bucket) {
+                if (seen.size() >= maxCandidates) {
+                    break scan;
+                }
+                if (!seen.add(entry) || !matchesAll(entry, leadingTokens)) {
+                    continue;
+                }
+                Ranked ranked = new Ranked(entry, score(entry, normalizedQuery));
+                if (top.size() < limit) {
+                    top.add(ranked);
+                } else if (RANKING.compare(ranked, top.peek()) < 0) {
+                    top.poll();
+                    top.add(ranked);
+                }
+            }
+        }
+
+        List<Ranked> ranked = new ArrayList<>(top);
+        ranked.sort(RANKING);
+        List<SpotifySuggestion> suggestions = new ArrayList<>(ranked.size());
+        for (Ranked match : ranked) {
+            suggestions.add(match.entry().toSuggestion(match.score()));
+        }
+        return suggestions;
+    }
+
+    /**
+     * Number of distinct indexed entities
+     */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Drop the least popular entries, oldest first among equals, freeing a sixteenth of the
+     * capacity at once so the sort is amortized over many insertions. Synchronized only so that
+     * concurrent writers reaching the limit evict once; see {@link #add} for how inserts stay
+     * consistent with it.
+     */
+    private synchronized void evict() {
+        if (size.get() < maxEntries) {
+            return;
+        }
+        List<Entry> candidates = new ArrayList<>(entries.values());
+        candidates.sort(EVICTION_ORDER);
+        int count = Math.min(candidates.size(), Math.max(1, maxEntries / 16));
+        for (Entry entry : candidates.subList(0, count)) {
+            if (entries.remove(entry.key, entry)) {
+                size.decrementAndGet();
+                unindex(entry);
+            }
+        }
+        logger.debug("Suggestion index full ({} entries), evicted {}", maxEntries, count);
+    }
+
+    private void unindex(Entry entry) {
+        for (String token : entry.tokens) {
+            tokenIndex.computeIfPresent(token, (t, bucket) -> {
+                bucket.remove(entry);
+                return bucket.isEmpty() ? null : bucket;
+            });
+        }
+    }
+
+    private boolean matchesAll(Entry entry, List<String> leadingTokens) {
+        for (String required : leadingTokens) {
+            boolean found = false;
+            for (String token : entry.tokens) {
+                if (token.startsWith(required)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private double score(Entry entry, String normalizedQuery) {
+        double score = Math.log1p(entry.hits.sum());
+        if (entry.normalizedName.startsWith(normalizedQuery)) {
+            score += 2.0;
+        }
+        if (entry.normalizedName.equals(normalizedQuery)) {
+            score += 1.0;
+        }
+        return score;
+    }
+
+    static String normalize(String value) {
+        String decomposed = Normalizer.normalize(value, Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT).trim();
+    }
+
+    private static List<String> tokenize(String normalized) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : TOKEN_SEPARATORS.split(normalized)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private record Ranked(Entry entry, double score) {
+    }
+
+    private static final class Entry {
+        private final String key;
+        private final String type;
+        private final String id;
+        private final String name;
+        private final String uri;
+        private final String normalizedName;
+        private final List<String> tokens;
+        private final LongAdder hits = new LongAdder();
+        private volatile long lastSeen;
+
+        private Entry(String key, String type, String id, String name, String uri, String normalizedName,
+                      long seenAt) {
+            this.key = key;
+            this.type = type;
+            this.id = id;
+            this.name = name;
+            this.uri = uri;
+            this.normalizedName = normalizedName;
+            this.tokens = tokenize(normalizedName);
+            this.hits.increment();
+            this.lastSeen = seenAt;
+        }
+
+        private void touch(long seenAt) {
+            hits.increment();
+            lastSeen = seenAt;
+        }
+
+        private SpotifySuggestion toSuggestion(double score) {
+            return new SpotifySuggestion(type, id, name, uri, score);
+        }
+    }
+}
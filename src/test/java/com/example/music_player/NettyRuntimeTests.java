@@ -0,0 +1,101 @@
+package com.example.music_player;
+
+import com.example.music_player.service.RemoteTicketRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import org.springframework.web.reactive.socket.client.ReactorNettyWebSocketClient;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"spring.security.user.password=test",
+		"spotify.limits.endpoints.track.max-concurrent=0",
+		"spotify.limits.endpoints.track.max-queue=0",
+		"spotify.limits.endpoints.track.retry-after=7s"
+})
+@ActiveProfiles("netty")
+class NettyRuntimeTests {
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private WebTestClient webClient;
+
+	@Autowired
+	private RemoteTicketRegistry tickets;
+
+	@Test
+	void shedsWithRetryAfter() {
+		webClient.get().uri("/api/spotify/track/abc")
+				.headers(headers -> headers.setBasicAuth("user", "test"))
+				.exchange()
+				.expectStatus().isEqualTo(503)
+				.expectHeader().valueEquals(HttpHeaders.RETRY_AFTER, "7")
+				.expectBody().jsonPath("$.error").isEqualTo("SERVICE_OVERLOADED");
+	}
+
+	@Test
+	void keepsTheStatusOfFrameworkExceptions() {
+		webClient.get().uri("/api/spotify/no-such-endpoint")
+				.headers(headers -> headers.setBasicAuth("user", "test"))
+				.exchange()
+				.expectStatus().isNotFound();
+	}
+
+	@Test
+	void servesRemoteControlOverNetty() {
+		AtomicReference<String> reply = new AtomicReference<>();
+
+		new ReactorNettyWebSocketClient().execute(
+						URI.create("ws://localhost:" + port + "/api/spotify/remote?ticket=" + tickets.issue("token")),
+						basicAuth(null),
+						session -> session.send(Mono.just(session.textMessage("1 ping")))
+								.thenMany(session.receive().map(WebSocketMessage::getPayloadAsText).take(1)
+										.doOnNext(reply::set))
+								.then())
+				.block(Duration.ofSeconds(10));
+
+		assertThat(reply.get()).isEqualTo("1 pong");
+	}
+
+	@Test
+	void refusesRemoteControlHandshakesFromOtherOrigins() {
+		assertThatThrownBy(() -> new ReactorNettyWebSocketClient().execute(
+						URI.create("ws://localhost:" + port + "/api/spotify/remote?ticket=" + tickets.issue("token")),
+						basicAuth("https://elsewhere.example"), session -> session.close())
+				.block(Duration.ofSeconds(10)))
+				.hasMessageContaining("403");
+	}
+
+	@Test
+	void refusesRemoteControlHandshakesWithoutAToken() {
+		assertThatThrownBy(() -> new ReactorNettyWebSocketClient().execute(
+						URI.create("ws://localhost:" + port + "/api/spotify/remote?ticket=unknown"),
+						basicAuth(null), session -> session.close())
+				.block(Duration.ofSeconds(10)))
+				.hasMessageContaining("401");
+	}
+
+	private static HttpHeaders basicAuth(String origin) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setBasicAuth("user", "test");
+		if (origin != null) {
+			headers.setOrigin(origin);
+		}
+		return headers;
+	}
+
+}
@@ -0,0 +1,48 @@
+package com.example.music_player;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+		"spring.security.user.password=test",
+		"spotify.limits.endpoints.track.max-concurrent=0",
+		"spotify.limits.endpoints.track.max-queue=0",
+		"spotify.limits.endpoints.track.retry-after=7s"
+})
+@AutoConfigureMockMvc
+class ServletRuntimeTests {
+
+	private static final String BASIC_AUTH = "Basic "
+			+ Base64.getEncoder().encodeToString("user:test".getBytes(StandardCharsets.UTF_8));
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Test
+	void shedsWithRetryAfter() throws Exception {
+		MvcResult result = mockMvc.perform(get("/api/spotify/track/abc").header(HttpHeaders.AUTHORIZATION, BASIC_AUTH))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		mockMvc.perform(asyncDispatch(result))
+				.andExpect(status().isServiceUnavailable())
+				.andExpect(header().string(HttpHeaders.RETRY_AFTER, "7"))
+				.andExpect(jsonPath("$.error").value("SERVICE_OVERLOADED"));
+	}
+
+}
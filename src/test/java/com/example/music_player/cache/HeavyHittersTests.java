@@ -0,0 +1,54 @@
+package com.example.music_player.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HeavyHittersTests {
+
+	@Test
+	void tracksMostFrequentKeysWithinCapacity() {
+		HeavyHitters hitters = new HeavyHitters(3, 1024, 4);
+		for (int i = 0; i < 1_000; i++) {
+			hitters.record("tail-" + i);
+			if (i % 10 == 0) {
+				hitters.record("hot-a");
+				hitters.record("hot-b");
+			}
+			if (i % 20 == 0) {
+				hitters.record("hot-c");
+			}
+		}
+
+		assertThat(hitters.top()).hasSize(3)
+				.extracting(Map.Entry::getKey)
+				.containsExactlyInAnyOrder("hot-a", "hot-b", "hot-c");
+		assertThat(hitters.top().get(2).getKey()).isEqualTo("hot-c");
+		assertThat(hitters.estimate("hot-a")).isGreaterThanOrEqualTo(100);
+	}
+
+	@Test
+	void keysWithEqualHashCodesAreCountedApart() {
+		HeavyHitters hitters = new HeavyHitters(10, 1024, 4);
+		assertThat("Aa".hashCode()).isEqualTo("BB".hashCode());
+
+		hitters.add("Aa", 50);
+
+		assertThat(hitters.estimate("Aa")).isEqualTo(50);
+		assertThat(hitters.estimate("BB")).isZero();
+	}
+
+	@Test
+	void decayHalvesCountsAndDropsExpiredKeys() {
+		HeavyHitters hitters = new HeavyHitters(10, 256, 4);
+		hitters.add("popular", 8);
+		hitters.record("once");
+
+		hitters.decay();
+
+		assertThat(hitters.estimate("popular")).isEqualTo(4);
+		assertThat(hitters.top()).extracting(Map.Entry::getKey).containsExactly("popular");
+	}
+}
@@ -0,0 +1,33 @@
+package com.example.music_player.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemorySharedCacheTierTests {
+
+	private final InMemorySharedCacheTier tier = new InMemorySharedCacheTier(3);
+
+	@Test
+	void staysWithinItsEntryLimit() {
+		for (int i = 0; i < 10; i++) {
+			tier.put("search", "query-" + i, "result-" + i, Duration.ofMinutes(10)).block();
+		}
+
+		assertThat(tier.size()).isEqualTo(3);
+		assertThat(tier.get("search", "query-9").block().value()).isEqualTo("result-9");
+	}
+
+	@Test
+	void sweepsExpiredEntriesThatAreNeverReadAgain() {
+		tier.put("search", "old", "result", Duration.ofSeconds(1)).block();
+		tier.put("search", "fresh", "result", Duration.ofMinutes(10)).block();
+
+		tier.sweepExpired(System.currentTimeMillis() + Duration.ofMinutes(1).toMillis());
+
+		assertThat(tier.size()).isEqualTo(1);
+		assertThat(tier.get("search", "fresh").block()).isNotNull();
+	}
+}
@@ -0,0 +1,86 @@
+package com.example.music_player.cache;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TwoLevelCacheTests {
+
+	private final SharedCacheTier sharedTier = new InMemorySharedCacheTier(1_000);
+	private final TwoLevelCache<String> nodeA = new TwoLevelCache<>("tracks", "a", sharedTier, Duration.ofMinutes(1), 100);
+	private final TwoLevelCache<String> nodeB = new TwoLevelCache<>("tracks", "b", sharedTier, Duration.ofMinutes(1), 100);
+	private final AtomicInteger loads = new AtomicInteger();
+
+	@Test
+	void secondNodeIsServedFromSharedTier() {
+		assertThat(nodeA.get("1", this::load).block()).isEqualTo("value-1");
+		assertThat(nodeB.get("1", this::load).block()).isEqualTo("value-1");
+
+		assertThat(loads).hasValue(1);
+		assertThat(nodeB.peek("1")).isEqualTo("value-1");
+	}
+
+	@Test
+	void invalidationDropsNearCopiesOnOtherNodes() {
+		nodeA.get("1", this::load).block();
+		nodeB.get("1", this::load).block();
+
+		nodeA.invalidate("1").block();
+
+		assertThat(nodeB.peek("1")).isNull();
+		assertThat(nodeB.get("1", this::load).block()).isEqualTo("value-2");
+	}
+
+	@Test
+	void concurrentMissesShareOneLoad() {
+		Mono<String> slowLoad = Mono.delay(Duration.ofMillis(50)).map(tick -> "value-" + loads.incrementAndGet());
+
+		String first = Mono.zip(nodeA.get("1", () -> slowLoad), nodeA.get("1", () -> slowLoad),
+				(left, right) -> left + "," + right).block();
+
+		assertThat(first).isEqualTo("value-1,value-1");
+		assertThat(loads).hasValue(1);
+	}
+
+	@Test
+	void invalidationDuringLoadKeepsTheLoadedValueOutOfTheCache() {
+		Sinks.One<String> upstream = Sinks.one();
+		List<String> answers = new ArrayList<>();
+		nodeA.get("1", upstream::asMono).subscribe(answers::add);
+
+		nodeA.invalidate("1").block();
+		upstream.tryEmitValue("stale");
+
+		assertThat(answers).containsExactly("stale");
+		assertThat(nodeA.peek("1")).isNull();
+		assertThat(nodeB.get("1", this::load).block()).isEqualTo("value-1");
+	}
+
+	@Test
+	void supersededLoadDoesNotUnregisterItsSuccessor() {
+		Sinks.One<String> first = Sinks.one();
+		Sinks.One<String> second = Sinks.one();
+		nodeA.get("1", first::asMono).subscribe();
+		nodeA.invalidate("1").block();
+		nodeA.get("1", second::asMono).subscribe();
+
+		first.tryEmitValue("old");
+		nodeA.get("1", this::load).subscribe();
+		second.tryEmitValue("new");
+
+		assertThat(loads).hasValue(0);
+		assertThat(nodeA.peek("1")).isEqualTo("new");
+	}
+
+	private Mono<String> load() {
+		return Mono.fromSupplier(() -> "value-" + loads.incrementAndGet());
+	}
+
+}
@@ -0,0 +1,56 @@
+package com.example.music_player.config;
+
+import com.example.music_player.service.RemoteCommandProcessor;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RemoteControlConfigTests {
+
+	private final RemoteCommandProcessor processor = mock(RemoteCommandProcessor.class);
+	private final RemoteControlConfig.AccessTokenInterceptor interceptor =
+			new RemoteControlConfig.AccessTokenInterceptor(processor);
+
+	@Test
+	void refusesServletHandshakesWithoutAnAccessToken() {
+		when(processor.accessToken(any(HttpHeaders.class), any(URI.class))).thenReturn(null);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		Map<String, Object> attributes = new HashMap<>();
+
+		boolean accepted = interceptor.beforeHandshake(handshake(), new ServletServerHttpResponse(response),
+				null, attributes);
+
+		assertThat(accepted).isFalse();
+		assertThat(response.getStatus()).isEqualTo(401);
+		assertThat(attributes).isEmpty();
+	}
+
+	@Test
+	void handsTheAccessTokenToTheSession() {
+		when(processor.accessToken(any(HttpHeaders.class), any(URI.class))).thenReturn("token");
+		Map<String, Object> attributes = new HashMap<>();
+
+		boolean accepted = interceptor.beforeHandshake(handshake(),
+				new ServletServerHttpResponse(new MockHttpServletResponse()), null, attributes);
+
+		assertThat(accepted).isTrue();
+		assertThat(attributes).containsValue("token");
+	}
+
+	private static ServletServerHttpRequest handshake() {
+		return new ServletServerHttpRequest(new MockHttpServletRequest("GET", "/api/spotify/remote"));
+	}
+
+}
@@ -0,0 +1,32 @@
+package com.example.music_player.dto;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SpotifySearchSectionTests {
+
+	private final ObjectMapper mapper = new ObjectMapper()
+			.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+	@Test
+	void roundTripsWithTypedItems() throws Exception {
+		SpotifyPlaylist playlist = new SpotifyPlaylist();
+		playlist.setId("p1");
+		playlist.setName("Focus");
+
+		String json = mapper.writeValueAsString(new SpotifySearchSection.Playlists(List.of(playlist), 12));
+		SpotifySearchSection<?> section = mapper.readValue(json, SpotifySearchSection.class);
+
+		assertThat(json).contains("\"type\":\"playlist\"");
+		assertThat(section).isInstanceOf(SpotifySearchSection.Playlists.class);
+		assertThat(section.getTotal()).isEqualTo(12);
+		assertThat(section.getItems()).singleElement().isInstanceOf(SpotifyPlaylist.class)
+				.extracting(item -> ((SpotifyPlaylist) item).getName()).isEqualTo("Focus");
+	}
+
+}
@@ -0,0 +1,21 @@
+package com.example.music_player.exception;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ErrorCodesTests {
+
+	@Test
+	void reportsSpotifyErrorClassesAndLocalFailuresLikeTheHttpErrorBodies() {
+		assertThat(ErrorCodes.of(SpotifyApiException.fromResponse(429, null, null))).isEqualTo("RATE_LIMITED");
+		assertThat(ErrorCodes.of(new SpotifyApiException("Custom", 400, "CUSTOM_CODE"))).isEqualTo("CUSTOM_CODE");
+		assertThat(ErrorCodes.of(new ServiceOverloadedException("play", "queue full", 1)))
+				.isEqualTo(ErrorCodes.SERVICE_OVERLOADED);
+		assertThat(ErrorCodes.of(new IllegalArgumentException("Volume out of range")))
+				.isEqualTo(ErrorCodes.INVALID_ARGUMENT);
+		assertThat(ErrorCodes.of(new IllegalStateException())).isEqualTo(ErrorCodes.INTERNAL_SERVER_ERROR);
+		assertThat(ErrorCodes.isUnexpected(new IllegalStateException())).isTrue();
+	}
+
+}
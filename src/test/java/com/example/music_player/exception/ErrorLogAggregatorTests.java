@@ -0,0 +1,53 @@
+package com.example.music_player.exception;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ErrorLogAggregatorTests {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final ErrorLogAggregator aggregator = new ErrorLogAggregator(registry);
+	private final Logger logger = (Logger) LoggerFactory.getLogger(ErrorLogAggregator.class);
+	private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+	@BeforeEach
+	void attachAppender() {
+		appender.start();
+		logger.addAppender(appender);
+	}
+
+	@AfterEach
+	void detachAppender() {
+		logger.detachAppender(appender);
+	}
+
+	@Test
+	void logsTheFirstErrorOfEachClassThenOneSummaryPerInterval() {
+		for (int i = 0; i < 5; i++) {
+			aggregator.record("search", SpotifyApiException.fromResponse(429, null, "1"));
+		}
+		aggregator.record("search", SpotifyApiException.fromResponse(503, null, null));
+
+		assertThat(appender.list).extracting(ILoggingEvent::getFormattedMessage).hasSize(2)
+				.allMatch(message -> message.startsWith("Spotify search failed"));
+		assertThat(registry.get("spotify.upstream.errors").tag("class", "RATE_LIMITED").counter().count())
+				.isEqualTo(5.0);
+
+		aggregator.report();
+
+		assertThat(appender.list).last().extracting(ILoggingEvent::getFormattedMessage)
+				.isEqualTo("Spotify API errors in the last interval: RATE_LIMITED=5, UPSTREAM_UNAVAILABLE=1 (6 total)");
+
+		aggregator.record("search", SpotifyApiException.fromResponse(429, null, "1"));
+
+		assertThat(appender.list).hasSize(4);
+	}
+}
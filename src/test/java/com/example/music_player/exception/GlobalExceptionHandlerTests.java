@@ -0,0 +1,39 @@
+package com.example.music_player.exception;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.HttpRequestMethodNotSupportedException;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GlobalExceptionHandlerTests {
+
+	private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+
+	@Test
+	void keepsTheHeadersAndDetailOfFrameworkErrors() {
+		ResponseEntity<Map<String, Object>> response = handler.handleGenericException(
+				new HttpRequestMethodNotSupportedException("DELETE", List.of("GET")));
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.METHOD_NOT_ALLOWED);
+		assertThat(response.getHeaders().getAllow()).containsExactly(HttpMethod.GET);
+		assertThat(response.getBody()).containsEntry("status", 405)
+				.containsEntry("message", "Method 'DELETE' is not supported.");
+	}
+
+	@Test
+	void answersClassifiedUpstreamErrorsWithTheirStatusAndRetryAfter() {
+		ResponseEntity<Map<String, Object>> response = handler.handleSpotifyApiException(
+				SpotifyApiException.fromResponse(429, null, "7"));
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+		assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("7");
+		assertThat(response.getBody()).containsEntry("error", "RATE_LIMITED");
+	}
+}
@@ -0,0 +1,61 @@
+package com.example.music_player.exception;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.net.ConnectException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SpotifyApiExceptionTests {
+
+	@Test
+	void classifiesResponsesByStatusAndReason() {
+		assertThat(SpotifyApiException.fromResponse(401, null, null).getErrorClass())
+				.isEqualTo(SpotifyApiException.ErrorClass.UNAUTHORIZED);
+		assertThat(SpotifyApiException.fromResponse(404, "{\"error\":{\"reason\":\"NO_ACTIVE_DEVICE\"}}", null)
+				.getErrorClass()).isEqualTo(SpotifyApiException.ErrorClass.NO_ACTIVE_DEVICE);
+		assertThat(SpotifyApiException.fromResponse(404, "{}", null).getErrorClass())
+				.isEqualTo(SpotifyApiException.ErrorClass.NOT_FOUND);
+		assertThat(SpotifyApiException.fromResponse(503, null, null).getErrorClass())
+				.isEqualTo(SpotifyApiException.ErrorClass.UPSTREAM_UNAVAILABLE);
+		assertThat(SpotifyApiException.fromResponse(418, null, null).getErrorClass())
+				.isEqualTo(SpotifyApiException.ErrorClass.UNKNOWN);
+
+		SpotifyApiException limited = SpotifyApiException.fromResponse(429, null, "7");
+		assertThat(limited.getErrorClass()).isEqualTo(SpotifyApiException.ErrorClass.RATE_LIMITED);
+		assertThat(limited.getRetryAfterSeconds()).isEqualTo(7);
+		assertThat(limited.getUpstreamStatus()).isEqualTo(429);
+		assertThat(limited.getStackTrace()).isEmpty();
+	}
+
+	@Test
+	void classifiesClientFailures() {
+		HttpHeaders headers = new HttpHeaders();
+		headers.add(HttpHeaders.RETRY_AFTER, "3");
+		WebClientResponseException response = WebClientResponseException.create(429, "Too Many Requests", headers,
+				new byte[0], StandardCharsets.UTF_8);
+		SpotifyApiException classified = SpotifyApiException.from(response);
+
+		assertThat(classified.getErrorClass()).isEqualTo(SpotifyApiException.ErrorClass.RATE_LIMITED);
+		assertThat(classified.getRetryAfterSeconds()).isEqualTo(3);
+		assertThat(SpotifyApiException.from(classified)).isSameAs(classified);
+		assertThat(SpotifyApiException.from(new TimeoutException()).getErrorClass())
+				.isEqualTo(SpotifyApiException.ErrorClass.TIMEOUT);
+		assertThat(SpotifyApiException.from(new WebClientRequestException(new ConnectException(), HttpMethod.GET,
+				URI.create("https://api.spotify.com/v1/me"), new HttpHeaders())).getErrorClass())
+				.isEqualTo(SpotifyApiException.ErrorClass.CONNECTION);
+
+		SpotifyApiException unknown = SpotifyApiException.from(new IllegalStateException("bug"));
+		assertThat(unknown.getErrorClass()).isEqualTo(SpotifyApiException.ErrorClass.UNKNOWN);
+		assertThat(unknown.getErrorClass().getHttpStatus()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+		assertThat(unknown.getStackTrace()).isNotEmpty();
+	}
+}
@@ -0,0 +1,107 @@
+package com.example.music_player.history;
+
+import com.example.music_player.dto.ListeningStatsView;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SegmentedEventLogTests {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void rollsSegmentsAndReplaysAfterReopen() throws IOException {
+		try (SegmentedEventLog log = new SegmentedEventLog(dir, 256, 4)) {
+			for (int i = 0; i < 20; i++) {
+				log.append(event(i).encode());
+			}
+			assertThat(log.segmentCount()).isGreaterThan(1);
+		}
+
+		try (SegmentedEventLog reopened = new SegmentedEventLog(dir, 256, 4)) {
+			reopened.append(event(20).encode());
+			assertThat(replay(reopened)).extracting(ListeningEvent::timestamp)
+					.containsExactlyElementsOf(Stream.iterate(0L, i -> i + 1).limit(21).toList());
+		}
+	}
+
+	@Test
+	void dropsTornRecordAtTheTail() throws IOException {
+		try (SegmentedEventLog log = new SegmentedEventLog(dir, 4096, 1)) {
+			log.append(event(0).encode());
+			log.append(event(1).encode());
+		}
+		Path segment;
+		try (Stream<Path> files = Files.list(dir)) {
+			segment = files.findFirst().orElseThrow();
+		}
+		int secondRecord = 8 + event(0).encode().length;
+		try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+			channel.write(ByteBuffer.wrap(new byte[] {42}), secondRecord + 12);
+		}
+
+		try (SegmentedEventLog reopened = new SegmentedEventLog(dir, 4096, 1)) {
+			reopened.append(event(2).encode());
+			assertThat(replay(reopened)).extracting(ListeningEvent::timestamp).containsExactly(0L, 2L);
+		}
+	}
+
+	@Test
+	void prunesSegmentsBeyondRetention() throws IOException {
+		try (SegmentedEventLog log = new SegmentedEventLog(dir, 256, 4, 2)) {
+			for (int i = 0; i < 20; i++) {
+				log.append(event(i).encode());
+			}
+			List<ListeningEvent> retained = replay(log);
+
+			assertThat(log.segmentCount()).isEqualTo(2);
+			assertThat(retained).isNotEmpty();
+			assertThat(retained.get(retained.size() - 1).timestamp()).isEqualTo(19L);
+			assertThat(retained.get(0).timestamp()).isGreaterThan(0L);
+		}
+	}
+
+	@Test
+	void statsCountListeningTimeWithoutPauses() {
+		ListeningStats stats = new ListeningStats();
+		stats.apply(play(0, "spotify:track:a", "Artist", 180_000));
+		stats.apply(new ListeningEvent(30_000, ListeningEvent.Type.PAUSE, "u", null, null, List.of(), 0));
+		stats.apply(new ListeningEvent(90_000, ListeningEvent.Type.RESUME, "u", null, null, List.of(), 0));
+		stats.apply(new ListeningEvent(100_000, ListeningEvent.Type.SKIP, "u", null, null, List.of(), 0));
+		stats.apply(play(100_000, "spotify:track:b", "Artist", 60_000));
+
+		ListeningStatsView view = stats.view("u", 10, 500_000);
+
+		assertThat(view.getPlays()).isEqualTo(2);
+		assertThat(view.getSkips()).isEqualTo(1);
+		assertThat(view.getListeningTimeMs()).isEqualTo(40_000 + 60_000);
+		assertThat(view.getTopArtists()).singleElement()
+				.satisfies(artist -> assertThat(artist.getPlays()).isEqualTo(2));
+	}
+
+	private static List<ListeningEvent> replay(SegmentedEventLog log) throws IOException {
+		List<ListeningEvent> events = new ArrayList<>();
+		log.replay(record -> events.add(ListeningEvent.decode(record)));
+		return events;
+	}
+
+	private static ListeningEvent event(long timestamp) {
+		return play(timestamp, "spotify:track:" + timestamp, "Artist " + timestamp, 1_000);
+	}
+
+	private static ListeningEvent play(long timestamp, String trackUri, String artist, int durationMs) {
+		return new ListeningEvent(timestamp, ListeningEvent.Type.PLAY, "u", trackUri, "Track", List.of(artist), durationMs);
+	}
+}
@@ -0,0 +1,44 @@
+package com.example.music_player.service;
+
+import com.example.music_player.dto.SpotifyDevice;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ActiveDeviceTrackerTests {
+
+	private final ActiveDeviceTracker tracker = new ActiveDeviceTracker();
+
+	@Test
+	void prefersTheActiveDeviceThenTheKnownOneThenTheFirstControllable() {
+		assertThat(tracker.observeDevices("u", List.of(
+				device("restricted", false, true), device("phone", false, false), device("desk", false, false))))
+				.isEqualTo("phone");
+
+		tracker.remember("u", "desk");
+		assertThat(tracker.observeDevices("u", List.of(device("phone", false, false), device("desk", false, false))))
+				.isEqualTo("desk");
+
+		assertThat(tracker.observeDevices("u", List.of(device("desk", false, false), device("tv", true, false))))
+				.isEqualTo("tv");
+		assertThat(tracker.lastDevice("u")).isEqualTo("tv");
+	}
+
+	@Test
+	void forgetsTheKnownDeviceWhenNoneIsUsable() {
+		tracker.remember("u", "desk");
+
+		assertThat(tracker.observeDevices("u", List.of(device("restricted", true, true)))).isNull();
+		assertThat(tracker.lastDevice("u")).isNull();
+	}
+
+	private static SpotifyDevice device(String id, boolean active, boolean restricted) {
+		SpotifyDevice device = new SpotifyDevice();
+		device.setId(id);
+		device.setActive(active);
+		device.setRestricted(restricted);
+		return device;
+	}
+}
@@ -0,0 +1,60 @@
+package com.example.music_player.service;
+
+import com.example.music_player.config.SpotifyConfig;
+import com.example.music_player.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EndpointConcurrencyLimiterTests {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	@Test
+	void queuesUpToLimitAndShedsTheRest() {
+		EndpointConcurrencyLimiter limiter = limiter(1, 1, Duration.ofSeconds(5));
+		Sinks.One<String> first = Sinks.one();
+
+		Mono<String> running = limiter.limit("search", first.asMono()).cache();
+		running.subscribe();
+		Mono<String> queued = limiter.limit("search", Mono.just("second")).cache();
+		queued.subscribe();
+
+		assertThatThrownBy(() -> limiter.limit("search", Mono.just("third")).block())
+				.isInstanceOf(ServiceOverloadedException.class);
+
+		first.tryEmitValue("first");
+		assertThat(running.block()).isEqualTo("first");
+		assertThat(queued.block()).isEqualTo("second");
+		assertThat(registry.get("spotify.endpoint.rejected").tag("reason", "queue_full").counter().count())
+				.isEqualTo(1.0);
+	}
+
+	@Test
+	void rejectsWhenQueueWaitExpiresAndFreesTheSlot() {
+		EndpointConcurrencyLimiter limiter = limiter(1, 1, Duration.ofMillis(50));
+		Sinks.One<String> first = Sinks.one();
+		limiter.limit("play", first.asMono()).subscribe();
+
+		assertThatThrownBy(() -> limiter.limit("play", Mono.just("late")).block())
+				.isInstanceOf(ServiceOverloadedException.class);
+
+		first.tryEmitValue("done");
+		assertThat(limiter.limit("play", Mono.just("next")).block()).isEqualTo("next");
+	}
+
+	private EndpointConcurrencyLimiter limiter(int maxConcurrent, int maxQueue, Duration maxQueueWait) {
+		SpotifyConfig config = new SpotifyConfig();
+		config.getLimits().getDefaults().setMaxConcurrent(maxConcurrent);
+		config.getLimits().getDefaults().setMaxQueue(maxQueue);
+		config.getLimits().getDefaults().setMaxQueueWait(maxQueueWait);
+		return new EndpointConcurrencyLimiter(config, registry);
+	}
+
+}
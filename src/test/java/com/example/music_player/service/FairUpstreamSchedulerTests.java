@@ -0,0 +1,115 @@
+package com.example.music_player.service;
+
+import com.example.music_player.config.SpotifyConfig;
+import com.example.music_player.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FairUpstreamSchedulerTests {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final List<String> started = new ArrayList<>();
+	private final Sinks.One<ClientResponse> firstCall = Sinks.one();
+	private final SpotifyApiService api = mock(SpotifyApiService.class);
+	@SuppressWarnings("unchecked")
+	private final ObjectProvider<SpotifyApiService> apiProvider = mock(ObjectProvider.class);
+
+	@Test
+	void identifiesCallersByTheirTokenUntilSpotifyConfirmsTheUser() {
+		when(apiProvider.getIfAvailable()).thenReturn(api);
+		when(api.cachedUserId("confirmed")).thenReturn("alice");
+		FairUpstreamScheduler scheduler = scheduler(1, 8);
+
+		assertThat(scheduler.callerKey("Bearer confirmed", "10.0.0.1")).isEqualTo("user:alice");
+		assertThat(scheduler.callerKey("Bearer other", "10.0.0.1"))
+				.isEqualTo("token:" + SpotifyAuthService.tokenKey("other"))
+				.isNotEqualTo(scheduler.callerKey("Bearer another", "10.0.0.1"));
+		assertThat(scheduler.callerKey(null, "10.0.0.1")).isEqualTo("address:10.0.0.1");
+		assertThat(scheduler.callerKey(null, null)).isEqualTo("anonymous");
+	}
+
+	@Test
+	void aFloodingTokenDoesNotStarveAnotherToken() {
+		FairUpstreamScheduler scheduler = scheduler(1, 2);
+		String flooding = scheduler.tokenCaller("flooding");
+		String other = scheduler.tokenCaller("other");
+		call(scheduler, flooding, "f1").subscribe();
+		call(scheduler, flooding, "f2").subscribe();
+		call(scheduler, flooding, "f3").subscribe();
+		assertThatThrownBy(() -> call(scheduler, flooding, "f4").block())
+				.isInstanceOf(ServiceOverloadedException.class);
+
+		CompletableFuture<ClientResponse> otherCall = call(scheduler, other, "o1").toFuture();
+		firstCall.tryEmitValue(ClientResponse.create(HttpStatus.OK).build());
+
+		assertThat(otherCall).isCompleted();
+		assertThat(started).containsExactly("f1", "f2", "o1", "f3");
+	}
+
+	@Test
+	void servesWaitingCallersInTurn() {
+		FairUpstreamScheduler scheduler = scheduler(1, 8);
+		call(scheduler, "heavy", "h1").subscribe();
+		call(scheduler, "heavy", "h2").subscribe();
+		call(scheduler, "heavy", "h3").subscribe();
+		call(scheduler, "heavy", "h4").subscribe();
+		call(scheduler, "light", "l1").subscribe();
+
+		firstCall.tryEmitValue(ClientResponse.create(HttpStatus.OK).build());
+
+		assertThat(started).containsExactly("h1", "h2", "l1", "h3", "h4");
+	}
+
+	@Test
+	void shedsOnlyTheCallerWhoseQueueIsFull() {
+		FairUpstreamScheduler scheduler = scheduler(1, 1);
+		call(scheduler, "heavy", "h1").subscribe();
+		call(scheduler, "heavy", "h2").subscribe();
+
+		assertThatThrownBy(() -> call(scheduler, "heavy", "h3").block())
+				.isInstanceOf(ServiceOverloadedException.class);
+		call(scheduler, "light", "l1").subscribe();
+
+		firstCall.tryEmitValue(ClientResponse.create(HttpStatus.OK).build());
+		assertThat(started).containsExactly("h1", "h2", "l1");
+		assertThat(registry.get("spotify.fair.rejected").tag("reason", "queue_full").counter().count())
+				.isEqualTo(1.0);
+	}
+
+	private Mono<ClientResponse> call(FairUpstreamScheduler scheduler, String caller, String name) {
+		ClientRequest request = ClientRequest.create(HttpMethod.GET, URI.create("http://spotify/" + name)).build();
+		ExchangeFunction upstream = clientRequest -> {
+			started.add(name);
+			// the first call holds the only slot until the test answers it
+			return started.size() == 1 ? firstCall.asMono() : Mono.just(ClientResponse.create(HttpStatus.OK).build());
+		};
+		return scheduler.outbound().filter(request, upstream)
+				.contextWrite(context -> context.put(FairUpstreamScheduler.CALLER, caller));
+	}
+
+	private FairUpstreamScheduler scheduler(int maxConcurrent, int maxQueuePerCaller) {
+		SpotifyConfig config = new SpotifyConfig();
+		config.getFairness().setMaxConcurrent(maxConcurrent);
+		config.getFairness().setMaxQueuePerCaller(maxQueuePerCaller);
+		return new FairUpstreamScheduler(config, registry, apiProvider);
+	}
+
+}
@@ -0,0 +1,158 @@
+package com.example.music_player.service;
+
+import com.example.music_player.config.SpotifyConfig;
+import com.example.music_player.dto.LibrarySyncResult;
+import com.example.music_player.dto.LocalPlaylist;
+import com.example.music_player.dto.SpotifyPaging;
+import com.example.music_player.dto.SpotifyPlaylist;
+import com.example.music_player.dto.SpotifyPlaylistItem;
+import com.example.music_player.dto.SpotifyTrack;
+import com.example.music_player.dto.SpotifyUser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LibrarySyncServiceTests {
+
+	private final SpotifyApiService api = mock(SpotifyApiService.class);
+	private final LibraryStore store = new LibraryStore();
+	private LibrarySyncService sync;
+
+	@BeforeEach
+	void setUp() {
+		SpotifyUser user = new SpotifyUser();
+		user.setId("alice");
+		when(api.getCurrentUser("token")).thenReturn(Mono.just(user));
+		when(api.getPlaylistsPage(isNull(), anyString())).thenReturn(Mono.just(page(List.of(), null, 0)));
+		when(api.getSavedTracksPage(isNull(), anyString())).thenReturn(Mono.just(page(List.of(), null, 0)));
+		sync = new LibrarySyncService(api, store, new SpotifyConfig());
+	}
+
+	@AfterEach
+	void tearDown() {
+		sync.shutdown();
+	}
+
+	@Test
+	void skipsItemsOfUnchangedPlaylistsButPicksUpRenames() {
+		LocalPlaylist stored = new LocalPlaylist("p1", "Old", "s1", List.of("spotify:track:a"));
+		store.putPlaylist("alice", stored);
+		when(api.getPlaylistsPage(isNull(), anyString()))
+				.thenReturn(Mono.just(page(List.of(playlist("p1", "New", "s1")), null, 1)));
+
+		LibrarySyncResult result = sync.sync("token").block();
+
+		assertThat(result.getPlaylistsUnchanged()).isEqualTo(1);
+		verify(api, never()).getPlaylistItemsPage(anyString(), any(), anyString());
+		LocalPlaylist renamed = store.getPlaylist("alice", "p1");
+		assertThat(renamed).isNotSameAs(stored);
+		assertThat(renamed.getName()).isEqualTo("New");
+		assertThat(renamed.getTrackUris()).containsExactly("spotify:track:a");
+		assertThat(stored.getName()).isEqualTo("Old");
+	}
+
+	@Test
+	void followsNextPagesOfChangedPlaylists() {
+		store.putPlaylist("alice", new LocalPlaylist("p1", "Mix", "s1", List.of("spotify:track:a")));
+		when(api.getPlaylistsPage(isNull(), anyString()))
+				.thenReturn(Mono.just(page(List.of(playlist("p1", "Mix", "s2")), null, 1)));
+		when(api.getPlaylistItemsPage("p1", null, "token"))
+				.thenReturn(Mono.just(page(List.of(item("spotify:track:a", null)), "page-2", 2)));
+		when(api.getPlaylistItemsPage("p1", "page-2", "token"))
+				.thenReturn(Mono.just(page(List.of(item("spotify:track:b", null)), null, 2)));
+
+		LibrarySyncResult result = sync.sync("token").block();
+
+		assertThat(result.getPlaylistsUpdated()).isEqualTo(1);
+		assertThat(result.getTracksAdded()).isEqualTo(1);
+		assertThat(store.getPlaylist("alice", "p1").getTrackUris())
+				.containsExactly("spotify:track:a", "spotify:track:b");
+		assertThat(store.getPlaylist("alice", "p1").getSnapshotId()).isEqualTo("s2");
+	}
+
+	@Test
+	void stopsPagingSavedTracksAtTheFirstKnownOne() {
+		store.replaceSavedTracks("alice", saved("spotify:track:b", "2024-02", "spotify:track:a", "2024-01"));
+		when(api.getSavedTracksPage(isNull(), anyString())).thenReturn(Mono.just(page(
+				List.of(item("spotify:track:c", "2024-03"), item("spotify:track:b", "2024-02")), "page-2", 3)));
+		AtomicInteger olderPages = new AtomicInteger();
+		when(api.getSavedTracksPage("page-2", "token")).thenReturn(Mono.fromCallable(() -> {
+			olderPages.incrementAndGet();
+			return page(List.of(item("spotify:track:a", "2024-01")), null, 3);
+		}));
+
+		LibrarySyncResult result = sync.sync("token").block();
+
+		assertThat(result.getSavedTracksAdded()).isEqualTo(1);
+		assertThat(result.getSavedTracksRemoved()).isZero();
+		assertThat(olderPages).hasValue(0);
+		assertThat(store.getSavedTracks("alice").keySet())
+				.containsExactly("spotify:track:c", "spotify:track:b", "spotify:track:a");
+	}
+
+	@Test
+	void reconcilesSavedTracksWhenTheTotalDoesNotAddUp() {
+		store.replaceSavedTracks("alice", saved("spotify:track:b", "2024-02", "spotify:track:a", "2024-01"));
+		when(api.getSavedTracksPage(isNull(), anyString())).thenReturn(Mono.just(page(
+				List.of(item("spotify:track:c", "2024-03"), item("spotify:track:b", "2024-02")), null, 2)));
+
+		LibrarySyncResult result = sync.sync("token").block();
+
+		assertThat(result.getSavedTracksAdded()).isEqualTo(1);
+		assertThat(result.getSavedTracksRemoved()).isEqualTo(1);
+		verify(api, times(2)).getSavedTracksPage(null, "token");
+		assertThat(store.getSavedTracks("alice").keySet())
+				.containsExactly("spotify:track:c", "spotify:track:b");
+	}
+
+	private static <T> SpotifyPaging<T> page(List<T> items, String next, int total) {
+		SpotifyPaging<T> page = new SpotifyPaging<>();
+		page.setItems(new ArrayList<>(items));
+		page.setNext(next);
+		page.setTotal(total);
+		return page;
+	}
+
+	private static SpotifyPlaylist playlist(String id, String name, String snapshotId) {
+		SpotifyPlaylist playlist = new SpotifyPlaylist();
+		playlist.setId(id);
+		playlist.setName(name);
+		playlist.setSnapshotId(snapshotId);
+		return playlist;
+	}
+
+	private static SpotifyPlaylistItem item(String uri, String addedAt) {
+		SpotifyTrack track = new SpotifyTrack();
+		track.setUri(uri);
+		SpotifyPlaylistItem item = new SpotifyPlaylistItem();
+		item.setTrack(track);
+		item.setAddedAt(addedAt);
+		return item;
+	}
+
+	private static Map<String, String> saved(String... uriAndAddedAt) {
+		Map<String, String> saved = new LinkedHashMap<>();
+		for (int i = 0; i < uriAndAddedAt.length; i += 2) {
+			saved.put(uriAndAddedAt[i], uriAndAddedAt[i + 1]);
+		}
+		return saved;
+	}
+
+}
@@ -0,0 +1,96 @@
+package com.example.music_player.service;
+
+import com.example.music_player.config.SpotifyConfig;
+import com.example.music_player.dto.ListeningStatsView;
+import com.example.music_player.dto.SpotifyTrack;
+import com.example.music_player.dto.SpotifyUser;
+import com.example.music_player.history.ListeningEvent;
+import com.example.music_player.history.SegmentedEventLog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ListeningHistoryServiceTests {
+
+	private static final String TRACK_URI = "spotify:track:4iV5W9uYEdYUVa79Axb7Rh";
+
+	@TempDir
+	Path dir;
+
+	private final SpotifyApiService api = mock(SpotifyApiService.class);
+	private final SpotifyConfig config = new SpotifyConfig();
+
+	@BeforeEach
+	void setUp() {
+		SpotifyUser user = new SpotifyUser();
+		user.setId("alice");
+		when(api.cachedUserId("token")).thenReturn("alice");
+		when(api.getCurrentUser("token")).thenReturn(Mono.just(user));
+		config.getHistory().setDir(dir.toString());
+	}
+
+	@Test
+	void pauseAfterPlayStaysAfterItWhileTheTrackIsLookedUp() throws IOException {
+		Sinks.One<SpotifyTrack> lookup = Sinks.one();
+		when(api.getTrack("4iV5W9uYEdYUVa79Axb7Rh")).thenReturn(lookup.asMono());
+		ListeningHistoryService history = new ListeningHistoryService(api, config);
+
+		history.recordPlay(TRACK_URI, "token");
+		history.recordPause("token");
+		lookup.tryEmitValue(track("Song", "Band", 180_000));
+		history.close();
+
+		assertThat(replay()).extracting(ListeningEvent::type)
+				.containsExactly(ListeningEvent.Type.PLAY, ListeningEvent.Type.PAUSE, ListeningEvent.Type.TRACK);
+
+		ListeningStatsView view = new ListeningHistoryService(api, config).getStats("token", 10).block();
+		assertThat(view.getPlays()).isEqualTo(1);
+		assertThat(view.getTopTracks()).singleElement()
+				.satisfies(entry -> assertThat(entry.getName()).isEqualTo("Song"));
+		assertThat(view.getTopArtists()).singleElement()
+				.satisfies(entry -> assertThat(entry.getName()).isEqualTo("Band"));
+	}
+
+	@Test
+	void keepsHistoryInMemoryWithoutADirectory() {
+		config.getHistory().setDir(null);
+		when(api.getTrack("4iV5W9uYEdYUVa79Axb7Rh")).thenReturn(Mono.just(track("Song", "Band", 180_000)));
+		ListeningHistoryService history = new ListeningHistoryService(api, config);
+
+		history.recordPlay(TRACK_URI, "token");
+		history.flush();
+
+		assertThat(history.getStats("token", 10).block().getPlays()).isEqualTo(1);
+		assertThat(dir).isEmptyDirectory();
+	}
+
+	private List<ListeningEvent> replay() throws IOException {
+		List<ListeningEvent> events = new ArrayList<>();
+		try (SegmentedEventLog log = new SegmentedEventLog(dir, config.getHistory().getSegmentBytes(), 1)) {
+			log.replay(record -> events.add(ListeningEvent.decode(record)));
+		}
+		return events;
+	}
+
+	private static SpotifyTrack track(String name, String artist, int durationMs) {
+		SpotifyTrack.SpotifyArtist trackArtist = new SpotifyTrack.SpotifyArtist();
+		trackArtist.setName(artist);
+		SpotifyTrack track = new SpotifyTrack();
+		track.setName(name);
+		track.setArtists(List.of(trackArtist));
+		track.setDurationMs(durationMs);
+		return track;
+	}
+
+}
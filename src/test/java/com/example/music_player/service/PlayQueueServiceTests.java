@@ -0,0 +1,107 @@
+package com.example.music_player.service;
+
+import com.example.music_player.config.SpotifyConfig;
+import com.example.music_player.dto.PlayQueueView;
+import com.example.music_player.dto.SpotifyUser;
+import com.example.music_player.exception.SpotifyApiException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PlayQueueServiceTests {
+
+	private static final String FIRST = "spotify:track:4iV5W9uYEdYUVa79Axb7Rh";
+	private static final String SECOND = "spotify:track:1301WleyT98MSxVHPZCA6M";
+
+	private final SpotifyApiService api = mock(SpotifyApiService.class);
+	private final ListeningHistoryService history = mock(ListeningHistoryService.class);
+	private final SpotifyConfig config = new SpotifyConfig();
+	private PlayQueueService queues;
+
+	@BeforeEach
+	void setUp() {
+		SpotifyUser user = new SpotifyUser();
+		user.setId("alice");
+		when(api.getCurrentUser(anyString())).thenReturn(Mono.just(user));
+		when(api.getTracks(anyList())).thenReturn(Mono.empty());
+		when(api.getDevices(anyString())).thenReturn(Mono.empty());
+		config.getQueue().setMaxLength(3);
+		config.getQueue().setIdleTimeout(Duration.ofMinutes(10));
+		queues = new PlayQueueService(api, history, new ActiveDeviceTracker(), config);
+	}
+
+	@Test
+	void failedPlayLeavesTheQueueWhereItWas() {
+		queues.enqueue(List.of(FIRST, SECOND), "token").block();
+		when(api.playTrack(FIRST, "token")).thenReturn(Mono.error(new SpotifyApiException("down", 502, "UPSTREAM")));
+
+		assertThatThrownBy(() -> queues.next("token").block()).isInstanceOf(SpotifyApiException.class);
+		assertThat(queues.getQueue("token").block().getCurrentUri()).isNull();
+
+		when(api.playTrack(FIRST, "token")).thenReturn(Mono.empty());
+		PlayQueueView view = queues.next("token").block();
+
+		assertThat(view.getCurrentUri()).isEqualTo(FIRST);
+		assertThat(view.getUpcomingUris()).containsExactly(SECOND);
+		verify(history).recordPlay(FIRST, "token");
+	}
+
+	@Test
+	void successfulPlayAdvances() {
+		queues.enqueue(List.of(FIRST, SECOND), "token").block();
+		when(api.playTrack(anyString(), anyString())).thenReturn(Mono.empty());
+
+		queues.next("token").block();
+		PlayQueueView view = queues.next("token").block();
+
+		assertThat(view.getCurrentUri()).isEqualTo(SECOND);
+		verify(history).recordSkip(SECOND, "token");
+	}
+
+	@Test
+	void rejectsNonTrackUrisAndOverflow() {
+		assertThatThrownBy(() -> queues.enqueue(List.of("spotify:playlist:37i9dQZF1DXcBWIGoYBM5M"), "token").block())
+				.isInstanceOf(IllegalArgumentException.class);
+
+		queues.enqueue(List.of(FIRST, SECOND, FIRST), "token").block();
+
+		assertThatThrownBy(() -> queues.enqueue(List.of(SECOND), "token").block())
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void makesRoomByDroppingPlayedTracks() {
+		queues.enqueue(List.of(FIRST, SECOND, FIRST), "token").block();
+		when(api.playTrack(anyString(), anyString())).thenReturn(Mono.empty());
+		queues.next("token").block();
+		queues.next("token").block();
+
+		PlayQueueView view = queues.enqueue(List.of(SECOND), "token").block();
+
+		assertThat(view.getCurrentUri()).isEqualTo(SECOND);
+		assertThat(view.getUpcomingUris()).containsExactly(FIRST, SECOND);
+	}
+
+	@Test
+	void evictsIdleQueues() {
+		queues.enqueue(List.of(FIRST), "token").block();
+
+		queues.evictIdleQueues(System.nanoTime());
+		assertThat(queues.queueCount()).isEqualTo(1);
+
+		queues.evictIdleQueues(System.nanoTime() + Duration.ofMinutes(11).toNanos());
+		assertThat(queues.queueCount()).isZero();
+	}
+
+}
@@ -0,0 +1,76 @@
+package com.example.music_player.service;
+
+import com.example.music_player.config.SpotifyConfig;
+import com.example.music_player.dto.SpotifyPlaybackState;
+import com.example.music_player.dto.SpotifyTrack;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PlaybackClockTests {
+
+	private final PlaybackClock clock = new PlaybackClock(new SpotifyConfig(), new SimpleMeterRegistry());
+
+	@Test
+	void extrapolatesUntilTheSyncAgesOrTheTrackEnds() {
+		clock.observe("u", state("spotify:track:a", 10_000, 60_000, true), 0);
+
+		assertThat(clock.localProgress("u", seconds(5)).getProgressMs()).isEqualTo(15_000);
+		assertThat(clock.resyncReason("u", seconds(5))).isNull();
+		assertThat(clock.resyncReason("u", seconds(31))).isEqualTo("age");
+		assertThat(clock.resyncReason("u", seconds(51))).isEqualTo("track_end");
+		assertThat(clock.localProgress("u", seconds(70)).getProgressMs()).isEqualTo(60_000);
+	}
+
+	@Test
+	void resyncsSoonerAfterDriftOrACommand() {
+		clock.observe("u", state("spotify:track:a", 10_000, 180_000, true), 0);
+		// someone seeked on another client
+		clock.observe("u", state("spotify:track:a", 90_000, 180_000, true), seconds(10));
+
+		assertThat(clock.resyncReason("u", seconds(14))).isNull();
+		assertThat(clock.resyncReason("u", seconds(16))).isEqualTo("drift");
+
+		clock.observe("u", state("spotify:track:a", 96_000, 180_000, true), seconds(16));
+		clock.invalidate("u");
+		assertThat(clock.resyncReason("u", seconds(17))).isEqualTo("command");
+	}
+
+	@Test
+	void pausedClockStandsStill() {
+		clock.observe("u", state("spotify:track:a", 10_000, 60_000, false), 0);
+
+		assertThat(clock.localProgress("u", seconds(20)).getProgressMs()).isEqualTo(10_000);
+		assertThat(clock.resyncReason("u", seconds(100))).isEqualTo("age");
+	}
+
+	@Test
+	void dropsClocksIdleForTheIdleTimeout() {
+		clock.observe("idle", state("spotify:track:a", 0, 60_000, false), 0);
+		clock.observe("active", state("spotify:track:a", 0, 60_000, true), seconds(25 * 60));
+
+		clock.evictIdle(seconds(30 * 60));
+
+		assertThat(clock.size()).isEqualTo(1);
+		assertThat(clock.resyncReason("idle", seconds(30 * 60))).isEqualTo("missing");
+	}
+
+	private static long seconds(long seconds) {
+		return TimeUnit.SECONDS.toNanos(seconds);
+	}
+
+	private static SpotifyPlaybackState state(String trackUri, int progressMs, int durationMs, boolean playing) {
+		SpotifyTrack track = new SpotifyTrack();
+		track.setUri(trackUri);
+		track.setDurationMs(durationMs);
+		SpotifyPlaybackState state = new SpotifyPlaybackState();
+		state.setItem(track);
+		state.setProgressMs(progressMs);
+		state.setPlaying(playing);
+		return state;
+	}
+
+}
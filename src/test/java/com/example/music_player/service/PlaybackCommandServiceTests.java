@@ -0,0 +1,110 @@
+package com.example.music_player.service;
+
+import com.example.music_player.dto.PlaybackCommand;
+import com.example.music_player.dto.PlaybackCommandResult;
+import com.example.music_player.dto.SpotifyUser;
+import com.example.music_player.exception.SpotifyApiException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+class PlaybackCommandServiceTests {
+
+	private static final String TRACK = "spotify:track:4iV5W9uYEdYUVa79Axb7Rh";
+
+	private final SpotifyApiService api = mock(SpotifyApiService.class);
+	private final ActiveDeviceTracker deviceTracker = new ActiveDeviceTracker();
+	private PlaybackCommandService service;
+
+	@BeforeEach
+	void setUp() {
+		SpotifyUser user = new SpotifyUser();
+		user.setId("alice");
+		when(api.getCurrentUser(anyString())).thenReturn(Mono.just(user));
+		when(api.playTrack(anyString(), any(), any(), anyString())).thenReturn(Mono.empty());
+		when(api.transferPlayback(anyString(), anyString())).thenReturn(Mono.empty());
+		when(api.seek(anyInt(), any(), anyString())).thenReturn(Mono.empty());
+		when(api.setVolume(anyInt(), any(), anyString())).thenReturn(Mono.empty());
+		deviceTracker.remember("alice", "desk");
+		service = new PlaybackCommandService(api, deviceTracker, mock(ListeningHistoryService.class));
+	}
+
+	@Test
+	void startsATrackWithOnePlayCallAndSetsTheVolumeOnTheSameDevice() {
+		service.execute(command("phone", TRACK, 30_000, 40), "token").block();
+
+		verify(api).getCurrentUser("token");
+		verify(api).playTrack(TRACK, "phone", 30_000, "token");
+		verify(api).setVolume(40, "phone", "token");
+		verifyNoMoreInteractions(api);
+	}
+
+	@Test
+	void movesPlaybackWithATransferAndSeeksOnlyWhenAPositionIsGiven() {
+		service.execute(command("phone", null, null, null), "token").block();
+
+		verify(api).transferPlayback("phone", "token");
+		verify(api, never()).seek(anyInt(), any(), anyString());
+
+		service.execute(command(null, null, 5_000, null), "token").block();
+
+		verify(api).seek(5_000, "desk", "token");
+		verify(api).transferPlayback(anyString(), anyString());
+	}
+
+	@Test
+	void leavesAVolumeOnlyCommandToTheActiveDevice() {
+		service.execute(command(null, null, null, 70), "token").block();
+
+		verify(api).setVolume(eq(70), isNull(), eq("token"));
+		verify(api).getCurrentUser("token");
+		verifyNoMoreInteractions(api);
+	}
+
+	@Test
+	void retriesTheVolumeOnTheDevicePlaybackEndedUpOnWhenTheGuessWasStale() {
+		SpotifyApiException gone = new SpotifyApiException(SpotifyApiException.ErrorClass.NOT_FOUND, 404, 0, null);
+		when(api.setVolume(50, "desk", "token")).thenReturn(Mono.error(gone));
+		when(api.playTrack(TRACK, null, null, "token"))
+				.thenReturn(Mono.fromRunnable(() -> deviceTracker.remember("alice", "tv")));
+
+		PlaybackCommandResult result = service.execute(command(null, TRACK, null, 50), "token").block();
+
+		verify(api).setVolume(50, "tv", "token");
+		assertThat(result.getDeviceId()).isEqualTo("tv");
+		assertThat(result.getVolume()).isEqualTo(50);
+		assertThat(result.getFailed()).isEmpty();
+	}
+
+	@Test
+	void reportsAFailedVolumeWithoutFailingTheCommand() {
+		SpotifyApiException limited = new SpotifyApiException(SpotifyApiException.ErrorClass.RATE_LIMITED, 429, 1, null);
+		when(api.setVolume(50, "phone", "token")).thenReturn(Mono.error(limited));
+
+		PlaybackCommandResult result = service.execute(command("phone", TRACK, null, 50), "token").block();
+
+		assertThat(result.getVolume()).isNull();
+		assertThat(result.getFailed()).containsEntry("volume", "RATE_LIMITED");
+	}
+
+	private static PlaybackCommand command(String deviceId, String trackUri, Integer positionMs, Integer volume) {
+		PlaybackCommand command = new PlaybackCommand();
+		command.setDeviceId(deviceId);
+		command.setTrackUri(trackUri);
+		command.setPositionMs(positionMs);
+		command.setVolume(volume);
+		return command;
+	}
+}
@@ -0,0 +1,81 @@
+package com.example.music_player.service;
+
+import com.example.music_player.config.SpotifyConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RemoteCommandProcessorTests {
+
+	private final SpotifyApiService api = mock(SpotifyApiService.class);
+	private final SpotifyConfig config = new SpotifyConfig();
+	private final RemoteTicketRegistry tickets = new RemoteTicketRegistry(config);
+
+	@Test
+	void answersBadFramesWithoutDroppingTheConnection() {
+		List<String> replies = processor().process("token",
+						Flux.just("1", "2 volume loud", "3 volume 140", "4 dance", "5 ping"))
+				.collectList().block(Duration.ofSeconds(5));
+
+		assertThat(replies).containsExactlyInAnyOrder("1 err INVALID_ARGUMENT", "2 err INVALID_ARGUMENT",
+				"3 err INVALID_ARGUMENT", "4 err INVALID_ARGUMENT", "5 pong");
+	}
+
+	@Test
+	void repliesAsCommandsCompleteMatchedById() {
+		Sinks.Empty<Void> pause = Sinks.empty();
+		when(api.pausePlayback("token")).thenReturn(pause.asMono());
+		Sinks.Many<String> frames = Sinks.many().unicast().onBackpressureBuffer();
+		List<String> replies = new CopyOnWriteArrayList<>();
+		processor().process("token", frames.asFlux()).subscribe(replies::add);
+
+		frames.tryEmitNext("1 pause");
+		frames.tryEmitNext("2 ping");
+		assertThat(replies).containsExactly("2 pong");
+
+		pause.tryEmitEmpty();
+		assertThat(replies).containsExactly("2 pong", "1 ok");
+	}
+
+	@Test
+	void completesAfterTheIdleTimeout() {
+		config.getRemote().setIdleTimeout(Duration.ofMillis(100));
+
+		List<String> replies = processor().process("token", Flux.never()).collectList().block(Duration.ofSeconds(5));
+
+		assertThat(replies).isEmpty();
+	}
+
+	@Test
+	void acceptsEachTicketOnceAndNeverTheTokenInTheUrl() {
+		RemoteCommandProcessor processor = processor();
+		URI withTicket = URI.create("ws://localhost/api/spotify/remote?ticket=" + tickets.issue("token"));
+
+		assertThat(processor.accessToken(new HttpHeaders(), withTicket)).isEqualTo("token");
+		assertThat(processor.accessToken(new HttpHeaders(), withTicket)).isNull();
+		assertThat(processor.accessToken(new HttpHeaders(),
+				URI.create("ws://localhost/api/spotify/remote?access_token=token"))).isNull();
+	}
+
+	private RemoteCommandProcessor processor() {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		return new RemoteCommandProcessor(api, mock(PlayQueueService.class), mock(ListeningHistoryService.class),
+				new EndpointConcurrencyLimiter(config, registry), new RequestDeadlines(config, registry),
+				new FairUpstreamScheduler(config, registry, mock(ObjectProvider.class)), tickets,
+				new ObjectMapper(), config);
+	}
+
+}
@@ -0,0 +1,110 @@
+package com.example.music_player.service;
+
+import com.example.music_player.config.SpotifyConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestDeadlinesTests {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final SpotifyConfig config = new SpotifyConfig();
+	private final RequestDeadlines deadlines = new RequestDeadlines(config, registry);
+
+	@Test
+	void parsesRequestedBudgetsAndFallsBackOnBadOnes() {
+		config.getDeadlines().setDefaults(Duration.ofSeconds(10));
+		config.getDeadlines().setMax(Duration.ofSeconds(30));
+
+		assertThat(deadlines.budget("search", "800")).isEqualTo(Duration.ofMillis(800));
+		assertThat(deadlines.budget("search", "2s")).isEqualTo(Duration.ofSeconds(2));
+		assertThat(deadlines.budget("search", "")).isEqualTo(Duration.ofSeconds(10));
+		assertThat(deadlines.budget("search", "-5")).isEqualTo(Duration.ofSeconds(10));
+		assertThat(deadlines.budget("search", "soon")).isEqualTo(Duration.ofSeconds(10));
+		assertThat(deadlines.budget("search", null)).isEqualTo(Duration.ofSeconds(10));
+		assertThat(deadlines.budget("search", "5m")).isEqualTo(Duration.ofSeconds(30));
+	}
+
+	@Test
+	void retriesOnlyWhenTheWaitLeavesTheMinimumBudget() {
+		config.getDeadlines().setMinRetryBudget(Duration.ofMillis(500));
+		RequestDeadlines.Deadline deadline = RequestDeadlines.Deadline.after(Duration.ofSeconds(2));
+
+		assertThat(deadlines.canRetry(deadline, Duration.ZERO)).isTrue();
+		assertThat(deadlines.canRetry(deadline, Duration.ofSeconds(1))).isTrue();
+		assertThat(deadlines.canRetry(deadline, Duration.ofSeconds(2))).isFalse();
+		assertThat(deadlines.canRetry(RequestDeadlines.Deadline.after(Duration.ofMillis(300)), Duration.ZERO))
+				.isFalse();
+		assertThat(registry.get("spotify.deadline.exhausted").tag("stage", "retry").counter().count()).isEqualTo(2.0);
+	}
+
+	@Test
+	void backgroundCallsOnlyWaitOutShortRetryAfters() {
+		assertThat(deadlines.canRetry(null, Duration.ofSeconds(2))).isTrue();
+		assertThat(deadlines.canRetry(null, Duration.ofSeconds(3))).isFalse();
+		assertThat(deadlines.canRetry(null, Duration.ofSeconds(120))).isFalse();
+	}
+
+	@Test
+	void waitsForRetryAfterBeforeRetrying() {
+		AtomicInteger calls = new AtomicInteger();
+		ExchangeFunction upstream = request -> Mono.just(calls.getAndIncrement() == 0
+				? ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE)
+						.header("Retry-After", "1").build()
+				: ClientResponse.create(HttpStatus.OK).build());
+		long started = System.nanoTime();
+
+		ClientResponse response = call(HttpMethod.GET, upstream, Duration.ofSeconds(5));
+
+		assertThat(response.statusCode().value()).isEqualTo(200);
+		assertThat(calls).hasValue(2);
+		assertThat(Duration.ofNanos(System.nanoTime() - started)).isGreaterThanOrEqualTo(Duration.ofSeconds(1));
+	}
+
+	@Test
+	void returnsTheFailureWhenRetryAfterDoesNotFitTheDeadline() {
+		AtomicInteger calls = new AtomicInteger();
+		ExchangeFunction upstream = request -> {
+			calls.incrementAndGet();
+			return Mono.just(ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE)
+					.header("Retry-After", "5").build());
+		};
+
+		ClientResponse response = call(HttpMethod.GET, upstream, Duration.ofSeconds(2));
+
+		assertThat(response.statusCode().value()).isEqualTo(503);
+		assertThat(calls).hasValue(1);
+	}
+
+	@Test
+	void neverRetriesNonIdempotentRequests() {
+		AtomicInteger calls = new AtomicInteger();
+		ExchangeFunction upstream = request -> {
+			calls.incrementAndGet();
+			return Mono.just(ClientResponse.create(HttpStatus.BAD_GATEWAY).build());
+		};
+
+		assertThat(call(HttpMethod.PUT, upstream, Duration.ofSeconds(5)).statusCode().value()).isEqualTo(502);
+		assertThat(calls).hasValue(1);
+	}
+
+	private ClientResponse call(HttpMethod method, ExchangeFunction upstream, Duration budget) {
+		ClientRequest request = ClientRequest.create(method, URI.create("http://spotify.test/v1/me")).build();
+		return deadlines.outbound().filter(request, upstream)
+				.contextWrite(context -> context.put(RequestDeadlines.Deadline.class,
+						RequestDeadlines.Deadline.after(budget)))
+				.block(Duration.ofSeconds(10));
+	}
+
+}
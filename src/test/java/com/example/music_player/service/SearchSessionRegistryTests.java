@@ -0,0 +1,67 @@
+package com.example.music_player.service;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchSessionRegistryTests {
+
+	private final SearchSessionRegistry registry = new SearchSessionRegistry();
+	private final List<String> results = new ArrayList<>();
+
+	@Test
+	void supersededSearchCompletesEmpty() {
+		Sinks.One<String> slow = Sinks.one();
+		search("alice", "s1", slow.asMono());
+
+		search("alice", "s1", Mono.just("second"));
+		slow.tryEmitValue("first");
+
+		assertThat(results).containsExactly("<empty>", "second");
+		assertThat(registry.inFlightCount()).isZero();
+	}
+
+	@Test
+	void sameSessionIdOfAnotherCallerIsNotCancelled() {
+		Sinks.One<String> slow = Sinks.one();
+		search("alice", "s1", slow.asMono());
+
+		search("mallory", "s1", Mono.just("other"));
+		slow.tryEmitValue("first");
+
+		assertThat(results).containsExactly("other", "first");
+	}
+
+	@Test
+	void sameSessionIdOfAnotherTokenIsNotCancelledEvenForTheSameCaller() {
+		Sinks.One<String> slow = Sinks.one();
+		search("token-a", "shared", "s1", slow.asMono());
+
+		search("token-b", "shared", "s1", Mono.just("other"));
+		slow.tryEmitValue("first");
+
+		assertThat(results).containsExactly("other", "first");
+
+		search("token-a", "shared", "s1", Sinks.<String>one().asMono());
+		search("token-a", "shared", "s1", Mono.just("latest"));
+
+		assertThat(results).containsExactly("other", "first", "<empty>", "latest");
+	}
+
+	private void search(String caller, String session, Mono<String> search) {
+		search(null, caller, session, search);
+	}
+
+	private void search(String accessToken, String caller, String session, Mono<String> search) {
+		registry.switchLatest(accessToken, session, search)
+				.defaultIfEmpty("<empty>")
+				.contextWrite(context -> context.put(FairUpstreamScheduler.CALLER, caller))
+				.subscribe(results::add);
+	}
+
+}
@@ -0,0 +1,29 @@
+package com.example.music_player.service;
+
+import com.example.music_player.exception.SpotifyApiException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SpotifyApiServiceTests {
+
+	private static final SpotifyApiException NO_ACTIVE_DEVICE =
+			new SpotifyApiException(SpotifyApiException.ErrorClass.NO_ACTIVE_DEVICE, 404, 0, null);
+	private static final SpotifyApiException NOT_FOUND =
+			new SpotifyApiException(SpotifyApiException.ErrorClass.NOT_FOUND, 404, 0, null);
+
+	@Test
+	void recoversFromAMissingActiveDeviceWhetherRequestedOrGuessed() {
+		assertThat(SpotifyApiService.isDeviceUnavailable(NO_ACTIVE_DEVICE, null, false)).isTrue();
+		assertThat(SpotifyApiService.isDeviceUnavailable(NO_ACTIVE_DEVICE, "desk", false)).isTrue();
+		assertThat(SpotifyApiService.isDeviceUnavailable(NO_ACTIVE_DEVICE, "desk", true)).isTrue();
+	}
+
+	@Test
+	void recoversFromANotFoundDeviceOnlyWhenItWasGuessed() {
+		assertThat(SpotifyApiService.isDeviceUnavailable(NOT_FOUND, "desk", false)).isTrue();
+		assertThat(SpotifyApiService.isDeviceUnavailable(NOT_FOUND, "desk", true)).isFalse();
+		assertThat(SpotifyApiService.isDeviceUnavailable(NOT_FOUND, null, false)).isFalse();
+		assertThat(SpotifyApiService.isDeviceUnavailable(new IllegalStateException(), "desk", false)).isFalse();
+	}
+}
@@ -0,0 +1,63 @@
+package com.example.music_player.service;
+
+import com.example.music_player.cache.InMemorySharedCacheTier;
+import com.example.music_player.cache.SharedCacheTier;
+import com.example.music_player.cache.TwoLevelCacheManager;
+import com.example.music_player.config.SpotifyConfig;
+import com.example.music_player.dto.SpotifyTokenResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SpotifyAuthServiceTests {
+
+	private final SharedCacheTier sharedTier = new InMemorySharedCacheTier(1_000);
+	private final AtomicInteger tokenCalls = new AtomicInteger();
+
+	@Test
+	void refreshesASessionOnAnotherNodeAndRetiresTheOldToken() {
+		SpotifyAuthService nodeA = node("a");
+		SpotifyAuthService nodeB = node("b");
+		nodeA.exchangeCodeForToken("code").block();
+
+		SpotifyTokenResponse refreshed = nodeB.refreshSession("access-1").block();
+
+		assertThat(refreshed.getAccessToken()).isEqualTo("access-2");
+		assertThat(refreshed.getRefreshToken()).isEqualTo("refresh-1");
+		assertThat(nodeA.refreshSession("access-1").block()).isNull();
+		assertThat(nodeA.refreshSession("access-2").block().getAccessToken()).isEqualTo("access-3");
+		assertThat(tokenCalls).hasValue(3);
+	}
+
+	@Test
+	void unknownSessionsAreNotRefreshed() {
+		assertThat(node("a").refreshSession("forged").block()).isNull();
+		assertThat(tokenCalls).hasValue(0);
+	}
+
+	private SpotifyAuthService node(String nodeId) {
+		SpotifyConfig config = new SpotifyConfig();
+		config.getCache().setNodeId(nodeId);
+		WebClient tokenEndpoint = WebClient.builder()
+				.exchangeFunction(request -> {
+					int call = tokenCalls.incrementAndGet();
+					// Spotify returns a refresh token with the code exchange, not with each refresh
+					String refreshToken = call == 1 ? ",\"refresh_token\":\"refresh-1\"" : "";
+					return Mono.just(ClientResponse.create(HttpStatus.OK)
+							.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+							.body("{\"access_token\":\"access-" + call + "\",\"token_type\":\"Bearer\","
+									+ "\"expires_in\":3600" + refreshToken + "}")
+							.build());
+				})
+				.build();
+		return new SpotifyAuthService(config, new TwoLevelCacheManager(sharedTier, config), tokenEndpoint);
+	}
+}
@@ -0,0 +1,118 @@
+package com.example.music_player.service;
+
+import com.example.music_player.config.SpotifyConfig;
+import com.example.music_player.dto.SpotifySuggestion;
+import com.example.music_player.dto.SpotifyTrack;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrackSuggestionIndexTests {
+
+	private final TrackSuggestionIndex index = new TrackSuggestionIndex(new SpotifyConfig());
+
+	@Test
+	void suggestsTracksArtistsAndAlbumsByPrefix() {
+		index.indexTrack(track("1", "Shake It Off", "a1", "Taylor Swift", "b1", "1989"));
+		index.indexTrack(track("2", "Blank Space", "a1", "Taylor Swift", "b1", "1989"));
+
+		List<SpotifySuggestion> suggestions = index.suggest("tay");
+
+		assertThat(suggestions).extracting(SpotifySuggestion::getType).containsExactly("artist");
+		assertThat(suggestions.get(0).getName()).isEqualTo("Taylor Swift");
+		assertThat(index.suggest("sha")).extracting(SpotifySuggestion::getId).containsExactly("1");
+	}
+
+	@Test
+	void requiresEveryWordAndIgnoresAccents() {
+		index.indexTrack(track("1", "Café del Mar", "a1", "Energy 52", "b1", "Café del Mar"));
+		index.indexTrack(track("2", "Mar Azul", "a2", "Someone", "b2", "Azul"));
+
+		assertThat(index.suggest("cafe ma")).extracting(SpotifySuggestion::getType)
+				.containsExactlyInAnyOrder("track", "album");
+		assertThat(index.suggest("mar")).hasSize(3);
+	}
+
+	@Test
+	void ranksFrequentlySeenEntriesFirst() {
+		index.indexTrack(track("1", "Hello", "a1", "Adele", "b1", "25"));
+		index.indexTrack(track("2", "Help!", "a2", "The Beatles", "b2", "Help!"));
+		index.indexTrack(track("2", "Help!", "a2", "The Beatles", "b2", "Help!"));
+		index.indexTrack(track("2", "Help!", "a2", "The Beatles", "b2", "Help!"));
+
+		List<SpotifySuggestion> suggestions = index.suggest("hel", 1);
+
+		assertThat(suggestions).hasSize(1);
+		assertThat(suggestions.get(0).getName()).isEqualTo("Help!");
+	}
+
+	@Test
+	void ranksEveryMatchNotJustTheFirstCandidates() {
+		for (int i = 0; i < 2_000; i++) {
+			index.add("track", "t" + i, "Love Song " + i, null);
+		}
+		index.add("track", "hit", "Love Song Hit", null);
+		index.add("track", "hit", "Love Song Hit", null);
+
+		assertThat(index.suggest("love", 1)).extracting(SpotifySuggestion::getId).containsExactly("hit");
+	}
+
+	@Test
+	void ranksAtMostTheConfiguredNumberOfCandidates() {
+		SpotifyConfig config = new SpotifyConfig();
+		config.getSuggest().setMaxCandidates(2);
+		TrackSuggestionIndex bounded = new TrackSuggestionIndex(config);
+		bounded.add("track", "t1", "Love", null);
+		bounded.add("track", "t2", "Lovely", null);
+		bounded.add("track", "t3", "Loving", null);
+
+		assertThat(bounded.suggest("lov", 10)).extracting(SpotifySuggestion::getId).containsExactly("t1", "t2");
+	}
+
+	@Test
+	void givesTheExactMatchBonusOnlyToExactNames() {
+		index.add("artist", "a1", "Abba", null);
+		index.add("track", "t1", "Go Abba", null);
+
+		List<SpotifySuggestion> suggestions = index.suggest("abba");
+
+		assertThat(suggestions).extracting(SpotifySuggestion::getId).containsExactly("a1", "t1");
+		assertThat(suggestions.get(0).getScore() - suggestions.get(1).getScore()).isEqualTo(3.0);
+	}
+
+	@Test
+	void evictsTheLeastPopularEntriesWhenFull() {
+		SpotifyConfig config = new SpotifyConfig();
+		config.getSuggest().setMaxEntries(2);
+		TrackSuggestionIndex small = new TrackSuggestionIndex(config);
+		small.add("track", "1", "Popular", null);
+		small.add("track", "1", "Popular", null);
+		small.add("track", "2", "Rare", null);
+
+		small.add("track", "3", "Newcomer", null);
+
+		assertThat(small.size()).isEqualTo(2);
+		assertThat(small.suggest("rare")).isEmpty();
+		assertThat(small.suggest("pop")).hasSize(1);
+		assertThat(small.suggest("new")).hasSize(1);
+	}
+
+	private static SpotifyTrack track(String id, String name, String artistId, String artistName,
+			String albumId, String albumName) {
+		SpotifyTrack.SpotifyArtist artist = new SpotifyTrack.SpotifyArtist();
+		artist.setId(artistId);
+		artist.setName(artistName);
+		SpotifyTrack.SpotifyAlbum album = new SpotifyTrack.SpotifyAlbum();
+		album.setId(albumId);
+		album.setName(albumName);
+		SpotifyTrack track = new SpotifyTrack();
+		track.setId(id);
+		track.setName(name);
+		track.setArtists(List.of(artist));
+		track.setAlbum(album);
+		return track;
+	}
+
+}